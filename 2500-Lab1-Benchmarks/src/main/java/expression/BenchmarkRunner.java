@@ -0,0 +1,38 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ * 
+ * Main class of benchmarks.jar. Accepts the same arguments as the JMH command line but adds the gc profiler when no profiler is given, so allocation
+ * rates are always reported next to the timings. Examples:
+ * 		java -jar benchmarks.jar														(every benchmark)
+ * 		java -jar benchmarks.jar ExpressionBenchmark.evaluate -p operatorMix=unary		(one benchmark, one mix)
+ * 		java -jar benchmarks.jar -prof stack											(another profiler instead of gc)
+ */
+package expression;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner 
+{
+	public static void main(String[] args) throws Exception
+	{
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if(commandLine.shouldHelp())
+		{
+			commandLine.showHelp();
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		if(commandLine.getProfilers().isEmpty())
+			options.addProfiler(GCProfiler.class);
+		Runner runner = new Runner(options.build());
+		if(commandLine.shouldList())
+			runner.list();
+		else
+			runner.run();
+	}
+}
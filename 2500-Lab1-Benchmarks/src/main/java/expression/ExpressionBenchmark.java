@@ -0,0 +1,99 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ * 
+ * JMH benchmarks of converting infix expressions, evaluating compiled expressions and doing both. The inputs are generated by WorkloadGenerator with a
+ * fixed seed and are parameterized by the amount of operands, the nesting depth of parentheses and the operator mix. Each invocation uses the next of a
+ * set of expressions so the branch predictor does not learn a single expression.
+ */
+package expression;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ExpressionBenchmark 
+{
+	@Param({"16", "256", "4096"})
+	public int operandCount;								//Amount of operands in each expression
+	
+	@Param({"0", "4", "16"})
+	public int nestingDepth;								//How deep parentheses are nested
+	
+	@Param({"additive", "multiplicative", "mixed", "unary"})
+	public String operatorMix;								//Which operators are used, see WorkloadGenerator
+	
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidTokenException
+	{
+		//Generates the expressions and converts them once for the evaluation benchmark
+		this.infixExpressions = new WorkloadGenerator(SEED, this.operatorMix).generate(EXPRESSION_COUNT, this.operandCount, this.nestingDepth);
+		this.compiledExpressions = new CompiledExpression[EXPRESSION_COUNT];
+		this.converter = new PostfixNotationCreator();
+		for(int i = 0; i < EXPRESSION_COUNT; i ++)
+		{
+			this.converter.clearExpression();
+			this.converter.processInfixExpression(this.infixExpressions[i]);
+			this.compiledExpressions[i] = this.converter.getCompiledExpression();
+		}
+		this.valueStack = new LongStack();
+	}
+	
+	@Benchmark
+	public CompiledExpression processInfixExpression() throws InvalidTokenException
+	{
+		//Conversion only
+		this.converter.clearExpression();
+		this.converter.processInfixExpression(this.infixExpressions[this.nextIndex()]);
+		return this.converter.getCompiledExpression();
+	}
+	
+	@Benchmark
+	public int evaluate()
+	{
+		//Evaluation of an already converted expression
+		return this.compiledExpressions[this.nextIndex()].evaluate(this.valueStack);
+	}
+	
+	@Benchmark
+	public int convertAndEvaluate() throws InvalidTokenException
+	{
+		//Conversion followed by evaluation, what ExpressionEvaluator does for every line
+		this.converter.clearExpression();
+		this.converter.processInfixExpression(this.infixExpressions[this.nextIndex()]);
+		return this.converter.evaluate();
+	}
+	
+	private int nextIndex()
+	{
+		//Cycles through the expressions
+		this.index = (this.index + 1) & (EXPRESSION_COUNT - 1);
+		return this.index;
+	}
+	
+	static final long SEED = 20171002;						//Fixed seed so every run measures the same expressions
+	static final int EXPRESSION_COUNT = 64;					//Must be a power of two, see nextIndex()
+	
+	private String[] infixExpressions;
+	private CompiledExpression[] compiledExpressions;
+	private PostfixNotationCreator converter;
+	private LongStack valueStack;
+	private int index;
+}
@@ -0,0 +1,134 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * JMH benchmarks of an ExpressionLibrary. The single shot benchmarks compare the start of a process that converts every expression of the library
+ * again (convertAll) with one that maps a library file (open); only the first should grow with the amount of expressions. The other benchmarks
+ * compare finding and evaluating one expression in the mapped file with evaluating a CompiledExpression that is already in memory.
+ */
+package expression;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LibraryBenchmark
+{
+	@Param({"10000", "500000"})
+	public int expressionCount;								//Amount of expressions in the library
+
+	@Param({"16"})
+	public int operandCount;								//Amount of operands in each expression
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, InvalidTokenException
+	{
+		//Generates the expressions and writes them to a temporary library file, the ids are the indexes of the expressions
+		this.infixExpressions = new WorkloadGenerator(ExpressionBenchmark.SEED, "mixed").generate(this.expressionCount, this.operandCount, 4);
+		ExpressionLibraryWriter writer = new ExpressionLibraryWriter();
+		for(int i = 0; i < this.expressionCount; i ++)
+			writer.add(i, this.infixExpressions[i]);
+		this.file = File.createTempFile("expressions", ".lib");
+		writer.write(this.file.getPath());
+		this.library = ExpressionLibrary.open(this.file.getPath());
+		this.compiledExpressions = new CompiledExpression[ExpressionBenchmark.EXPRESSION_COUNT];
+		for(int i = 0; i < ExpressionBenchmark.EXPRESSION_COUNT; i ++)
+			this.compiledExpressions[i] = this.library.getCompiledExpression(this.library.indexOf(this.idOf(i)));
+		this.converter = new PostfixNotationCreator();
+		this.valueStack = new LongStack();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		this.library = null;
+		if(!this.file.delete())
+			this.file.deleteOnExit();						//Still mapped on some systems until the buffer is collected
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	public int convertAll() throws InvalidTokenException
+	{
+		//What a process does today before it can evaluate anything: convert every expression
+		int instructionCount = 0;
+		for(int i = 0; i < this.infixExpressions.length; i ++)
+		{
+			this.converter.clearExpression();
+			this.converter.processInfixExpression(this.infixExpressions[i]);
+			instructionCount += this.converter.getCompiledExpression().getInstructionCount();
+		}
+		return instructionCount;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	public int open() throws IOException
+	{
+		//Maps the library and evaluates one expression
+		ExpressionLibrary library = ExpressionLibrary.open(this.file.getPath());
+		return library.evaluate(library.indexOf(this.idOf(this.nextIndex())), this.valueStack, NO_VARIABLES);
+	}
+
+	@Benchmark
+	public int evaluateById()
+	{
+		return this.library.evaluate(this.library.indexOf(this.idOf(this.nextIndex())), this.valueStack, NO_VARIABLES);
+	}
+
+	@Benchmark
+	public int evaluateByInfix()
+	{
+		return this.library.evaluate(this.library.indexOf(this.infixExpressions[(int)this.idOf(this.nextIndex())]), this.valueStack, NO_VARIABLES);
+	}
+
+	@Benchmark
+	public int evaluateCompiled()
+	{
+		//The same expressions already converted and in memory
+		return this.compiledExpressions[this.nextIndex()].evaluate(this.valueStack, NO_VARIABLES);
+	}
+
+	private long idOf(int index)
+	{
+		//Spreads the expressions used over the whole library so the lookups touch different pages
+		return (long)index * (this.expressionCount / ExpressionBenchmark.EXPRESSION_COUNT);
+	}
+
+	private int nextIndex()
+	{
+		//Cycles through the expressions
+		this.index = (this.index + 1) & (ExpressionBenchmark.EXPRESSION_COUNT - 1);
+		return this.index;
+	}
+
+	private static final long[] NO_VARIABLES = new long[0];
+
+	private String[] infixExpressions;
+	private File file;										//Temporary library file
+	private ExpressionLibrary library;
+	private CompiledExpression[] compiledExpressions;		//Copies of the expressions used by the evaluation benchmarks
+	private PostfixNotationCreator converter;
+	private LongStack valueStack;
+	private int index;
+}
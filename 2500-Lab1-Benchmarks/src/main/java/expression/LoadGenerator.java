@@ -0,0 +1,196 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is a load generator for the server mode of ExpressionEvaluator (see ExpressionServer). It opens a number of connections, sends generated
+ * expressions over each of them with a fixed amount of requests in flight, and reports the throughput and the latency percentiles of the answers.
+ * Every connection has a thread that writes requests and a thread that reads answers, so a deep pipeline never blocks on full socket buffers.
+ * 		java -cp benchmarks.jar expression.LoadGenerator <port> <connections> <requests> <pipeline> [operands] [mix]
+ * The first tenth of the requests of every connection warm up the server and are not measured.
+ */
+package expression;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LoadGenerator
+{
+	public static void main(String[] args) throws Exception
+	{
+		if(args.length < 4)
+		{
+			System.err.println("Usage: LoadGenerator <port> <connections> <requests per connection> <pipeline depth> [operands] [mix]");
+			System.exit(1);
+		}
+		int port = Integer.parseInt(args[0]);
+		int connectionCount = Integer.parseInt(args[1]);
+		int requestCount = Integer.parseInt(args[2]);
+		int pipelineDepth = Integer.parseInt(args[3]);
+		int operandCount = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+		String operatorMix = args.length > 5 ? args[5] : "mixed";
+
+		Connection[] connections = new Connection[connectionCount];
+		for(int i = 0; i < connectionCount; i ++)
+		{
+			String[] expressions = new WorkloadGenerator(ExpressionBenchmark.SEED + i, operatorMix).generate(EXPRESSION_COUNT, operandCount, 4);
+			connections[i] = new Connection(new Socket(InetAddress.getLoopbackAddress(), port), expressions, requestCount, pipelineDepth);
+		}
+		long startTime = System.nanoTime();
+		for(Connection connection : connections)
+			connection.start();
+		long answerCount = 0, errorCount = 0;
+		for(Connection connection : connections)
+		{
+			connection.join();
+			answerCount += requestCount;
+			errorCount += connection.errorCount;
+		}
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		//Merge the measured latencies of every connection and report the percentiles
+		int measuredPerConnection = connections[0].latencies.length;
+		long[] latencies = new long[measuredPerConnection * connectionCount];
+		for(int i = 0; i < connectionCount; i ++)
+			System.arraycopy(connections[i].latencies, 0, latencies, i * measuredPerConnection, measuredPerConnection);
+		Arrays.sort(latencies);
+		System.out.printf("%d answers in %.3f seconds (%.0f answers/sec), %d errors, %d connections, pipeline depth %d%n", answerCount, seconds,
+				answerCount / Math.max(seconds, 1e-9), errorCount, connectionCount, pipelineDepth);
+		System.out.printf("latency us: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n", percentile(latencies, 0.50), percentile(latencies, 0.90),
+				percentile(latencies, 0.99), percentile(latencies, 0.999), percentile(latencies, 1.0));
+	}
+
+	private static double percentile(long[] sortedLatencies, double fraction)
+	{
+		//Returns the latency below which the given fraction of the sorted latencies are, in microseconds
+		if(sortedLatencies.length == 0)
+			return 0;
+		int index = (int)Math.ceil(fraction * sortedLatencies.length) - 1;
+		return sortedLatencies[Math.max(index, 0)] / 1e3;
+	}
+
+	private static final class Connection
+	{
+		Connection(Socket socket, String[] expressions, int requestCount, int pipelineDepth) throws IOException
+		{
+			socket.setTcpNoDelay(true);
+			this.socket = socket;
+			this.requests = new byte[expressions.length][];
+			for(int i = 0; i < expressions.length; i ++)
+				this.requests[i] = (expressions[i] + '\n').getBytes(StandardCharsets.US_ASCII);
+			this.requestCount = requestCount;
+			this.warmupCount = requestCount / 10;
+			this.window = new Semaphore(pipelineDepth);
+			this.sendTimes = new AtomicLongArray(pipelineDepth);
+			this.latencies = new long[requestCount - this.warmupCount];
+			this.writer = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					writeRequests();
+				}
+			};
+			this.reader = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					readAnswers();
+				}
+			};
+		}
+
+		void start()
+		{
+			this.reader.start();
+			this.writer.start();
+		}
+
+		void join() throws InterruptedException, IOException
+		{
+			this.writer.join();
+			this.reader.join();
+			this.socket.close();
+			if(this.failure != null)
+				throw this.failure;
+		}
+
+		private void writeRequests()
+		{
+			//Sends the requests, waiting for a free place in the window before each one. The output is flushed whenever the window is full
+			try
+			{
+				OutputStream output = new BufferedOutputStream(this.socket.getOutputStream(), 1 << 16);
+				int pipelineDepth = this.sendTimes.length();
+				for(int i = 0; i < this.requestCount; i ++)
+				{
+					if(!this.window.tryAcquire())
+					{
+						output.flush();
+						this.window.acquire();
+					}
+					this.sendTimes.set(i % pipelineDepth, System.nanoTime());	//The slot was freed by the answer pipelineDepth requests ago
+					output.write(this.requests[i % this.requests.length]);
+				}
+				output.flush();
+			}
+			catch(IOException | InterruptedException e)
+			{
+				this.failure = new IOException("Sending requests failed", e);
+			}
+		}
+
+		private void readAnswers()
+		{
+			//Reads an answer line for every request and records how long after its request it arrived
+			try
+			{
+				InputStream input = new BufferedInputStream(this.socket.getInputStream(), 1 << 16);
+				int pipelineDepth = this.sendTimes.length();
+				for(int i = 0; i < this.requestCount; i ++)
+				{
+					int first = input.read(), next = first;
+					while(next != '\n')
+					{
+						if(next < 0)
+							throw new EOFException("The server closed the connection after " + i + " answers");
+						next = input.read();
+					}
+					long latency = System.nanoTime() - this.sendTimes.get(i % pipelineDepth);
+					this.window.release();
+					if(first == 'T' || first == 'E')			//"The algebraic (infix) expression is invalid..." or "Error: ..."
+						this.errorCount++;
+					if(i >= this.warmupCount)
+						this.latencies[i - this.warmupCount] = latency;
+				}
+			}
+			catch(IOException e)
+			{
+				this.failure = e;
+			}
+		}
+
+		private final Socket socket;
+		private final byte[][] requests;				//Encoded expressions, sent in turn
+		private final int requestCount;
+		private final int warmupCount;					//Requests at the start that are not measured
+		private final Semaphore window;					//Permits for the requests that may be in flight
+		private final AtomicLongArray sendTimes;		//Send time of every request in flight, indexed by request number modulo the pipeline depth
+		final long[] latencies;							//Measured latencies in nanoseconds
+		long errorCount;								//Answers that were error messages
+		private volatile IOException failure;
+		private final Thread writer, reader;
+	}
+
+	private static final int EXPRESSION_COUNT = 1024;	//Different expressions sent over every connection
+}
@@ -0,0 +1,97 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * JMH benchmarks of evaluating the same compiled expressions with each numeric engine of NumericMode. The expressions come from WorkloadGenerator, so
+ * their results fit in an int and every mode computes the same value; the difference is only what each engine pays for its precision.
+ */
+package expression;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NumericModeBenchmark
+{
+	@Param({"16", "256"})
+	public int operandCount;								//Amount of operands in each expression
+
+	@Param({"additive", "multiplicative", "mixed", "unary"})
+	public String operatorMix;								//Which operators are used, see WorkloadGenerator
+
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidTokenException
+	{
+		//Generates and converts the expressions once, only the evaluation is measured
+		String[] infixExpressions = new WorkloadGenerator(ExpressionBenchmark.SEED, this.operatorMix).generate(ExpressionBenchmark.EXPRESSION_COUNT,
+				this.operandCount, 4);
+		this.compiledExpressions = new CompiledExpression[ExpressionBenchmark.EXPRESSION_COUNT];
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		for(int i = 0; i < ExpressionBenchmark.EXPRESSION_COUNT; i ++)
+		{
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpressions[i]);
+			this.compiledExpressions[i] = converter.getCompiledExpression();
+		}
+		this.valueStack = new LongStack();
+		this.doubleStack = new DoubleStack();
+	}
+
+	@Benchmark
+	public int int32()
+	{
+		return this.compiledExpressions[this.nextIndex()].evaluate(this.valueStack, NO_VARIABLES);
+	}
+
+	@Benchmark
+	public long int64()
+	{
+		return this.compiledExpressions[this.nextIndex()].evaluateLong(this.valueStack, NO_VARIABLES);
+	}
+
+	@Benchmark
+	public BigInteger bigInteger()
+	{
+		return this.compiledExpressions[this.nextIndex()].evaluateBigInteger(NO_BIG_VARIABLES);
+	}
+
+	@Benchmark
+	public double doubleMode()
+	{
+		return this.compiledExpressions[this.nextIndex()].evaluateDouble(this.doubleStack, NO_DOUBLE_VARIABLES);
+	}
+
+	private int nextIndex()
+	{
+		//Cycles through the expressions
+		this.index = (this.index + 1) & (ExpressionBenchmark.EXPRESSION_COUNT - 1);
+		return this.index;
+	}
+
+	private static final long[] NO_VARIABLES = new long[0];
+	private static final BigInteger[] NO_BIG_VARIABLES = new BigInteger[0];
+	private static final double[] NO_DOUBLE_VARIABLES = new double[0];
+
+	private CompiledExpression[] compiledExpressions;
+	private LongStack valueStack;
+	private DoubleStack doubleStack;
+	private int index;
+}
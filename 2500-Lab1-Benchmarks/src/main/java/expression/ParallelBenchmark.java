@@ -0,0 +1,91 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * JMH benchmarks of evaluating one very large expression with ParallelEvaluator on pools of different sizes, next to the sequential evaluation of the
+ * same expression. The expression joins groupCount generated expressions, each wrapped in C() so the sum stays in the range of an integer. The
+ * converter makes a long chain of equal precedence operators into a single chain of dependent operations, so the groups are what can be evaluated in
+ * parallel. Compare the scores for each parallelism to see how well the evaluation scales:
+ * 		java -jar benchmarks.jar ParallelBenchmark -p parallelism=1,2,4,8
+ */
+package expression;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ParallelBenchmark
+{
+	@Param({"262144", "4194304"})
+	public int operandCount;								//Amount of operands in the expression
+
+	@Param({"256"})
+	public int groupCount;									//Amount of independent subexpressions
+
+	@Param({"1", "2", "4", "8"})
+	public int parallelism;									//Amount of threads in the pool
+
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidTokenException
+	{
+		WorkloadGenerator generator = new WorkloadGenerator(ExpressionBenchmark.SEED, "mixed");
+		StringBuilder infixExpression = new StringBuilder(this.operandCount * 8);
+		for(int i = 0; i < this.groupCount; i ++)
+		{
+			if(i > 0)
+				infixExpression.append(" + ");
+			infixExpression.append("C(").append(generator.generate(this.operandCount / this.groupCount, 4)).append(')');
+		}
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression(infixExpression.toString());
+		this.compiledExpression = converter.getCompiledExpression();
+		this.evaluator = new ParallelEvaluator(this.compiledExpression);
+		this.valueStack = new LongStack();
+		this.pool = new ForkJoinPool(this.parallelism);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		this.pool.shutdown();
+	}
+
+	@Benchmark
+	public int sequential()
+	{
+		//One thread, the same for every parallelism
+		return this.compiledExpression.evaluate(this.valueStack);
+	}
+
+	@Benchmark
+	public int parallel()
+	{
+		return this.evaluator.evaluate(this.pool, NO_VARIABLES);
+	}
+
+	private static final long[] NO_VARIABLES = new long[0];
+
+	private CompiledExpression compiledExpression;
+	private ParallelEvaluator evaluator;
+	private LongStack valueStack;
+	private ForkJoinPool pool;
+}
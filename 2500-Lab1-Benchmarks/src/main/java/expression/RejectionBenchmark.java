@@ -0,0 +1,99 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * JMH benchmarks of converting a mix of valid and malformed infix expressions, comparing the exception API (processInfixExpression) with the result API
+ * (convert). A share of the generated expressions is broken at a random position in one of the ways real input is malformed, the rest are left valid.
+ */
+package expression;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RejectionBenchmark
+{
+	@Param({"16", "256"})
+	public int operandCount;								//Amount of operands in each expression
+
+	@Param({"0", "30", "100"})
+	public int rejectPercent;								//Share of the expressions that are malformed
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		//Generates valid expressions and breaks a share of them
+		this.infixExpressions = new WorkloadGenerator(ExpressionBenchmark.SEED, "mixed").generate(EXPRESSION_COUNT, this.operandCount, 4);
+		Random random = new Random(ExpressionBenchmark.SEED);
+		for(int i = 0; i < EXPRESSION_COUNT; i ++)
+			if(random.nextInt(100) < this.rejectPercent)
+				this.infixExpressions[i] = breakExpression(this.infixExpressions[i], random);
+		this.converter = new PostfixNotationCreator();
+	}
+
+	@Benchmark
+	public int processInfixExpression()
+	{
+		//Exception API. Returns the length of the reason so the message is built like a caller reporting the error would
+		try
+		{
+			this.converter.clearExpression();
+			this.converter.processInfixExpression(this.infixExpressions[this.nextIndex()]);
+			return 0;
+		}
+		catch(InvalidTokenException e)
+		{
+			return e.getReason().length();
+		}
+	}
+
+	@Benchmark
+	public int convert()
+	{
+		//Result API. Returns the offset of the error, the message is not built
+		return this.converter.convert(this.infixExpressions[this.nextIndex()]).getErrorOffset();
+	}
+
+	private static String breakExpression(String infixExpression, Random random)
+	{
+		//Breaks an expression at a random position: an unknown character, a missing operand or an unclosed parenthesis
+		int position = random.nextInt(infixExpression.length());
+		switch(random.nextInt(3))
+		{
+		case 0:		return infixExpression.substring(0, position) + '#' + infixExpression.substring(position);
+		case 1:		return infixExpression.substring(0, position) + " + ";
+		default:	return "(" + infixExpression;
+		}
+	}
+
+	private int nextIndex()
+	{
+		//Cycles through the expressions
+		this.index = (this.index + 1) & (EXPRESSION_COUNT - 1);
+		return this.index;
+	}
+
+	private static final int EXPRESSION_COUNT = 64;			//Must be a power of two, see nextIndex()
+
+	private String[] infixExpressions;
+	private PostfixNotationCreator converter;
+	private int index;
+}
@@ -0,0 +1,86 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ * 
+ * JMH benchmarks of pushing and popping the stacks used by the converter and the evaluator. The linked generic Stack is compared with the primitive
+ * array stacks that replaced it on the hot paths.
+ */
+package expression;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StackBenchmark 
+{
+	@Param({"16", "1024"})
+	public int depth;										//Amount of items pushed before they are all popped
+	
+	@Benchmark
+	public long genericLongStack() throws StackUnderflowException
+	{
+		Stack<Long> stack = this.genericLongs;
+		for(int i = 0; i < this.depth; i ++)
+			stack.push((long)i);
+		long sum = 0;
+		while(!stack.isEmpty())
+			sum += stack.pop();
+		return sum;
+	}
+	
+	@Benchmark
+	public long longStack()
+	{
+		LongStack stack = this.longs;
+		for(int i = 0; i < this.depth; i ++)
+			stack.push(i);
+		long sum = 0;
+		while(!stack.isEmpty())
+			sum += stack.pop();
+		return sum;
+	}
+	
+	@Benchmark
+	public long genericCharacterStack() throws StackUnderflowException
+	{
+		Stack<Character> stack = this.genericCharacters;
+		for(int i = 0; i < this.depth; i ++)
+			stack.push((char)('a' + (i & 15)));
+		long sum = 0;
+		while(!stack.isEmpty())
+			sum += stack.pop();
+		return sum;
+	}
+	
+	@Benchmark
+	public long charStack()
+	{
+		CharStack stack = this.characters;
+		for(int i = 0; i < this.depth; i ++)
+			stack.push((char)('a' + (i & 15)));
+		long sum = 0;
+		while(!stack.isEmpty())
+			sum += stack.pop();
+		return sum;
+	}
+	
+	private final Stack<Long> genericLongs = new Stack<Long>();
+	private final LongStack longs = new LongStack();
+	private final Stack<Character> genericCharacters = new Stack<Character>();
+	private final CharStack characters = new CharStack();
+}
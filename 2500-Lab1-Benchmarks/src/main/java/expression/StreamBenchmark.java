@@ -0,0 +1,78 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * JMH benchmarks of converting one large expression to post-fix text, comparing the converter that needs the whole expression (PostfixNotationCreator)
+ * with the push converter that is fed chunks of it (PostfixStreamConverter). Both write the post-fix text into a reused buffer.
+ */
+package expression;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StreamBenchmark
+{
+	@Param({"256", "65536"})
+	public int operandCount;								//Amount of operands in the expression
+
+	@Param({"mixed", "unary"})
+	public String operatorMix;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		this.infixExpression = new WorkloadGenerator(ExpressionBenchmark.SEED, this.operatorMix).generate(this.operandCount, 8);
+		this.characters = this.infixExpression.toCharArray();
+		this.output = new StringBuilder(this.characters.length * 2);
+		this.converter = new PostfixNotationCreator();
+		this.streamConverter = new PostfixStreamConverter(this.output);
+	}
+
+	@Benchmark
+	public int convert() throws IOException
+	{
+		//Converts the whole String, then writes the post-fix text
+		this.output.setLength(0);
+		this.converter.convert(this.infixExpression);
+		this.converter.writePostfixExpression(this.output);
+		return this.output.length();
+	}
+
+	@Benchmark
+	public int feed() throws IOException
+	{
+		//Feeds the expression in chunks the size of a read buffer, the tokens are written while it is fed
+		this.output.setLength(0);
+		for(int offset = 0; offset < this.characters.length; offset += CHUNK_SIZE)
+			this.streamConverter.feed(this.characters, offset, Math.min(CHUNK_SIZE, this.characters.length - offset));
+		this.streamConverter.finish();
+		return this.output.length();
+	}
+
+	private static final int CHUNK_SIZE = 1 << 13;
+
+	private String infixExpression;
+	private char[] characters;
+	private StringBuilder output;
+	private PostfixNotationCreator converter;
+	private PostfixStreamConverter streamConverter;
+}
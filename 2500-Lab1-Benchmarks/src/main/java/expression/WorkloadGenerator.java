@@ -0,0 +1,189 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ * 
+ * This class generates random but reproducible infix expressions for the benchmarks. The same seed always gives the same expressions. Expressions are
+ * built from a requested amount of operands, a nesting depth of parentheses and an operator mix, and every generated expression evaluates without an
+ * ArithmeticException so the benchmarks measure the normal path.
+ * 
+ * It can also be run by itself to write a workload file for the batch mode of ExpressionEvaluator:
+ * 		java -cp benchmarks.jar expression.WorkloadGenerator <count> <operands> <depth> <mix> [seed]
+ */
+package expression;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class WorkloadGenerator 
+{
+	public WorkloadGenerator(long seed, String operatorMix)
+	{
+		/*
+		 * Creates a generator.
+		 * Caller Requirements: operatorMix must be one of "additive" (+ -), "multiplicative" (* / %), "mixed" (every binary operator and a few unary
+		 * 		operators) or "unary" (every binary operator, most operands wrapped in Q or C)
+		 * Caller Expectations: Two generators created with the same seed and mix generate the same expressions
+		 */
+		this.random = new Random(seed);
+		if(operatorMix.equals("additive"))
+			this.binaryOperators = "+-".toCharArray();
+		else if(operatorMix.equals("multiplicative"))
+			this.binaryOperators = "*/%".toCharArray();
+		else if(operatorMix.equals("mixed") || operatorMix.equals("unary"))
+			this.binaryOperators = "+-*/^<>%".toCharArray();
+		else
+			throw new IllegalArgumentException("Unknown operator mix " + operatorMix);
+		this.unaryChance = operatorMix.equals("unary") ? 0.6 : operatorMix.equals("mixed") ? 0.1 : 0.0;
+	}
+	
+	public String[] generate(int count, int operandCount, int nestingDepth)
+	{
+		//Generates count expressions, see generate(int, int)
+		String[] expressions = new String[count];
+		for(int i = 0; i < count; i ++)
+			expressions[i] = this.generate(operandCount, nestingDepth);
+		return expressions;
+	}
+	
+	public String generate(int operandCount, int nestingDepth)
+	{
+		/*
+		 * Generates one infix expression.
+		 * Caller Requirements: operandCount must be greater than 0 and nestingDepth must not be negative
+		 * Caller Expectations: The expression has operandCount operands and parentheses nested nestingDepth deep (less if there are not enough operands).
+		 * 		The expression is converted and evaluated before it is returned to make sure it is valid
+		 */
+		StringBuilder expression = new StringBuilder(operandCount * 8);
+		long expectedValue = this.appendSequence(expression, operandCount, nestingDepth);
+		String infixExpression = expression.toString();
+		
+		//Check the expression with the real converter and evaluator. A mismatch means the generator does not follow the evaluator's rules
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		try
+		{
+			converter.processInfixExpression(infixExpression);
+			if(converter.evaluate() != expectedValue)
+				throw new IllegalStateException("Generated expression evaluated to an unexpected value: " + infixExpression);
+		}
+		catch(InvalidTokenException e)
+		{
+			throw new IllegalStateException("Generated expression is invalid: " + infixExpression, e);
+		}
+		return infixExpression;
+	}
+	
+	private long appendSequence(StringBuilder output, int operandCount, int nestingDepth)
+	{
+		/*
+		 * Appends a sequence of terms joined by binary operators and returns its value. The converter gives every binary operator the same precedence,
+		 * 		so the sequence is evaluated from left to right. The first term is nested while there is depth left so the requested depth is reached.
+		 */
+		int firstOperands = nestingDepth > 0 ? Math.max(1, operandCount / 2) : 1;
+		long value = this.appendTerm(output, firstOperands, nestingDepth, nestingDepth > 0);
+		int remaining = operandCount - firstOperands;
+		StringBuilder term = new StringBuilder();
+		while(remaining > 0)
+		{
+			char operator = this.binaryOperators[this.random.nextInt(this.binaryOperators.length)];
+			long termValue;
+			term.setLength(0);
+			if(operator == '^' || operator == '<' || operator == '>')		//Keep exponents and shift amounts small
+			{
+				termValue = this.random.nextInt(operator == '^' ? 4 : 12);
+				term.append(termValue);
+				remaining--;
+			}
+			else
+			{
+				boolean nest = nestingDepth > 0 && remaining > 1 && this.random.nextInt(4) == 0;
+				int termOperands = nest ? 1 + this.random.nextInt(Math.min(remaining, 8)) : 1;
+				termValue = this.appendTerm(term, termOperands, nestingDepth, nest);
+				remaining -= termOperands;
+			}
+			
+			//Fall back to + or - when the chosen operator would overflow or divide by zero
+			long result = apply(operator, value, termValue);
+			if(result == INVALID)
+			{
+				operator = '+';
+				result = apply(operator, value, termValue);
+			}
+			if(result == INVALID)
+			{
+				operator = '-';
+				result = apply(operator, value, termValue);
+			}
+			output.append(' ').append(operator).append(' ').append(term);
+			value = result;
+		}
+		return value;
+	}
+	
+	private long appendTerm(StringBuilder output, int operandCount, int nestingDepth, boolean nest)
+	{
+		//Appends an operand, a parenthesized sequence when nest is true, optionally wrapped in a unary operator. Returns the value of the term
+		boolean unary = this.random.nextDouble() < this.unaryChance;
+		if(!unary && !nest)
+		{
+			long value = 1 + this.random.nextInt(99);
+			output.append(value);
+			return value;
+		}
+		char unaryOperator = this.random.nextBoolean() ? 'Q' : 'C';
+		if(unary)
+			output.append(unaryOperator);
+		output.append('(');
+		long value = nest ? this.appendSequence(output, operandCount, nestingDepth - 1) : this.appendTerm(output, 1, 0, false);
+		output.append(')');
+		if(unary)
+			value = unaryOperator == 'Q' ? CompiledExpression.squareRoot(value) : CompiledExpression.cubeRoot(value);
+		return value;
+	}
+	
+	private static long apply(char operator, long firstOperand, long secondOperand)
+	{
+		//Applies a binary operator the same way the evaluator does. INVALID is returned if the evaluator would throw an exception
+		if((operator == '/' || operator == '%') && secondOperand == 0)
+			return INVALID;
+		long result;
+		try
+		{
+			result = CompiledExpression.applyBinaryOperator(CompiledExpression.opcodeOf(operator), firstOperand, secondOperand);
+		}
+		catch(ArithmeticException e)
+		{//A power that does not fit in a long
+			return INVALID;
+		}
+		if(result > Integer.MAX_VALUE || result < Integer.MIN_VALUE)
+			return INVALID;
+		return result;
+	}
+	
+	public static void main(String[] args) throws IOException
+	{
+		//Writes generated expressions to the standard output, one per line
+		if(args.length < 4)
+		{
+			System.err.println("Usage: WorkloadGenerator <count> <operands> <depth> <additive|multiplicative|mixed|unary> [seed]");
+			System.exit(1);
+		}
+		int count = Integer.parseInt(args[0]);
+		int operandCount = Integer.parseInt(args[1]);
+		int nestingDepth = Integer.parseInt(args[2]);
+		WorkloadGenerator generator = new WorkloadGenerator(args.length > 4 ? Long.parseLong(args[4]) : 1, args[3]);
+		Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), 1 << 16);
+		for(int i = 0; i < count; i ++)
+			output.append(generator.generate(operandCount, nestingDepth)).append('\n');
+		output.close();
+	}
+	
+	private static final long INVALID = Long.MIN_VALUE;		//Marks a result the evaluator would reject, it is outside the range of an integer
+	
+	private final Random random;						//Source of every random choice, seeded so workloads are reproducible
+	private final char[] binaryOperators;				//Binary operators to choose from
+	private final double unaryChance;					//Chance of wrapping an operand in a unary operator
+}
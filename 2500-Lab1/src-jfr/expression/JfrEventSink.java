@@ -0,0 +1,114 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class commits the conversions and evaluations recorded by ExpressionMetrics as Flight Recorder events. It is the only class that uses jdk.jfr
+ * and it is only loaded by name, see ExpressionMetrics.loadEventSink(). The events have no duration of their own because the time was already
+ * measured by the caller; it is a field instead, so a recording can be filtered on it.
+ * 		java -XX:StartFlightRecording=filename=expressions.jfr ... 		then	jfr print --events expression.Conversion expressions.jfr
+ */
+package expression;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+final class JfrEventSink extends ExpressionMetrics.EventSink
+{
+	JfrEventSink()
+	{
+		this.conversionCheck = new ConversionEvent();
+		this.evaluationCheck = new EvaluationEvent();
+	}
+
+	@Override
+	void conversion(int length, int instructionCount, int operatorCount, int maxStackDepth, int variableCount, String error, long nanos)
+	{
+		if(!this.conversionCheck.isEnabled())			//No recording wants these events, do not create one
+			return;
+		ConversionEvent event = new ConversionEvent();
+		event.length = length;
+		event.instructionCount = instructionCount;
+		event.operatorCount = operatorCount;
+		event.maxStackDepth = maxStackDepth;
+		event.variableCount = variableCount;
+		event.error = error;
+		event.conversionTime = nanos;
+		event.commit();
+	}
+
+	@Override
+	void evaluation(int instructionCount, int maxStackDepth, String failure, long nanos)
+	{
+		if(!this.evaluationCheck.isEnabled())
+			return;
+		EvaluationEvent event = new EvaluationEvent();
+		event.instructionCount = instructionCount;
+		event.maxStackDepth = maxStackDepth;
+		event.failure = failure;
+		event.evaluationTime = nanos;
+		event.commit();
+	}
+
+	@Name("expression.Conversion")
+	@Label("Expression Conversion")
+	@Category("Expression")
+	@Description("An infix expression converted to post-fix")
+	@StackTrace(false)
+	static final class ConversionEvent extends Event
+	{
+		@Label("Length")
+		@Description("Characters in the infix expression")
+		int length;
+
+		@Label("Instructions")
+		@Description("Values, variables and operators of a valid expression")
+		int instructionCount;
+
+		@Label("Operators")
+		int operatorCount;
+
+		@Label("Max Stack Depth")
+		int maxStackDepth;
+
+		@Label("Variables")
+		int variableCount;
+
+		@Label("Error")
+		@Description("Why the expression is invalid, empty if it is valid")
+		String error;
+
+		@Label("Conversion Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long conversionTime;
+	}
+
+	@Name("expression.Evaluation")
+	@Label("Expression Evaluation")
+	@Category("Expression")
+	@Description("A post-fix expression evaluated")
+	@StackTrace(false)
+	static final class EvaluationEvent extends Event
+	{
+		@Label("Instructions")
+		int instructionCount;
+
+		@Label("Max Stack Depth")
+		int maxStackDepth;
+
+		@Label("Failure")
+		@Description("Why the evaluation threw an ArithmeticException, empty if it did not")
+		String failure;
+
+		@Label("Evaluation Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long evaluationTime;
+	}
+
+	private final ConversionEvent conversionCheck;		//Only used to ask whether an event type is enabled, never committed
+	private final EvaluationEvent evaluationCheck;
+}
@@ -0,0 +1,115 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class collects ASCII output in a growable byte array. Characters are stored as single bytes as they are appended, so output can be written to a
+ * stream without building Strings or going through a character encoder. The array is kept when the buffer is cleared so a buffer can be reused for
+ * every chunk of a batch.
+ */
+package expression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+final class AsciiOutputBuffer implements Appendable
+{
+	AsciiOutputBuffer(int initialCapacity)
+	{
+		this.bytes = new byte[Math.max(initialCapacity, 16)];
+	}
+
+	@Override
+	public AsciiOutputBuffer append(char character)
+	{
+		//Appends a character. Characters outside of ASCII are written as '?' like the US-ASCII encoder does
+		if(this.size == this.bytes.length)
+			this.ensureCapacity(this.size + 1);
+		this.bytes[this.size++] = character < 128 ? (byte)character : (byte)'?';
+		return this;
+	}
+
+	@Override
+	public AsciiOutputBuffer append(CharSequence text)
+	{
+		if(text == null)								//Same as the other Appendable implementations
+			text = "null";
+		return this.append(text, 0, text.length());
+	}
+
+	@Override
+	public AsciiOutputBuffer append(CharSequence text, int start, int end)
+	{
+		if(text == null)
+			text = "null";
+		this.ensureCapacity(this.size + end - start);
+		for(int i = start; i < end; i ++)
+		{
+			char character = text.charAt(i);
+			this.bytes[this.size++] = character < 128 ? (byte)character : (byte)'?';
+		}
+		return this;
+	}
+
+	AsciiOutputBuffer appendNumber(long value)
+	{
+		//Appends the decimal digits of value without creating a String
+		if(value < 0)
+			this.append('-');
+		int digitCount = 1;
+		for(long rest = value / 10; rest != 0; rest /= 10)
+			digitCount++;
+		this.ensureCapacity(this.size + digitCount);
+		for(int i = this.size + digitCount - 1; i >= this.size; i --)
+		{
+			this.bytes[i] = (byte)('0' + Math.abs(value % 10));	//Use the absolute value of each digit so Long.MIN_VALUE does not overflow
+			value /= 10;
+		}
+		this.size += digitCount;
+		return this;
+	}
+
+	int length()
+	{
+		return this.size;
+	}
+
+	void setLength(int length)
+	{
+		//Discards everything after the first length bytes. Used to take back output that was appended
+		this.size = length;
+	}
+
+	void writeTo(OutputStream output) throws IOException
+	{
+		output.write(this.bytes, 0, this.size);
+	}
+
+	int writeTo(WritableByteChannel output, int offset) throws IOException
+	{
+		/*
+		 * Writes the bytes from offset to the end to a channel. A non-blocking channel may write only some of them.
+		 * Caller Expectations: Returns the amount of bytes written. Any IOException thrown by the channel is passed on
+		 */
+		if(this.channelView == null || this.channelView.array() != this.bytes)	//Wrap the array again only when it has grown
+			this.channelView = ByteBuffer.wrap(this.bytes);
+		Buffer view = this.channelView;						//Called through Buffer so the class also runs on Java 8, where ByteBuffer does not override these
+		view.limit(this.size);
+		view.position(offset);
+		return output.write(this.channelView);
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		//Grows the array to hold at least capacity bytes
+		if(capacity > this.bytes.length)
+			this.bytes = Arrays.copyOf(this.bytes, Math.max(capacity, this.bytes.length * 2));
+	}
+
+	private byte[] bytes;						//The output
+	private int size;							//Amount of bytes used
+	private ByteBuffer channelView;				//Wrapper of the array used to write to channels
+}
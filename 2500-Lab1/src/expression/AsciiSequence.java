@@ -0,0 +1,65 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is a CharSequence view of ASCII text stored in a ByteBuffer, one byte per character. It lets the PostfixNotationCreator parse an expression
+ * where it is stored, for example in a memory-mapped file, without decoding it into a String first. The view can be moved to another region of a buffer
+ * so one object is reused for every expression. Only absolute reads are used, the position and limit of the buffer are never changed.
+ */
+package expression;
+
+import java.nio.ByteBuffer;
+
+final class AsciiSequence implements CharSequence
+{
+	void wrap(ByteBuffer buffer, int offset, int length)
+	{
+		/*
+		 * Moves the view to a region of a buffer.
+		 * Caller Requirements: The bytes from offset to offset + length must be within the limit of buffer
+		 * Caller Expectations: charAt(0) is the byte at offset. The buffer is not copied
+		 */
+		if(offset < 0 || length < 0 || offset > buffer.limit() - length)
+			throw new IndexOutOfBoundsException("The region " + offset + " to " + (offset + length) + " is outside of the buffer");
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	@Override
+	public int length()
+	{
+		return this.length;
+	}
+
+	@Override
+	public char charAt(int index)
+	{
+		//Returns the byte at index as a character. Bytes above 127 are read as the Latin-1 character with the same value
+		if(index < 0 || index >= this.length)
+			throw new IndexOutOfBoundsException("Index " + index + " is outside of a sequence of length " + this.length);
+		return (char)(this.buffer.get(this.offset + index) & 0xFF);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end)
+	{
+		//Returns a copy of the characters from start to end. Only used for error messages and names, so a String is created rather than another view
+		if(start < 0 || start > end || end > this.length)
+			throw new IndexOutOfBoundsException("The region " + start + " to " + end + " is outside of a sequence of length " + this.length);
+		char[] characters = new char[end - start];
+		for(int i = 0; i < characters.length; i ++)
+			characters[i] = this.charAt(start + i);
+		return new String(characters);
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.subSequence(0, this.length).toString();
+	}
+
+	private ByteBuffer buffer;					//Buffer holding the text
+	private int offset;							//Index in the buffer of the first character
+	private int length;							//Amount of characters in the view
+}
@@ -0,0 +1,297 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class converts and evaluates a large amount of infix expressions, one per line, using every core. Lines are read in chunks and every chunk is
+ * converted and evaluated by a worker thread. The results of the chunks are written in the same order as the input. Input can be read from a stream or
+ * from a file that is memory-mapped; a mapped file is parsed in place as bytes so no String is created for its lines. Chunks and their buffers are
+ * reused once their output is written, so the memory used does not grow with the size of the input.
+ */
+package expression;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchEvaluator
+{
+	public BatchEvaluator(int workerCount, int chunkSize)
+	{
+		this(workerCount, chunkSize, null);
+	}
+
+	public BatchEvaluator(int workerCount, int chunkSize, ExpressionMetrics metrics)
+	{
+		this(workerCount, chunkSize, NumericMode.INT32, metrics);
+	}
+
+	public BatchEvaluator(int workerCount, int chunkSize, NumericMode mode, ExpressionMetrics metrics)
+	{
+		/*
+		 * Creates a batch evaluator.
+		 * Caller Requirements: workerCount and chunkSize must be greater than 0. mode must be non-null. metrics may be null
+		 * Caller Expectations: run() uses workerCount threads and gives each of them chunkSize lines at a time. Every line is evaluated in mode and
+		 * 		recorded in metrics
+		 */
+		if(workerCount < 1 || chunkSize < 1)
+			throw new IllegalArgumentException("The worker count and chunk size must be greater than 0");
+		this.workerCount = workerCount;
+		this.chunkSize = chunkSize;
+		this.mode = mode;
+		this.metrics = metrics;
+	}
+
+	public long run(BufferedReader input, OutputStream output) throws IOException, InterruptedException
+	{
+		/*
+		 * Converts and evaluates every line of input and writes one line of output for each of them.
+		 *
+		 * Caller Requirements: input and output must be non-null. output should be buffered
+		 * Caller Expectations: Returns the amount of expressions processed. For each line the post-fix expression and the result separated by a tab are
+		 * 		written as ASCII, or the error message if the expression could not be converted or evaluated. Lines are written in input order. output
+		 * 		is flushed but not closed.
+		 *
+		 * The calling thread reads chunks and submits them to the workers. At most two chunks per worker are in flight; when that limit is reached the
+		 * 		oldest chunk is waited for and written before more input is read, so memory use does not depend on the size of the input.
+		 */
+		ExecutorService workers = Executors.newFixedThreadPool(this.workerCount);
+		ArrayDeque<Future<Chunk>> pendingChunks = new ArrayDeque<Future<Chunk>>();	//Chunks in input order
+		ArrayDeque<Chunk> freeChunks = new ArrayDeque<Chunk>();						//Chunks whose output has been written
+		long expressionCount = 0;
+		try
+		{
+			while(true)
+			{
+				Chunk chunk = freeChunks.isEmpty() ? new Chunk(this.chunkSize, this.mode, this.metrics) : freeChunks.remove();
+				String line;
+				chunk.window = null;
+				chunk.lineCount = 0;
+				while(chunk.lineCount < chunk.lines.length && (line = input.readLine()) != null)
+					chunk.lines[chunk.lineCount++] = line;
+				if(chunk.lineCount == 0)						//End of the input
+					break;
+				expressionCount += this.submitChunk(chunk, workers, pendingChunks, freeChunks, output);
+			}
+			expressionCount += writeChunks(pendingChunks, freeChunks, output);
+		}
+		finally
+		{
+			workers.shutdownNow();
+		}
+		return expressionCount;
+	}
+
+	public long run(FileChannel input, OutputStream output) throws IOException, InterruptedException
+	{
+		/*
+		 * Converts and evaluates every line of a file, reading the file through memory mapping.
+		 *
+		 * Caller Requirements: input must be a readable file. Lines end with '\n', a '\r' before it is ignored. output should be buffered
+		 * Caller Expectations: Same as run(BufferedReader, OutputStream). The file is read from the start, the position of the channel is not used
+		 *
+		 * The file is mapped a window at a time, each window ends after the last complete line in it. A window is cut into chunks by size rather than
+		 * 		by counting lines, so the calling thread does not read the bytes: a chunk ends at the first line end after about chunkSize lines of
+		 * 		ESTIMATED_LINE_LENGTH bytes. Workers read the lines straight from the mapped window.
+		 */
+		ExecutorService workers = Executors.newFixedThreadPool(this.workerCount);
+		ArrayDeque<Future<Chunk>> pendingChunks = new ArrayDeque<Future<Chunk>>();
+		ArrayDeque<Chunk> freeChunks = new ArrayDeque<Chunk>();
+		long chunkBytes = (long)this.chunkSize * ESTIMATED_LINE_LENGTH;
+		long expressionCount = 0;
+		try
+		{
+			long fileSize = input.size();
+			for(long position = 0; position < fileSize; )
+			{
+				int windowSize = (int)Math.min(MAX_WINDOW_SIZE, fileSize - position);
+				ByteBuffer window = input.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+				int windowEnd = windowSize;
+				if(position + windowSize < fileSize)			//The file continues after the window. End the window after its last complete line
+				{
+					while(windowEnd > 0 && window.get(windowEnd - 1) != '\n')
+						windowEnd--;
+					if(windowEnd == 0)
+						throw new IOException("A line of the input is longer than " + MAX_WINDOW_SIZE + " bytes");
+				}
+				for(int chunkStart = 0; chunkStart < windowEnd; )
+				{
+					int chunkEnd = (int)Math.min(chunkStart + chunkBytes, windowEnd);
+					while(chunkEnd < windowEnd && window.get(chunkEnd - 1) != '\n')	//Move the end of the chunk to the end of its last line
+						chunkEnd++;
+					Chunk chunk = freeChunks.isEmpty() ? new Chunk(0, this.mode, this.metrics) : freeChunks.remove();
+					chunk.window = window;
+					chunk.start = chunkStart;
+					chunk.end = chunkEnd;
+					expressionCount += this.submitChunk(chunk, workers, pendingChunks, freeChunks, output);
+					chunkStart = chunkEnd;
+				}
+				position += windowEnd;
+			}
+			expressionCount += writeChunks(pendingChunks, freeChunks, output);
+		}
+		finally
+		{
+			workers.shutdownNow();
+		}
+		return expressionCount;
+	}
+
+	static void appendResult(PostfixNotationCreator converter, NumericMode mode, CharSequence infixExpression, AsciiOutputBuffer output)
+	{
+		/*
+		 * Converts and evaluates one infix expression in the given mode and appends a line with the result to output.
+		 * Caller Requirements: converter must not be used by another thread during the call
+		 * Caller Expectations: The post-fix expression, a tab and the result are appended followed by a new line. If the expression is invalid or the
+		 * 		evaluation fails only the error message and a new line are appended. In the INT32 and INT64 modes nothing is allocated unless the
+		 * 		evaluation fails
+		 */
+		int lineStart = output.length();
+		ConversionResult conversion = converter.convert(infixExpression, 0, infixExpression.length());
+		try
+		{
+			if(conversion.isValid())
+			{
+				converter.writePostfixExpression(output);
+				output.append('\t');
+				switch(mode)
+				{
+				case INT64:			output.appendNumber(converter.evaluateLong());						break;
+				case BIG_INTEGER:	output.append(converter.evaluateBigInteger().toString());			break;
+				case DOUBLE:		output.append(Double.toString(converter.evaluateDouble()));			break;
+				default:			output.appendNumber(converter.evaluate());							break;
+				}
+			}
+			else												//Invalid expressions are reported without an exception
+				conversion.writeMessage(output);
+		}
+		catch(Exception e)										//Replace anything written for this line with the error message
+		{
+			output.setLength(lineStart);
+			output.append(messageOf(e));
+		}
+		output.append('\n');
+	}
+
+	static String messageOf(Exception e)
+	{
+		/*
+		 * Returns the message written for an exception thrown while converting or evaluating a line.
+		 * Caller Expectations: Never null. Once a division by zero is hot, HotSpot may throw a preallocated ArithmeticException without a message;
+		 * 		"/ by zero" is returned for it, the message the same division has the first time
+		 */
+		String message = e.getMessage();
+		if(message != null)
+			return message;
+		return e instanceof ArithmeticException ? DIVIDE_BY_ZERO_MESSAGE : e.toString();
+	}
+
+	private int submitChunk(Chunk chunk, ExecutorService workers, ArrayDeque<Future<Chunk>> pendingChunks, ArrayDeque<Chunk> freeChunks,
+			OutputStream output) throws IOException, InterruptedException
+	{
+		//Submits a chunk to the workers. If too much is in flight the oldest chunk is written first, its amount of lines is returned
+		pendingChunks.add(workers.submit(chunk));
+		if(pendingChunks.size() >= this.workerCount * 2)
+			return writeChunk(pendingChunks.remove(), freeChunks, output);
+		return 0;
+	}
+
+	private static long writeChunks(ArrayDeque<Future<Chunk>> pendingChunks, ArrayDeque<Chunk> freeChunks, OutputStream output)
+			throws IOException, InterruptedException
+	{
+		//Writes every chunk that is still in flight and flushes the output. Returns the amount of lines they contained
+		long lineCount = 0;
+		while(!pendingChunks.isEmpty())
+			lineCount += writeChunk(pendingChunks.remove(), freeChunks, output);
+		output.flush();
+		return lineCount;
+	}
+
+	private static int writeChunk(Future<Chunk> pendingChunk, ArrayDeque<Chunk> freeChunks, OutputStream output) throws IOException, InterruptedException
+	{
+		//Waits for a chunk to be finished, writes its output and makes it available for reuse. Returns the amount of lines it contained
+		Chunk chunk;
+		try
+		{
+			chunk = pendingChunk.get();
+		}
+		catch(ExecutionException e)								//Workers catch every exception of an expression so this only happens for errors such as OutOfMemoryError
+		{
+			throw new IllegalStateException("A worker failed to process a chunk", e.getCause());
+		}
+		chunk.output.writeTo(output);
+		chunk.window = null;									//Do not keep a mapped window alive longer than needed
+		freeChunks.add(chunk);
+		return chunk.lineCount;
+	}
+
+	private static final class Chunk implements Callable<Chunk>
+	{
+		/*
+		 * A chunk of lines and the output for them. The lines are either Strings read from a stream or a region of a mapped window. Each chunk has its
+		 * 		own converter, so a chunk is only processed by one worker at a time and needs no other state from the thread
+		 */
+		Chunk(int lineCapacity, NumericMode mode, ExpressionMetrics metrics)
+		{
+			this.mode = mode;
+			this.lines = new String[lineCapacity];
+			this.output = new AsciiOutputBuffer(1 << 16);
+			this.converter = new PostfixNotationCreator();
+			this.converter.setMetrics(metrics);
+			this.view = new AsciiSequence();
+		}
+
+		@Override
+		public Chunk call()
+		{
+			this.output.setLength(0);
+			if(this.window == null)
+			{
+				for(int i = 0; i < this.lineCount; i ++)
+				{
+					appendResult(this.converter, this.mode, this.lines[i], this.output);
+					this.lines[i] = null;						//The String is not needed once its output is appended
+				}
+				return this;
+			}
+			this.lineCount = 0;
+			int lineStart = this.start;
+			for(int i = this.start; i <= this.end; i ++)
+			{
+				if(i < this.end ? this.window.get(i) != '\n' : i == lineStart)	//Not the end of a line, or nothing after the last line end
+					continue;
+				int lineEnd = i > lineStart && this.window.get(i - 1) == '\r' ? i - 1 : i;
+				this.view.wrap(this.window, lineStart, lineEnd - lineStart);
+				appendResult(this.converter, this.mode, this.view, this.output);
+				this.lineCount++;
+				lineStart = i + 1;
+			}
+			return this;
+		}
+
+		final String[] lines;							//Lines read from a stream
+		int lineCount;									//Amount of lines in the chunk, counted by the worker for a mapped window
+		ByteBuffer window;								//Mapped window holding the lines, null when the lines were read from a stream
+		int start, end;									//Region of the window holding the lines
+		final AsciiOutputBuffer output;					//Output for the lines
+		final PostfixNotationCreator converter;
+		final NumericMode mode;							//How the lines are evaluated
+		final AsciiSequence view;						//View of the current line of the window
+	}
+
+	static final String DIVIDE_BY_ZERO_MESSAGE = "/ by zero";	//Message of an ArithmeticException thrown by / or % on integers
+	private static final int MAX_WINDOW_SIZE = 1 << 30;		//Bytes of a file mapped at a time
+	private static final int ESTIMATED_LINE_LENGTH = 32;	//Bytes per line assumed when cutting a mapped window into chunks
+
+	private final int workerCount;					//Amount of worker threads
+	private final int chunkSize;					//Amount of lines given to a worker at a time
+	private final NumericMode mode;					//How every line is evaluated
+	private final ExpressionMetrics metrics;		//Where every line is recorded, null when nothing is
+}
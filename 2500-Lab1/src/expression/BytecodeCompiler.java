@@ -0,0 +1,425 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class turns a compiled expression into a JVM class with one straight-line method that computes the expression. Operands stay on the JVM operand
+ * stack and every operator is a single bytecode or a call to a small static method, so the JIT can compile and inline the whole expression. The class
+ * file is written by hand (no branches, so no stack map frames are needed) and defined by a class loader of its own, which lets the class be unloaded
+ * once the expression is no longer used.
+ *
+ * The static methods at the bottom are called by the generated code and must be public for that reason. They are not meant to be called otherwise.
+ */
+package expression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class BytecodeCompiler
+{
+	private BytecodeCompiler()
+	{
+		//Created only by compile() while a class is written
+		this.constantPool = new ByteArrayOutputStream();
+		this.constantPoolOutput = new DataOutputStream(this.constantPool);
+		this.constantIndexes = new HashMap<String, Integer>();
+		this.constantCount = 1;								//Index 0 of the constant pool is not used
+	}
+
+	static GeneratedEvaluator compile(CompiledExpression expression)
+	{
+		/*
+		 * Generates and loads a class that evaluates the expression.
+		 *
+		 * Caller Requirements: expression must be non-null
+		 * Caller Expectations: An evaluator with the same results and exceptions as the interpreter is returned, or null if the expression has more
+		 * 		than MAX_INSTRUCTIONS instructions (the method would be too large for the JVM and too large for the JIT to inline). The generated code
+		 * 		evaluates in the INT32 mode, an IllegalArgumentException is thrown if the expression was optimized for another mode
+		 */
+		expression.checkMode(NumericMode.INT32);
+		if(expression.instructions.length > MAX_INSTRUCTIONS)
+			return null;
+		String className = "expression.GeneratedExpression" + CLASS_NUMBER.incrementAndGet();
+		byte[] classFile;
+		try
+		{
+			classFile = new BytecodeCompiler().writeClass(className.replace('.', '/'), expression);
+		}
+		catch(IOException e)								//Only written to memory, so this does not happen
+		{
+			throw new IllegalStateException(e);
+		}
+		try
+		{
+			Class<?> generatedClass = new GeneratedClassLoader().define(className, classFile);
+			return (GeneratedEvaluator)generatedClass.getConstructor().newInstance();
+		}
+		catch(ReflectiveOperationException e)
+		{
+			throw new IllegalStateException("The generated class of an expression could not be loaded", e);
+		}
+	}
+
+	private byte[] writeClass(String internalName, CompiledExpression expression) throws IOException
+	{
+		//Writes a class file with a constructor and the evaluate method of GeneratedEvaluator
+		int thisClass = this.classConstant(internalName);
+		int superClass = this.classConstant("java/lang/Object");
+		int evaluatorInterface = this.classConstant("expression/GeneratedEvaluator");
+		int codeName = this.utf8Constant("Code");
+
+		//Constructor: calls Object's constructor
+		ByteArrayOutputStream constructorCode = new ByteArrayOutputStream();
+		constructorCode.write(ALOAD_0);
+		constructorCode.write(INVOKESPECIAL);
+		writeShort(constructorCode, this.methodConstant("java/lang/Object", "<init>", "()V"));
+		constructorCode.write(RETURN);
+		int constructorName = this.utf8Constant("<init>");
+		int constructorDescriptor = this.utf8Constant("()V");
+
+		byte[] evaluateCode = this.writeEvaluateCode(expression);
+		int evaluateName = this.utf8Constant("evaluate");
+		int evaluateDescriptor = this.utf8Constant("([J)I");
+
+		ByteArrayOutputStream classFile = new ByteArrayOutputStream(evaluateCode.length + this.constantPool.size() + 256);
+		DataOutputStream output = new DataOutputStream(classFile);
+		output.writeInt(0xCAFEBABE);
+		output.writeShort(0);								//Minor version
+		output.writeShort(52);								//Java 8
+		output.writeShort(this.constantCount);
+		this.constantPool.writeTo(output);
+		output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+		output.writeShort(thisClass);
+		output.writeShort(superClass);
+		output.writeShort(1);								//Interfaces
+		output.writeShort(evaluatorInterface);
+		output.writeShort(0);								//Fields
+		output.writeShort(2);								//Methods
+		writeMethod(output, constructorName, constructorDescriptor, codeName, 1, 1, constructorCode.toByteArray());
+		writeMethod(output, evaluateName, evaluateDescriptor, codeName, 2 * expression.maxStackDepth + 3, 2 + 2 * expression.slotCount, evaluateCode);
+		output.writeShort(0);								//Attributes
+		output.flush();
+		return classFile.toByteArray();
+	}
+
+	private byte[] writeEvaluateCode(CompiledExpression expression)
+	{
+		/*
+		 * Writes the bytecode of evaluate(long[]). Values are longs on the operand stack, exactly like the value stack of the interpreter, and every
+		 * 		binary operator is followed by the same range check. Local 1 is the array of variable values, slots are the long locals after it.
+		 */
+		ByteArrayOutputStream code = new ByteArrayOutputStream(expression.instructions.length * 8);
+		for(int i = 0; i < expression.instructions.length; i ++)
+		{
+			int instruction = expression.instructions[i];
+			int opcode = instruction & CompiledExpression.OPCODE_MASK;
+			int operand = instruction >>> CompiledExpression.OPERAND_SHIFT;
+			switch(opcode)
+			{
+			case CompiledExpression.OP_VALUE:
+				code.write(LDC2_W);
+				writeShort(code, this.longConstant(expression.constants[operand]));
+				continue;
+			case CompiledExpression.OP_OVERSIZED_VALUE:
+				this.writeInvokeSupport(code, "operandTooLarge", "()J");
+				continue;
+			case CompiledExpression.OP_LOAD:
+				writeLocal(code, LLOAD, 2 + 2 * operand);
+				continue;
+			case CompiledExpression.OP_STORE:					//Keep a copy on the stack, like the interpreter
+				code.write(DUP2);
+				writeLocal(code, LSTORE, 2 + 2 * operand);
+				continue;
+			case CompiledExpression.OP_VARIABLE:
+				code.write(ALOAD_1);
+				this.writeInt(code, operand);
+				code.write(LALOAD);
+				code.write(LDC_W);
+				writeShort(code, this.stringConstant(expression.variableNames[operand]));
+				this.writeInvokeSupport(code, "checkVariable", "(JLjava/lang/String;)J");
+				continue;
+			case CompiledExpression.OP_SQUARE_ROOT:			//Roots of integers are always integers, no range check needed
+				this.writeInvokeSupport(code, "squareRoot", "(J)J");
+				continue;
+			case CompiledExpression.OP_CUBE_ROOT:
+				this.writeInvokeSupport(code, "cubeRoot", "(J)J");
+				continue;
+			case CompiledExpression.OP_ADD:			code.write(LADD);	break;
+			case CompiledExpression.OP_SUBTRACT:	code.write(LSUB);	break;
+			case CompiledExpression.OP_MULTIPLY:	code.write(LMUL);	break;
+			case CompiledExpression.OP_DIVIDE:		code.write(LDIV);	break;
+			case CompiledExpression.OP_MODULUS:		code.write(LREM);	break;
+			case CompiledExpression.OP_SHIFT_LEFT:						//Shift amounts are ints. The JVM only uses the low 6 bits, like a long shift amount
+				code.write(L2I);
+				code.write(LSHL);
+				break;
+			case CompiledExpression.OP_SHIFT_RIGHT:
+				code.write(L2I);
+				code.write(LSHR);
+				break;
+			default:
+				this.writeInvokeSupport(code, "power", "(JJ)J");
+				break;
+			}
+			this.writeInt(code, opcode);					//Range check of the result of a binary operator
+			this.writeInvokeSupport(code, "checkResult", "(JI)J");
+		}
+		code.write(L2I);
+		code.write(IRETURN);
+		return code.toByteArray();
+	}
+
+	private static void writeMethod(DataOutputStream output, int name, int descriptor, int codeName, int maxStack, int maxLocals, byte[] code) throws IOException
+	{
+		//Writes a public method with a Code attribute that has no exception table and no attributes of its own
+		output.writeShort(ACC_PUBLIC);
+		output.writeShort(name);
+		output.writeShort(descriptor);
+		output.writeShort(1);								//Attributes
+		output.writeShort(codeName);
+		output.writeInt(12 + code.length);					//Length of the Code attribute after this field
+		output.writeShort(maxStack);
+		output.writeShort(maxLocals);
+		output.writeInt(code.length);
+		output.write(code);
+		output.writeShort(0);								//Exception table
+		output.writeShort(0);								//Attributes
+	}
+
+	private static void writeLocal(ByteArrayOutputStream code, int opcode, int local)
+	{
+		//Writes a load or store of a local variable. Locals above 255 need the wide form
+		if(local > 255)
+		{
+			code.write(WIDE);
+			code.write(opcode);
+			writeShort(code, local);
+		}
+		else
+		{
+			code.write(opcode);
+			code.write(local);
+		}
+	}
+
+	private void writeInvokeSupport(ByteArrayOutputStream code, String name, String descriptor)
+	{
+		//Writes a call to one of the public static methods of this class
+		code.write(INVOKESTATIC);
+		writeShort(code, this.methodConstant("expression/BytecodeCompiler", name, descriptor));
+	}
+
+	private void writeInt(ByteArrayOutputStream code, int value)
+	{
+		//Writes the shortest instruction that pushes an int constant
+		if(value >= -1 && value <= 5)
+			code.write(ICONST_0 + value);
+		else if(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+		{
+			code.write(BIPUSH);
+			code.write(value);
+		}
+		else if(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+		{
+			code.write(SIPUSH);
+			writeShort(code, value);
+		}
+		else
+		{
+			code.write(LDC_W);
+			writeShort(code, this.intConstant(value));
+		}
+	}
+
+	private static void writeShort(ByteArrayOutputStream output, int value)
+	{
+		output.write(value >>> 8);
+		output.write(value);
+	}
+
+	/*
+	 * Constant pool entries. Every entry is written once, later requests for the same entry return the index of the first one.
+	 */
+	private int utf8Constant(String value)
+	{
+		Integer index = this.constantIndexes.get("U" + value);
+		if(index != null)
+			return index;
+		try
+		{
+			this.constantPoolOutput.writeByte(CONSTANT_UTF8);
+			this.constantPoolOutput.writeUTF(value);
+		}
+		catch(IOException e)
+		{//Only written to memory
+		}
+		return this.addConstant("U" + value, 1);
+	}
+
+	private int classConstant(String internalName)
+	{
+		Integer index = this.constantIndexes.get("C" + internalName);
+		if(index != null)
+			return index;
+		this.writeConstant(CONSTANT_CLASS, this.utf8Constant(internalName), -1);
+		return this.addConstant("C" + internalName, 1);
+	}
+
+	private int stringConstant(String value)
+	{
+		Integer index = this.constantIndexes.get("S" + value);
+		if(index != null)
+			return index;
+		this.writeConstant(CONSTANT_STRING, this.utf8Constant(value), -1);
+		return this.addConstant("S" + value, 1);
+	}
+
+	private int methodConstant(String owner, String name, String descriptor)
+	{
+		String key = "M" + owner + '.' + name + descriptor;
+		Integer index = this.constantIndexes.get(key);
+		if(index != null)
+			return index;
+		int ownerIndex = this.classConstant(owner);
+		String nameAndTypeKey = "N" + name + descriptor;
+		Integer nameAndType = this.constantIndexes.get(nameAndTypeKey);
+		if(nameAndType == null)
+		{
+			int nameIndex = this.utf8Constant(name), descriptorIndex = this.utf8Constant(descriptor);
+			this.writeConstant(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+			nameAndType = this.addConstant(nameAndTypeKey, 1);
+		}
+		this.writeConstant(CONSTANT_METHODREF, ownerIndex, nameAndType);
+		return this.addConstant(key, 1);
+	}
+
+	private int intConstant(int value)
+	{
+		Integer index = this.constantIndexes.get("I" + value);
+		if(index != null)
+			return index;
+		try
+		{
+			this.constantPoolOutput.writeByte(CONSTANT_INTEGER);
+			this.constantPoolOutput.writeInt(value);
+		}
+		catch(IOException e)
+		{//Only written to memory
+		}
+		return this.addConstant("I" + value, 1);
+	}
+
+	private int longConstant(long value)
+	{
+		Integer index = this.constantIndexes.get("J" + value);
+		if(index != null)
+			return index;
+		try
+		{
+			this.constantPoolOutput.writeByte(CONSTANT_LONG);
+			this.constantPoolOutput.writeLong(value);
+		}
+		catch(IOException e)
+		{//Only written to memory
+		}
+		return this.addConstant("J" + value, 2);			//Longs take two entries of the constant pool
+	}
+
+	private void writeConstant(int tag, int firstIndex, int secondIndex)
+	{
+		//Writes an entry made of a tag and one or two indexes of other entries
+		try
+		{
+			this.constantPoolOutput.writeByte(tag);
+			this.constantPoolOutput.writeShort(firstIndex);
+			if(secondIndex >= 0)
+				this.constantPoolOutput.writeShort(secondIndex);
+		}
+		catch(IOException e)
+		{//Only written to memory
+		}
+	}
+
+	private int addConstant(String key, int size)
+	{
+		//Records the entry that was just written and returns its index
+		int index = this.constantCount;
+		this.constantIndexes.put(key, index);
+		this.constantCount += size;
+		return index;
+	}
+
+	/*
+	 * Methods called by the generated code
+	 */
+	public static long checkResult(long result, int opcode)
+	{
+		//Same range check as the interpreter does after every binary operator
+		if(result > Integer.MAX_VALUE || result < Integer.MIN_VALUE)
+			throw CompiledExpression.overflow(opcode);
+		return result;
+	}
+
+	public static long checkVariable(long value, String name)
+	{
+		//Same range check as the interpreter does for variables
+		if(value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)
+			throw CompiledExpression.variableOutOfRange(name);
+		return value;
+	}
+
+	public static long operandTooLarge()
+	{
+		throw CompiledExpression.operandTooLarge();
+	}
+
+	public static long power(long base, long exponent)
+	{
+		return CompiledExpression.power(base, exponent);
+	}
+
+	public static long squareRoot(long value)
+	{
+		return CompiledExpression.squareRoot(value);
+	}
+
+	public static long cubeRoot(long value)
+	{
+		return CompiledExpression.cubeRoot(value);
+	}
+
+	/*
+	 * Class loader of one generated class. Each class gets its own loader so it can be unloaded when its expression is no longer used
+	 */
+	private static final class GeneratedClassLoader extends ClassLoader
+	{
+		GeneratedClassLoader()
+		{
+			super(BytecodeCompiler.class.getClassLoader());
+		}
+
+		Class<?> define(String name, byte[] classFile)
+		{
+			return this.defineClass(name, classFile, 0, classFile.length);
+		}
+	}
+
+	static final int MAX_INSTRUCTIONS = 4000;				//Largest expression that is compiled. Keeps the method well under the 64KB limit of the JVM
+
+	private static final AtomicInteger CLASS_NUMBER = new AtomicInteger();	//Makes the name of every generated class unique
+
+	//Class file constants
+	private static final int ACC_PUBLIC = 0x0001, ACC_FINAL = 0x0010, ACC_SUPER = 0x0020;
+	private static final int CONSTANT_UTF8 = 1, CONSTANT_INTEGER = 3, CONSTANT_LONG = 5, CONSTANT_CLASS = 7, CONSTANT_STRING = 8, CONSTANT_METHODREF = 10,
+			CONSTANT_NAME_AND_TYPE = 12;
+	private static final int ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13, LDC2_W = 0x14, LLOAD = 0x16, ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, LALOAD = 0x2f, LSTORE = 0x37, DUP2 = 0x5c,
+			LADD = 0x61, LSUB = 0x65, LMUL = 0x69, LDIV = 0x6d, LREM = 0x71, LSHL = 0x79, LSHR = 0x7b, L2I = 0x88, IRETURN = 0xac, RETURN = 0xb1,
+			INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8, WIDE = 0xc4;
+
+	private final ByteArrayOutputStream constantPool;		//Entries of the constant pool written so far
+	private final DataOutputStream constantPoolOutput;
+	private final HashMap<String, Integer> constantIndexes;	//Index of every entry, keyed by its kind and value
+	private int constantCount;								//Index of the next entry
+}
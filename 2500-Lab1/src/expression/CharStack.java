@@ -0,0 +1,67 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ * 
+ * This class is a First in Last out Stack of char values. Unlike Stack<Character> the values are kept in a primitive array that grows as needed, so pushing
+ * does not allocate a node or box the value. The array is kept when the stack is cleared so the same stack can be reused for many conversions.
+ */
+package expression;
+
+import java.util.Arrays;
+
+public class CharStack 
+{
+	public CharStack()
+	{
+		this(16);
+	}
+	
+	public CharStack(int initialCapacity)
+	{
+		//Creates an empty stack that can hold initialCapacity values before it has to grow
+		this.items = new char[Math.max(initialCapacity, 1)];
+	}
+	
+	void clear()
+	{	
+		//Removes all items from the stack. The storage is kept
+		this.size = 0;
+	}
+	
+	void push(char what)
+	{
+		//Pushes an item onto the top of the stack, growing the storage if it is full
+		if(this.size == this.items.length)
+			this.items = Arrays.copyOf(this.items, this.size * 2);
+		this.items[this.size++] = what;
+	}
+	char peek()
+	{
+		//Returns the top item. The caller must make sure the stack is not empty using isEmpty()
+		return this.items[this.size - 1];
+	}
+	char pop()
+	{
+		//Removes and returns the top item. The caller must make sure the stack is not empty using isEmpty()
+		return this.items[--this.size];
+	}
+	boolean isEmpty()
+	{
+		//Returns whether the stack has any items
+		return (this.size == 0);
+	}
+	int size()
+	{
+		//Returns how many items are on the stack
+		return this.size;
+	}
+	void ensureCapacity(int capacity)
+	{
+		//Grows the storage so at least capacity items can be pushed without growing again
+		if(this.items.length < capacity)
+			this.items = Arrays.copyOf(this.items, capacity);
+	}
+	
+	protected char[] items;			//The items of the stack, the bottom of the stack is at index 0
+	protected int size;				//Amount of items on the stack
+}
@@ -0,0 +1,225 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class evaluates one compiled expression over many rows of variable values. Every variable has a column (an array with a value per row) and the
+ * result of every row is written to an output array. Instead of evaluating the expression row by row, each instruction is applied to a whole block of
+ * rows before moving on to the next instruction, so the interpreter dispatches once per instruction per block and the inner loops are simple loops over
+ * arrays. The buffers are kept between calls, one ColumnarEvaluator should be used by one thread at a time.
+ */
+package expression;
+
+import java.util.Arrays;
+
+public class ColumnarEvaluator
+{
+	public ColumnarEvaluator()
+	{
+		this.vectors = new long[0][];
+		this.rowStack = new LongStack();
+		this.rowValues = new long[0];
+	}
+
+	public void evaluate(CompiledExpression expression, long[][] columns, int rowCount, int[] results) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression for every row.
+		 *
+		 * Caller Requirements: columns must have a column for every variable of the expression, in the order of expression.getVariableNames(). Every
+		 * 		column and results must have at least rowCount elements
+		 * Caller Expectations: results[row] is set to the value of the expression for the values of the variables at row. If a row cannot be evaluated
+		 * 		an ArithmeticException is thrown with the same message as CompiledExpression.evaluate() and the row number added. The exception is
+		 * 		the one row by row evaluation would throw: the first row that fails, and for that row the first instruction that fails. Results of the
+		 * 		rows before it are written, results after it are undefined
+		 */
+		this.evaluateColumns(expression, columns, rowCount, results);
+	}
+
+	public void evaluate(CompiledExpression expression, int[][] columns, int rowCount, int[] results) throws ArithmeticException
+	{
+		//Same as evaluate(CompiledExpression, long[][], int, int[]) with columns of integers. Their values never need a range check
+		this.evaluateColumns(expression, columns, rowCount, results);
+	}
+
+	private void evaluateColumns(CompiledExpression expression, Object[] columns, int rowCount, int[] results)
+	{
+		/*
+		 * Evaluates the rows a block at a time. Every column is either a long[] or an int[].
+		 *
+		 * Each instruction is applied to every row of the block. Range checks are folded into a flag while the block is computed rather than branching out
+		 * of the loop, and division by zero and powers too large for a long throw out of the loop. Either way the block is evaluated again row by row to
+		 * find the exact row and instruction that fails, so the error is the same as evaluating row by row.
+		 */
+		expression.checkVariableCount(columns.length);
+		expression.checkMode(NumericMode.INT32);
+		if(results.length < rowCount)
+			throw new IllegalArgumentException("The results array is smaller than the amount of rows");
+		for(int i = 0; i < expression.variableNames.length; i ++)
+			if((columns[i] instanceof int[] ? ((int[])columns[i]).length : ((long[])columns[i]).length) < rowCount)
+				throw new IllegalArgumentException("The column of the variable " + expression.variableNames[i] + " is smaller than the amount of rows");
+		this.ensureVectors(expression.maxStackDepth + expression.slotCount);
+
+		for(int blockStart = 0; blockStart < rowCount; blockStart += BLOCK_SIZE)
+		{
+			int blockRows = Math.min(BLOCK_SIZE, rowCount - blockStart);
+			boolean failed;
+			try
+			{
+				failed = !this.evaluateBlock(expression, columns, blockStart, blockRows, results);
+			}
+			catch(ArithmeticException e)							//Division or modulus by zero, or a power too large for a long, in one of the rows
+			{
+				failed = true;
+			}
+			if(failed)
+				this.evaluateRows(expression, columns, blockStart, blockRows, results);
+		}
+	}
+
+	private boolean evaluateBlock(CompiledExpression expression, Object[] columns, int blockStart, int blockRows, int[] results)
+	{
+		//Evaluates one block an instruction at a time. Returns false if a value was outside the range of an integer in any row
+		int[] instructions = expression.instructions;
+		long[][] vectors = this.vectors;
+		int top = -1;												//Index of the vector on the top of the stack
+		int firstSlot = expression.maxStackDepth;					//The vectors of the slots follow the vectors of the stack
+		boolean outOfRange = false;
+		for(int i = 0; i < instructions.length; i ++)
+		{
+			int instruction = instructions[i];
+			int opcode = instruction & CompiledExpression.OPCODE_MASK;
+			int operand = instruction >>> CompiledExpression.OPERAND_SHIFT;
+			long[] result;
+			switch(opcode)
+			{
+			case CompiledExpression.OP_VALUE:
+				Arrays.fill(vectors[++top], 0, blockRows, expression.constants[operand]);
+				continue;
+			case CompiledExpression.OP_OVERSIZED_VALUE:
+				return false;
+			case CompiledExpression.OP_LOAD:
+				System.arraycopy(vectors[firstSlot + operand], 0, vectors[++top], 0, blockRows);
+				continue;
+			case CompiledExpression.OP_STORE:
+				System.arraycopy(vectors[top], 0, vectors[firstSlot + operand], 0, blockRows);
+				continue;
+			case CompiledExpression.OP_VARIABLE:
+				result = vectors[++top];
+				if(columns[operand] instanceof int[])
+				{
+					int[] column = (int[])columns[operand];
+					for(int row = 0; row < blockRows; row ++)
+						result[row] = column[blockStart + row];
+				}
+				else
+				{
+					long[] column = (long[])columns[operand];
+					for(int row = 0; row < blockRows; row ++)
+					{
+						long value = column[blockStart + row];
+						result[row] = value;
+						outOfRange |= value != (int)value;
+					}
+				}
+				continue;
+			case CompiledExpression.OP_SQUARE_ROOT:
+				result = vectors[top];
+				for(int row = 0; row < blockRows; row ++)
+					result[row] = CompiledExpression.squareRoot(result[row]);
+				continue;										//Roots of integers always fit in an integer
+			case CompiledExpression.OP_CUBE_ROOT:
+				result = vectors[top];
+				for(int row = 0; row < blockRows; row ++)
+					result[row] = CompiledExpression.cubeRoot(result[row]);
+				continue;
+			}
+
+			//Binary operator. The result replaces the first operand
+			long[] second = vectors[top--];
+			result = vectors[top];
+			switch(opcode)
+			{
+			case CompiledExpression.OP_ADD:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] += second[row];
+				break;
+			case CompiledExpression.OP_SUBTRACT:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] -= second[row];
+				break;
+			case CompiledExpression.OP_MULTIPLY:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] *= second[row];
+				break;
+			case CompiledExpression.OP_DIVIDE:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] /= second[row];
+				break;
+			case CompiledExpression.OP_MODULUS:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] %= second[row];
+				break;
+			case CompiledExpression.OP_SHIFT_LEFT:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] <<= second[row];
+				break;
+			case CompiledExpression.OP_SHIFT_RIGHT:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] >>= second[row];
+				break;
+			default:
+				for(int row = 0; row < blockRows; row ++)
+					result[row] = CompiledExpression.power(result[row], second[row]);
+				break;
+			}
+			for(int row = 0; row < blockRows; row ++)				//Range check of the intermediate results
+				outOfRange |= result[row] != (int)result[row];
+			if(outOfRange)
+				return false;
+		}
+		if(outOfRange)
+			return false;
+		long[] values = vectors[top];
+		for(int row = 0; row < blockRows; row ++)
+			results[blockStart + row] = (int)values[row];
+		return true;
+	}
+
+	private void evaluateRows(CompiledExpression expression, Object[] columns, int blockStart, int blockRows, int[] results)
+	{
+		//Evaluates a block row by row. Used when the block has an error so the exception is exactly the one of the first failing row
+		int variableCount = expression.variableNames.length;
+		if(this.rowValues.length < variableCount)
+			this.rowValues = new long[variableCount];
+		for(int row = blockStart; row < blockStart + blockRows; row ++)
+		{
+			for(int variable = 0; variable < variableCount; variable ++)
+				this.rowValues[variable] = columns[variable] instanceof int[] ? ((int[])columns[variable])[row] : ((long[])columns[variable])[row];
+			try
+			{
+				results[row] = expression.evaluate(this.rowStack, this.rowValues);
+			}
+			catch(ArithmeticException e)
+			{
+				throw new EvaluationException(EvaluationFailure.of(e), BatchEvaluator.messageOf(e) + " (row " + row + ")");
+			}
+		}
+	}
+
+	private void ensureVectors(int count)
+	{
+		//Makes sure there is a vector for every value that can be on the stack and every slot
+		if(this.vectors.length >= count)
+			return;
+		int oldCount = this.vectors.length;
+		this.vectors = Arrays.copyOf(this.vectors, count);
+		for(int i = oldCount; i < count; i ++)
+			this.vectors[i] = new long[BLOCK_SIZE];
+	}
+
+	static final int BLOCK_SIZE = 1024;					//Rows per block. Small enough for the vectors of a typical expression to stay in the CPU cache
+
+	private long[][] vectors;							//Stack of vectors, each holds one value per row of the current block
+	private final LongStack rowStack;					//Value stack used when evaluating row by row
+	private long[] rowValues;							//Values of the variables of one row
+}
@@ -0,0 +1,562 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is the compiled form of a post-fix expression. Every operand and operator is stored as an instruction in a primitive array and the
+ * operand values are stored in a separate array of longs. Once created the object never changes so it can be evaluated any number of times without
+ * parsing any text and without allocating any objects. Expressions can contain named variables, their values are given to evaluate() in the order of
+ * getVariableNames(). An optimized expression (see ExpressionOptimizer) can also keep values in slots so a repeated subexpression is computed only once.
+ */
+package expression;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+public final class CompiledExpression
+{
+	CompiledExpression(int[] instructions, long[] constants, String[] oversizedLiterals, String[] variableNames, int maxStackDepth, int slotCount)
+	{
+		//Creates an expression that is not optimized, see the constructor below
+		this(instructions, constants, oversizedLiterals, variableNames, maxStackDepth, slotCount, null);
+	}
+
+	CompiledExpression(int[] instructions, long[] constants, String[] oversizedLiterals, String[] variableNames, int maxStackDepth, int slotCount,
+			NumericMode optimizedMode)
+	{
+		/*
+		 * Creates a compiled expression. Only the PostfixNotationCreator, the ExpressionOptimizer and the ExpressionLibrary create compiled expressions.
+		 *
+		 * Caller Requirements: The instructions must be a valid post-fix sequence (every operator has its operands before it and exactly one value remains
+		 * 		at the end). maxStackDepth must be the largest amount of values on the stack at any point while evaluating the instructions. Every slot
+		 * 		below slotCount must be stored before it is loaded.
+		 * 		optimizedMode is the mode the ExpressionOptimizer folded the constants for, null if they were not folded.
+		 * Caller Expectations: The arrays are not copied, the caller must not modify them after the call
+		 */
+		this.instructions = instructions;
+		this.constants = constants;
+		this.oversizedLiterals = oversizedLiterals;
+		this.variableNames = variableNames;
+		this.maxStackDepth = maxStackDepth;
+		this.slotCount = slotCount;
+		this.optimizedMode = optimizedMode;
+	}
+
+	public int evaluate() throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression using a newly allocated value stack. Use evaluate(LongStack) to avoid the allocation when evaluating many times.
+		 *
+		 * Caller Requirements: None
+		 * Caller Expectations: Same as evaluate(LongStack)
+		 */
+		return this.evaluate(new LongStack(this.slotCount + this.maxStackDepth));
+	}
+
+	public int evaluate(LongStack valueStack) throws ArithmeticException
+	{
+		/*
+		 * Evaluates an expression that does not contain variables.
+		 *
+		 * Caller Requirements: Same as evaluate(LongStack, long[])
+		 * Caller Expectations: Same as evaluate(LongStack, long[]). An IllegalArgumentException is thrown if the expression contains variables
+		 */
+		return this.evaluate(valueStack, NO_VARIABLES);
+	}
+
+	public int evaluate(LongStack valueStack, long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression using the given stack for the values.
+		 *
+		 * Caller Requirements: valueStack must be non-null. Anything on it is cleared. variableValues must hold a value for every variable in the order
+		 * 		of getVariableNames()
+		 * Caller Expectations: An integer is returned representing the result of the expression. If an operand or variable is outside the range of an
+		 * 		integer or an intermediate value is outside of the range of an integer an ArithmeticException is thrown. An IllegalArgumentException is
+		 * 		thrown if the expression was optimized for another mode, see getOptimizedMode()
+		 *
+		 * Values are pushed onto the stack. When an operator is found one or two values are popped from the stack and the result is pushed back.
+		 * The instructions are already in post-fix order so no parsing takes place. The stack is grown once up front so pushing never allocates.
+		 * Slots are kept at the bottom of the stack, below the values.
+		 */
+		this.checkVariableCount(variableValues.length);
+		this.checkMode(NumericMode.INT32);
+		return execute(this.instructions, this.instructions.length, this.constants, this.variableNames, this.slotCount, this.maxStackDepth, valueStack, 
+				variableValues);
+	}
+
+	public long evaluateLong(LongStack valueStack, long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression in the INT64 mode, see NumericMode.
+		 * Caller Requirements: Same as evaluate(LongStack, long[])
+		 * Caller Expectations: The value of the expression is returned. An ArithmeticException is thrown if an operand does not fit in a long or an
+		 * 		operator overflows a long. Variables are not range checked. Expressions optimized for another mode are rejected like evaluate() does
+		 */
+		this.checkVariableCount(variableValues.length);
+		this.checkMode(NumericMode.INT64);
+		return NumericEvaluator.executeLong(this.instructions, this.instructions.length, this.constants, this.slotCount, this.maxStackDepth, valueStack, 
+				variableValues);
+	}
+
+	public BigInteger evaluateBigInteger(BigInteger[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression in the BIG_INTEGER mode, see NumericMode.
+		 * Caller Requirements: variableValues must hold a non-null value for every variable in the order of getVariableNames()
+		 * Caller Expectations: The value of the expression is returned, no operand is too large. An ArithmeticException is thrown if a value is
+		 * 		divided by zero or a result would be larger than NumericMode.MAX_BIG_INTEGER_BITS bits. Expressions optimized for another mode are
+		 * 		rejected like evaluate() does
+		 */
+		this.checkVariableCount(variableValues.length);
+		this.checkMode(NumericMode.BIG_INTEGER);
+		return NumericEvaluator.executeBigInteger(this.instructions, this.instructions.length, this.constants, this.oversizedLiterals, this.slotCount, 
+				this.maxStackDepth, variableValues);
+	}
+
+	public double evaluateDouble(DoubleStack valueStack, double[] variableValues)
+	{
+		/*
+		 * Evaluates the expression in the DOUBLE mode, see NumericMode.
+		 * Caller Requirements: valueStack must be non-null. Anything on it is cleared. variableValues must hold a value for every variable in the order
+		 * 		of getVariableNames()
+		 * Caller Expectations: The value of the expression is returned. Nothing is thrown, results that are not numbers are NaN or infinite. Expressions
+		 * 		optimized for another mode are rejected like evaluate() does
+		 */
+		this.checkVariableCount(variableValues.length);
+		this.checkMode(NumericMode.DOUBLE);
+		return NumericEvaluator.executeDouble(this.instructions, this.instructions.length, this.constants, this.oversizedLiterals, this.slotCount, 
+				this.maxStackDepth, valueStack, variableValues);
+	}
+
+	static int execute(int[] instructions, int instructionCount, long[] constants, String[] variableNames, int slotCount, int maxStackDepth, 
+			LongStack valueStack, long[] variableValues)
+	{
+		/*
+		 * Evaluates the first instructionCount instructions of a post-fix instruction buffer. This is the interpreter loop of evaluate(LongStack, long[]),
+		 * 		the PostfixNotationCreator uses it directly on its own buffers so converting and evaluating an expression does not allocate.
+		 *
+		 * Caller Requirements: Same as the constructor for the instructions. variableValues must hold a value for every variable. variableNames is only
+		 * 		used for error messages, it may be null if the instructions contain no variables
+		 * Caller Expectations: Same as evaluate(LongStack, long[])
+		 */
+		valueStack.clear();
+		valueStack.ensureCapacity(slotCount + maxStackDepth);
+		for(int slot = 0; slot < slotCount; slot ++)
+			valueStack.push(0);
+		executeRange(instructions, 0, instructionCount, constants, variableNames, valueStack, variableValues);
+		return (int)valueStack.pop();
+	}
+
+	static void executeRange(int[] instructions, int start, int end, long[] constants, String[] variableNames, LongStack valueStack, 
+			long[] variableValues)
+	{
+		/*
+		 * Evaluates the instructions from start to end on top of the values already on valueStack. The ParallelEvaluator uses it to evaluate the
+		 * 		parts of a span between the subexpressions that were evaluated by other tasks.
+		 * Caller Requirements: valueStack must have room for every value pushed and hold the operands of every operator in the range that come from
+		 * 		before start
+		 * Caller Expectations: The values left by the range are on the top of valueStack. The exceptions are the same as evaluate(LongStack, long[])
+		 */
+		for(int i = start; i < end; i ++)
+		{
+			int instruction = instructions[i];
+			int opcode = instruction & OPCODE_MASK;
+			long result;
+			if(opcode == OP_VALUE)							//Push the operand and move to the next instruction
+			{
+				valueStack.push(constants[instruction >>> OPERAND_SHIFT]);
+				continue;
+			}
+			if(opcode == OP_VARIABLE)
+			{
+				valueStack.push(variableValue(variableNames, instruction >>> OPERAND_SHIFT, variableValues[instruction >>> OPERAND_SHIFT]));
+				continue;
+			}
+			if(opcode == OP_LOAD)							//Push the value of a subexpression that was already computed
+			{
+				valueStack.push(valueStack.get(instruction >>> OPERAND_SHIFT));
+				continue;
+			}
+			if(opcode == OP_STORE)							//Keep the value on the top of the stack for later loads
+			{
+				valueStack.set(instruction >>> OPERAND_SHIFT, valueStack.peek());
+				continue;
+			}
+			if(opcode == OP_OVERSIZED_VALUE)				//The operand was outside the range of an integer when it was compiled
+				throw operandTooLarge();
+			
+			long secondOperand = valueStack.pop();			//The second operand of binary operators is the only operand of unary operators
+			switch(opcode)
+			{
+			case OP_SQUARE_ROOT:
+				result = squareRoot(secondOperand);
+				break;
+			case OP_CUBE_ROOT:
+				result = cubeRoot(secondOperand);
+				break;
+			default:
+				result = applyBinaryOperator(opcode, valueStack.pop(), secondOperand);
+				break;
+			}
+			//Make sure the intermediate result is within the range of an integer
+			if(result > Integer.MAX_VALUE || result < Integer.MIN_VALUE)
+				throw overflow(opcode);
+			valueStack.push(result);
+		}
+	}
+
+	public int getInstructionCount()
+	{
+		//Returns how many operands and operators the expression contains
+		return this.instructions.length;
+	}
+
+	public String[] getVariableNames()
+	{
+		//Returns the names of the variables in the order their values are given to evaluate(). Names are in order of their first use in the expression
+		return this.variableNames.clone();
+	}
+
+	public int getVariableCount()
+	{
+		//Returns how many different variables the expression contains
+		return this.variableNames.length;
+	}
+
+	public int getVariableIndex(String name)
+	{
+		//Returns the index of a variable's value in the arrays given to evaluate(), or -1 if the expression does not contain the variable
+		for(int i = 0; i < this.variableNames.length; i ++)
+			if(this.variableNames[i].equals(name))
+				return i;
+		return -1;
+	}
+
+	public int getSlotCount()
+	{
+		//Returns how many subexpression values an optimized expression keeps. 0 for expressions that are not optimized
+		return this.slotCount;
+	}
+
+	public NumericMode getOptimizedMode()
+	{
+		//Returns the mode the ExpressionOptimizer folded the constants for, the only mode the expression can be evaluated in. null if it is not optimized
+		return this.optimizedMode;
+	}
+
+	public int getMaxStackDepth()
+	{
+		//Returns the largest amount of values the expression keeps on the value stack while it is evaluated
+		return this.maxStackDepth;
+	}
+
+	public void writePostfixExpression(Appendable output) throws IOException
+	{
+		/*
+		 * Renders the expression as a post-fix string and writes it to output
+		 * Caller Requirements: output must be non-null. It can be a StringBuilder, a Writer or any other Appendable
+		 * Caller Expectations: Every operand and operator is written followed by a space. No intermediate String is built, so the time taken is linear in
+		 * 		the length of the expression. Any IOException thrown by output is passed on to the caller
+		 */
+		int[] slotSpans = this.slotCount == 0 ? null : this.findSlotSpans();
+		writeInstructions(output, this.instructions, 0, this.instructions.length, this.constants, this.oversizedLiterals, this.variableNames, slotSpans, 
+				new char[20]);										//20 chars is enough room for the digits of any long
+	}
+
+	static void writeInstructions(Appendable output, int[] instructions, int start, int end, long[] constants, String[] oversizedLiterals, 
+			String[] variableNames, int[] slotSpans, char[] digits) throws IOException
+	{
+		/*
+		 * Writes the tokens of a range of instructions. A load writes the instructions of the subexpression that was stored, so slots do not show.
+		 * oversizedLiterals, variableNames and slotSpans may be null when the instructions do not need them
+		 */
+		for(int i = start; i < end; i ++)
+		{
+			int instruction = instructions[i];
+			int opcode = instruction & OPCODE_MASK;
+			int operand = instruction >>> OPERAND_SHIFT;
+			if(opcode == OP_STORE)
+				continue;
+			if(opcode == OP_LOAD)
+			{
+				writeInstructions(output, instructions, slotSpans[2 * operand], slotSpans[2 * operand + 1], constants, oversizedLiterals, variableNames, 
+						slotSpans, digits);
+				continue;
+			}
+			if(opcode == OP_VALUE || opcode == OP_OVERSIZED_VALUE)
+			{
+				long value = constants[operand];
+				if(opcode == OP_OVERSIZED_VALUE && value < 0)	//Negative means the literal did not fit in a long, its text was kept instead
+					output.append(oversizedLiterals[(int)(-value - 1)]);
+				else
+					writeNumber(output, value, digits);
+			}
+			else if(opcode == OP_VARIABLE)
+				output.append(variableNames[operand]);
+			else
+				output.append(symbolOf(opcode));
+			output.append(' ');
+		}
+	}
+
+	private int[] findSlotSpans()
+	{
+		/*
+		 * Finds the instructions of the subexpression stored in every slot. The start of slot s is at index 2s of the returned array and its end (the
+		 * 		store instruction) at 2s + 1. Every subexpression start is tracked on a stack the same way the values would be.
+		 */
+		int[] spans = new int[2 * this.slotCount];
+		int[] starts = new int[this.maxStackDepth + 1];
+		int top = -1;
+		for(int i = 0; i < this.instructions.length; i ++)
+		{
+			int opcode = this.instructions[i] & OPCODE_MASK;
+			if(opcode == OP_STORE)
+			{
+				int slot = this.instructions[i] >>> OPERAND_SHIFT;
+				spans[2 * slot] = starts[top];
+				spans[2 * slot + 1] = i;
+			}
+			else if(opcode <= OP_VARIABLE || opcode == OP_LOAD)
+				starts[++top] = i;
+			else if(isBinaryOperator(opcode))				//The subexpression of a binary operator starts where its first operand starts
+				top--;
+		}
+		return spans;
+	}
+
+	@Override
+	public String toString()
+	{
+		//Returns the post-fix string of the expression. Each operand and operator is separated by a space
+		StringBuilder output = new StringBuilder(this.instructions.length * 4);
+		try
+		{
+			this.writePostfixExpression(output);
+		}
+		catch(IOException e)
+		{//A StringBuilder never throws an IOException
+		}
+		return output.toString();
+	}
+
+	static void writeNumber(Appendable output, long value, char[] digits) throws IOException
+	{
+		//Writes the decimal digits of value to output using digits as scratch space. Avoids creating a String for every number
+		if(value < 0)
+			output.append('-');
+		int start = digits.length;
+		do
+		{
+			digits[--start] = (char)('0' + Math.abs(value % 10));	//Use the absolute value of each digit so Long.MIN_VALUE does not overflow
+			value /= 10;
+		}
+		while(value != 0);
+		for(; start < digits.length; start ++)
+			output.append(digits[start]);
+	}
+
+	void checkVariableCount(int valueCount)
+	{
+		//Throws an exception if fewer values than variables are given
+		if(valueCount < this.variableNames.length)
+			throw new IllegalArgumentException("The expression needs values for " + this.variableNames.length + " variables but " + valueCount + " were given");
+	}
+
+	void checkMode(NumericMode mode)
+	{
+		//Throws an exception if the expression is evaluated in another mode than the one its constants were folded for
+		checkMode(this.optimizedMode, mode);
+	}
+
+	static void checkMode(NumericMode optimizedMode, NumericMode mode)
+	{
+		//Same as checkMode(NumericMode) for an expression optimized for optimizedMode, null if it is not optimized
+		if(optimizedMode != null && optimizedMode != mode)
+			throw new IllegalArgumentException("The expression was optimized for the " + optimizedMode + " mode and cannot be evaluated in the " + mode + " mode");
+	}
+
+	static long variableValue(String[] variableNames, int variableIndex, long value)
+	{
+		//Returns the value of a variable, throwing an exception when it is outside the range of an integer like an operand that is too large
+		if(value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)
+			throw variableOutOfRange(variableNames[variableIndex]);
+		return value;
+	}
+
+	static int opcodeOf(char operator)
+	{
+		//Returns the opcode of an operator character. Valid operators are (+,-,*,/,^,Q,C,<,>,%), -1 is returned for anything else
+		switch(operator)
+		{
+		case '+':	return OP_ADD;
+		case '-':	return OP_SUBTRACT;
+		case '*':	return OP_MULTIPLY;
+		case '/':	return OP_DIVIDE;
+		case '^':	return OP_POWER;
+		case 'Q': 	return OP_SQUARE_ROOT;
+		case 'C':	return OP_CUBE_ROOT;
+		case '<': 	return OP_SHIFT_LEFT;
+		case '>':	return OP_SHIFT_RIGHT;
+		case '%':	return OP_MODULUS;
+		default :	return -1;
+		}
+	}
+
+	static boolean isBinaryOperator(int opcode)
+	{
+		//Determines if an opcode is an operator that takes two operands
+		return opcode >= OP_ADD && opcode <= OP_MODULUS;
+	}
+
+	static char symbolOf(int opcode)
+	{
+		//Returns the operator character of an operator opcode
+		return OPERATOR_SYMBOLS[opcode];
+	}
+
+	static long applyBinaryOperator(int opcode, long firstOperand, long secondOperand)
+	{
+		//Performs a binary operator on two operands without checking the range of the result
+		switch(opcode)
+		{
+		case OP_ADD:			return firstOperand + secondOperand;
+		case OP_SUBTRACT:		return firstOperand - secondOperand;
+		case OP_MULTIPLY:		return firstOperand * secondOperand;
+		case OP_DIVIDE:			return firstOperand / secondOperand;
+		case OP_POWER:			return power(firstOperand, secondOperand);
+		case OP_SHIFT_LEFT:		return firstOperand << secondOperand;
+		case OP_SHIFT_RIGHT:	return firstOperand >> secondOperand;
+		default:				return firstOperand % secondOperand;
+		}
+	}
+
+	static long power(long base, long exponent) throws ArithmeticException
+	{
+		/*
+		 * Raises base to exponent with integer arithmetic, so every result that fits in a long is exact.
+		 * Caller Expectations: An ArithmeticException is thrown if the result does not fit in a long. A negative exponent truncates towards zero: 1
+		 * 		and -1 keep their magnitude, 0 has no result like a division by zero and throws the same exception, anything else is 0
+		 */
+		if(exponent < 0)
+		{
+			if(base == 0)
+				throw overflow(OP_POWER);
+			return base == 1 ? 1 : base == -1 ? 1 - 2 * (exponent & 1) : 0;
+		}
+		if(base == Long.MIN_VALUE)							//Its magnitude does not fit in a long
+		{
+			if(exponent > 1)
+				throw overflow(OP_POWER);
+			return exponent == 1 ? base : 1;
+		}
+		//Work with negative values because they reach one further than positive values, so -(2^63) can be computed
+		long magnitude = Math.abs(base), result = -1;
+		for(long i = 0; i < exponent && result != 0; i ++)	//Stops after at most 64 multiplications unless base is 0, 1 or -1
+		{
+			if(magnitude > 1 && result < Long.MIN_VALUE / magnitude)
+				throw overflow(OP_POWER);
+			result *= magnitude;
+			if(magnitude == 1)
+				break;
+		}
+		if(base < 0 && (exponent & 1) == 1)					//A negative base to an odd exponent is negative
+			return result;
+		if(result == Long.MIN_VALUE)
+			throw overflow(OP_POWER);
+		return -result;
+	}
+
+	static long squareRoot(long value)
+	{
+		//Square root truncated towards zero, computed exactly. Negative values have no root and return 0
+		if(value <= 0)
+			return 0;
+		long root = Math.min((long)Math.sqrt(value), MAX_SQUARE_ROOT);		//Can be one off because the value is rounded to a double
+		while(root * root > value)
+			root--;
+		while(root < MAX_SQUARE_ROOT && (root + 1) * (root + 1) <= value)
+			root++;
+		return root;
+	}
+
+	static long cubeRoot(long value)
+	{
+		//Cube root truncated towards zero, computed exactly. The cube root of a negative value is negative
+		if(value == Long.MIN_VALUE)							//-(2^63) is the cube of -(2^21), and its magnitude does not fit in a long
+			return -(1L << 21);
+		long magnitude = Math.abs(value);
+		long root = Math.min((long)Math.cbrt(magnitude), MAX_CUBE_ROOT);	//Can be one off because the value is rounded to a double
+		while(root * root * root > magnitude)
+			root--;
+		while(root < MAX_CUBE_ROOT && (root + 1) * (root + 1) * (root + 1) <= magnitude)
+			root++;
+		return value < 0 ? -root : root;
+	}
+
+	static int instruction(int opcode, int operand)
+	{
+		/*
+		 * Encodes an instruction with an operand.
+		 * Caller Requirements: opcode must be one of the opcodes below
+		 * Caller Expectations: An IllegalStateException is thrown if operand is negative or greater than MAX_OPERAND, it would overwrite the opcode
+		 */
+		if(operand < 0 || operand > MAX_OPERAND)
+			throw new IllegalStateException("The operand " + operand + " of an instruction is greater than " + MAX_OPERAND);
+		return opcode | (operand << OPERAND_SHIFT);
+	}
+
+	static ArithmeticException overflow(int opcode)
+	{
+		//Returns the exception thrown when the result of an operator is outside the range of the values being computed
+		return new EvaluationException(EvaluationFailure.OVERFLOW, "Error: The expression caused an overflow when performing " + symbolOf(opcode));
+	}
+
+	static ArithmeticException operandTooLarge()
+	{
+		//Returns the exception thrown when a literal is outside the range of the values being computed
+		return new EvaluationException(EvaluationFailure.OPERAND_TOO_LARGE, "Error: An operand is too large");
+	}
+
+	static ArithmeticException variableOutOfRange(String name)
+	{
+		//Returns the exception thrown when the value given for a variable is outside the range of an integer
+		return new EvaluationException(EvaluationFailure.VARIABLE_OUT_OF_RANGE, "Error: The value of the variable " + name + " is outside the range of an integer");
+	}
+
+	//Instruction layout. The low byte is the opcode, the remaining bits are the operand (index into the constants for values, index of the variable
+	//for variables, slot number for loads and stores)
+	static final int OPCODE_MASK = 0xFF;
+	static final int OPERAND_SHIFT = 8;
+	static final int MAX_OPERAND = -1 >>> OPERAND_SHIFT;
+
+	//Opcodes
+	static final int OP_VALUE = 0;					//Pushes a constant
+	static final int OP_OVERSIZED_VALUE = 1;		//A constant outside the range of an integer. Evaluating it throws an exception
+	static final int OP_VARIABLE = 2;				//Pushes the value of a variable
+	static final int OP_ADD = 3;
+	static final int OP_SUBTRACT = 4;
+	static final int OP_MULTIPLY = 5;
+	static final int OP_DIVIDE = 6;
+	static final int OP_POWER = 7;
+	static final int OP_SHIFT_LEFT = 8;
+	static final int OP_SHIFT_RIGHT = 9;
+	static final int OP_MODULUS = 10;
+	static final int OP_SQUARE_ROOT = 11;			//Unary
+	static final int OP_CUBE_ROOT = 12;				//Unary
+	static final int OP_LOAD = 13;					//Pushes the value kept in a slot
+	static final int OP_STORE = 14;					//Keeps the value on the top of the stack in a slot, the value stays on the stack
+
+	private static final long MAX_SQUARE_ROOT = 3037000499L;	//Largest value whose square fits in a long
+	private static final long MAX_CUBE_ROOT = 2097151;			//Largest value whose cube fits in a long
+	private static final char[] OPERATOR_SYMBOLS = { ' ', ' ', ' ', '+', '-', '*', '/', '^', '<', '>', '%', 'Q', 'C' };
+	private static final long[] NO_VARIABLES = new long[0];
+
+	final int[] instructions;						//Post-fix instructions
+	final long[] constants;							//Operand values referenced by OP_VALUE and OP_OVERSIZED_VALUE instructions
+	final String[] oversizedLiterals;				//Text of operands that did not fit in a long
+	final String[] variableNames;					//Names of the variables, indexed by the operand of OP_VARIABLE instructions
+	final int maxStackDepth;						//Largest amount of values on the stack while evaluating, not counting slots
+	final int slotCount;							//Amount of slots used by OP_LOAD and OP_STORE instructions
+	final NumericMode optimizedMode;				//Mode the constants were folded for by the ExpressionOptimizer, null if they were not folded
+}
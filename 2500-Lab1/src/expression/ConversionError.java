@@ -0,0 +1,24 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * The reasons an infix expression can be invalid. A ConversionResult holds one of these together with the position of the token that caused it, the
+ * message of the matching InvalidTokenException is built from both.
+ */
+package expression;
+
+public enum ConversionError
+{
+	VALUE_NOT_EXPECTED,					//A value follows another value without an operator between them
+	VARIABLE_NOT_EXPECTED,				//A variable follows a value without an operator between them
+	MISSING_OPERAND,					//A binary operator has no value before it
+	UNARY_OPERATOR_NOT_EXPECTED,		//A unary operator follows a value
+	MISSING_UNARY_PARENTHESIS,			//A unary operator is not followed by a '('
+	PARENTHESIS_NOT_EXPECTED,			//A '(' follows a value
+	MISSING_VALUE_BEFORE_PARENTHESIS,	//A ')' follows an operator or a '('
+	UNMATCHED_CLOSING_PARENTHESIS,		//A ')' has no '(' before it
+	UNMATCHED_OPENING_PARENTHESIS,		//A '(' has no ')' after it
+	UNRECOGNIZED_CHARACTER,				//A character that is not part of any token
+	MISSING_FINAL_OPERAND,				//The expression ends where a value is needed, for example after an operator or when it is empty
+	TOO_MANY_OPERANDS					//The expression has more values or variables than an instruction can index
+}
@@ -0,0 +1,174 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is the outcome of converting an infix expression with PostfixNotationCreator.convert(). It tells whether the expression is valid and if it
+ * is not, why and where. Nothing is thrown and no message is built while converting: the message is only built from the expression text when it is asked
+ * for, so rejecting an expression costs about as much as converting a valid one. Every converter keeps a single result object that is filled in by each
+ * conversion.
+ */
+package expression;
+
+import java.io.IOException;
+
+public final class ConversionResult
+{
+	ConversionResult()
+	{
+		//Only a PostfixNotationCreator creates results
+	}
+
+	public boolean isValid()
+	{
+		//Returns whether the expression was converted
+		return this.error == null;
+	}
+
+	public ConversionError getError()
+	{
+		//Returns the reason the expression is invalid, or null if it is valid
+		return this.error;
+	}
+
+	public int getErrorOffset()
+	{
+		/*
+		 * Returns the index of the token that made the expression invalid, counted from the start of the converted region. The end of the region is
+		 * 		returned when a value is missing at the end of the expression. -1 is returned if the expression is valid
+		 */
+		return this.error == null ? -1 : this.errorStart - this.regionStart;
+	}
+
+	public int getErrorLength()
+	{
+		//Returns the amount of characters of the token that made the expression invalid, 0 if the expression is valid
+		return this.errorEnd - this.errorStart;
+	}
+
+	public String getReason()
+	{
+		/*
+		 * Returns why the expression is invalid, the same text as InvalidTokenException.getReason(). null is returned if the expression is valid.
+		 * Caller Requirements: The converter must not have converted another expression since, and the text of the expression must not have changed
+		 * Caller Expectations: The reason is built the first time it is asked for and kept, so it stays valid after the requirements no longer hold
+		 */
+		if(this.error != null && this.reason == null)
+		{
+			StringBuilder reasonBuilder = new StringBuilder(64);
+			try
+			{
+				this.writeReason(reasonBuilder);
+			}
+			catch(IOException e)
+			{//A StringBuilder never throws an IOException
+			}
+			this.reason = reasonBuilder.toString();
+		}
+		return this.reason;
+	}
+
+	public String getMessage()
+	{
+		//Returns the message of the InvalidTokenException that processInfixExpression() throws for the expression, or null if the expression is valid
+		return this.error == null ? null : InvalidTokenException.MESSAGE_PREFIX + this.getReason();
+	}
+
+	public void writeMessage(Appendable output) throws IOException
+	{
+		/*
+		 * Writes the same text as getMessage() to output without creating a String.
+		 * Caller Requirements: Same as getReason(), unless the reason was already asked for. The expression must be invalid
+		 * Caller Expectations: Any IOException thrown by output is passed on
+		 */
+		output.append(InvalidTokenException.MESSAGE_PREFIX);
+		if(this.reason != null)
+			output.append(this.reason);
+		else
+			this.writeReason(output);
+	}
+
+	private void writeReason(Appendable output) throws IOException
+	{
+		//Writes the reason the expression is invalid using the text of the token that caused it
+		char token = this.errorStart < this.regionEnd ? this.source.charAt(this.errorStart) : ' ';	//The token is a single character for most errors
+		switch(this.error)
+		{
+		case VALUE_NOT_EXPECTED:
+			output.append("An operator must proceed the value ").append(this.source, this.errorStart, this.errorEnd);
+			if(this.errorEnd < this.regionEnd)			//The message of a value in the middle of the expression always had a space at its end
+				output.append(' ');
+			break;
+		case VARIABLE_NOT_EXPECTED:
+			output.append("An operator must proceed the variable ").append(this.source, this.errorStart, this.errorEnd);
+			break;
+		case MISSING_OPERAND:
+			output.append("The operator ( ").append(token).append(" ) needs a value preceeding it");
+			break;
+		case UNARY_OPERATOR_NOT_EXPECTED:
+			output.append("An operator must preceed the unary operator ").append(token);
+			break;
+		case MISSING_UNARY_PARENTHESIS:
+			output.append("The operator ( ").append(token).append(" ) does not contain a starting parenthesis");
+			break;
+		case PARENTHESIS_NOT_EXPECTED:
+			output.append("An opening parenthesis is used when a operator is needed");
+			break;
+		case MISSING_VALUE_BEFORE_PARENTHESIS:
+			output.append("A value is needed before a closing parenthesis");
+			break;
+		case UNMATCHED_CLOSING_PARENTHESIS:
+			output.append("A right parenthesis was found without a beginning left parenthesis");
+			break;
+		case UNMATCHED_OPENING_PARENTHESIS:
+			output.append("A opening parenthesis ( was found without a closing parenthesis");
+			break;
+		case UNRECOGNIZED_CHARACTER:
+			output.append("An unrecognized character (").append(token).append(") was entered");
+			break;
+		case TOO_MANY_OPERANDS:
+			output.append("The expression has more than ").append(String.valueOf(CompiledExpression.MAX_OPERAND + 1)).append(" operands");
+			break;
+		default:
+			output.append("An operand is needed at the end of the expression");
+			break;
+		}
+	}
+
+	void reset(CharSequence source, int regionStart, int regionEnd)
+	{
+		//Starts the result of a new conversion of the region of source. The result is valid until an error is set
+		this.source = source;
+		this.regionStart = regionStart;
+		this.regionEnd = regionEnd;
+		this.error = null;
+		this.errorStart = this.errorEnd = 0;
+		this.reason = null;
+	}
+
+	ConversionResult setError(ConversionError error, int errorStart, int errorEnd)
+	{
+		//Marks the expression as invalid because of the token from errorStart to errorEnd (indexes in source). Returns this result
+		this.error = error;
+		this.errorStart = errorStart;
+		this.errorEnd = errorEnd;
+		return this;
+	}
+
+	ConversionResult setStreamError(ConversionError error, CharSequence token, boolean tokenAtEnd, long offset)
+	{
+		/*
+		 * Marks an expression converted by a PostfixStreamConverter as invalid. Only the text of the token that made it invalid was kept, offset is
+		 * 		where the token starts in the stream. The region is made to start offset characters before the token so getErrorOffset() is the offset
+		 * 		in the stream, and to end after the token unless the token ended the expression. Offsets past the range of an int are reported as
+		 * 		Integer.MAX_VALUE
+		 */
+		this.reset(token, -(int)Math.min(offset, Integer.MAX_VALUE), tokenAtEnd ? token.length() : token.length() + 1);
+		return this.setError(error, 0, token.length());
+	}
+
+	private CharSequence source;				//Text of the expression, only read when the reason is built
+	private int regionStart, regionEnd;			//Region of source that was converted
+	private ConversionError error;				//Why the expression is invalid, null if it is valid
+	private int errorStart, errorEnd;			//Indexes in source of the token that made the expression invalid
+	private String reason;						//Reason built by getReason(), null until it is asked for
+}
@@ -0,0 +1,77 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ * 
+ * This class is a First in Last out Stack of double values. Unlike Stack<Double> the values are kept in a primitive array that grows as needed, so pushing
+ * does not allocate a node or box the value. The array is kept when the stack is cleared so the same stack can be reused for many evaluations.
+ */
+package expression;
+
+import java.util.Arrays;
+
+public class DoubleStack 
+{
+	public DoubleStack()
+	{
+		this(16);
+	}
+	
+	public DoubleStack(int initialCapacity)
+	{
+		//Creates an empty stack that can hold initialCapacity values before it has to grow
+		this.items = new double[Math.max(initialCapacity, 1)];
+	}
+	
+	void clear()
+	{	
+		//Removes all items from the stack. The storage is kept
+		this.size = 0;
+	}
+	
+	void push(double what)
+	{
+		//Pushes an item onto the top of the stack, growing the storage if it is full
+		if(this.size == this.items.length)
+			this.items = Arrays.copyOf(this.items, this.size * 2);
+		this.items[this.size++] = what;
+	}
+	double peek()
+	{
+		//Returns the top item. The caller must make sure the stack is not empty using isEmpty()
+		return this.items[this.size - 1];
+	}
+	double pop()
+	{
+		//Removes and returns the top item. The caller must make sure the stack is not empty using isEmpty()
+		return this.items[--this.size];
+	}
+	boolean isEmpty()
+	{
+		//Returns whether the stack has any items
+		return (this.size == 0);
+	}
+	double get(int index)
+	{
+		//Returns the item at index, counted from the bottom of the stack. The caller must make sure index is less than size()
+		return this.items[index];
+	}
+	void set(int index, double what)
+	{
+		//Replaces the item at index, counted from the bottom of the stack. The caller must make sure index is less than size()
+		this.items[index] = what;
+	}
+	int size()
+	{
+		//Returns how many items are on the stack
+		return this.size;
+	}
+	void ensureCapacity(int capacity)
+	{
+		//Grows the storage so at least capacity items can be pushed without growing again
+		if(this.items.length < capacity)
+			this.items = Arrays.copyOf(this.items, capacity);
+	}
+	
+	protected double[] items;			//The items of the stack, the bottom of the stack is at index 0
+	protected int size;				//Amount of items on the stack
+}
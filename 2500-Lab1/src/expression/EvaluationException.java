@@ -0,0 +1,26 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is the exception thrown when an expression cannot be evaluated, apart from a division by zero which the JVM throws itself as a plain
+ * ArithmeticException. It is an ArithmeticException so callers that catch those keep working, and it carries the kind of failure so it does not have to
+ * be told from the message.
+ */
+package expression;
+
+public class EvaluationException extends ArithmeticException
+{
+	public EvaluationException(EvaluationFailure failure, String message)
+	{
+		super(message);
+		this.failure = failure;
+	}
+
+	public EvaluationFailure getFailure()
+	{
+		//Returns why the evaluation failed
+		return this.failure;
+	}
+
+	private final EvaluationFailure failure;		//The kind of failure given when the exception was created
+}
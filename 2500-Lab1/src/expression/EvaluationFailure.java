@@ -0,0 +1,24 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * The reasons evaluating an expression can fail, as counted by ExpressionMetrics. Every failure is an ArithmeticException, this tells them apart. The
+ * evaluators throw an EvaluationException that carries its kind, except for a division by zero which the JVM throws.
+ */
+package expression;
+
+public enum EvaluationFailure
+{
+	OVERFLOW,					//An intermediate result was outside the range of an integer
+	DIVIDE_BY_ZERO,				//Division or modulus by zero
+	OPERAND_TOO_LARGE,			//An operand was outside the range of an integer
+	VARIABLE_OUT_OF_RANGE;		//The value given for a variable was outside the range of an integer
+
+	static EvaluationFailure of(ArithmeticException exception)
+	{
+		//Returns the reason of an exception thrown by an evaluation. Any ArithmeticException that is not an EvaluationException is a division by zero
+		if(exception instanceof EvaluationException)
+			return ((EvaluationException)exception).getFailure();
+		return DIVIDE_BY_ZERO;
+	}
+}
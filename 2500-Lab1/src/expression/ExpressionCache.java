@@ -0,0 +1,220 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ * 
+ * This class is a thread-safe cache of compiled expressions keyed by their infix text. It holds at most a fixed amount of expressions and removes the
+ * least recently used one when it is full. Invalid expressions are cached too, so an expression that is rejected again and again is only validated once.
+ *
+ * The entries are split by the hash of their text into segments that each have their own lock and their own share of the maximum size, so threads
+ * looking up different expressions rarely wait for each other. The least recently used order is kept per segment: the entry removed is the least
+ * recently used one of its segment, not always of the whole cache.
+ */
+package expression;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ExpressionCache 
+{
+	public ExpressionCache(int maximumSize, boolean normalizeWhitespace)
+	{
+		/*
+		 * Creates an empty cache.
+		 * Caller Requirements: maximumSize must be greater than 0
+		 * Caller Expectations: The cache holds at most maximumSize expressions, valid or invalid. When normalizeWhitespace is true expressions that only
+		 * 		differ in the amount of spaces between tokens or at the ends share an entry
+		 */
+		if(maximumSize < 1)
+			throw new IllegalArgumentException("The maximum size of the cache must be greater than 0");
+		this.normalizeWhitespace = normalizeWhitespace;
+		int segmentCount = Math.min(Integer.highestOneBit(maximumSize), SEGMENT_COUNT);	//Every segment holds at least one entry
+		this.segments = new Segment[segmentCount];
+		for(int i = 0; i < segmentCount; i ++)
+			this.segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+		this.segmentMask = segmentCount - 1;
+	}
+	
+	public CompiledExpression compile(String infixExpression) throws InvalidTokenException
+	{
+		/*
+		 * Returns the compiled form of an infix expression, converting it only when it is not in the cache.
+		 * 
+		 * Caller Requirements: infixExpression must be non-null
+		 * Caller Expectations: The compiled expression is returned. If the expression is invalid an InvalidTokenException with the same message as
+		 * 		PostfixNotationCreator.processInfixExpression() is thrown, whether or not the failure was cached
+		 * 
+		 * The segment of the expression is only locked while looking up and storing entries, the conversion of a miss is done without holding the lock. Two
+		 * 		threads missing the same expression at the same time both convert it and both count as a miss.
+		 */
+		String key = this.normalizeWhitespace ? normalize(infixExpression) : infixExpression;
+		Segment segment = this.segmentOf(key);
+		Object cached;
+		synchronized(segment)
+		{
+			cached = segment.get(key);
+			if(cached != null)
+				segment.hitCount++;
+			else
+				segment.missCount++;
+		}
+		if(cached == null)											//Miss, convert the expression and cache the result or the reason it is invalid
+		{
+			PostfixNotationCreator converter = CONVERTERS.acquire();
+			try
+			{
+				ConversionResult conversion = converter.convert(key);
+				cached = conversion.isValid() ? converter.getCompiledExpression() : conversion.getReason();
+			}
+			finally
+			{
+				CONVERTERS.release(converter);
+			}
+			synchronized(segment)
+			{
+				segment.put(key, cached);
+			}
+		}
+		if(cached instanceof String)								//Negative entry
+			throw new InvalidTokenException((String)cached);
+		return (CompiledExpression)cached;
+	}
+	
+	public void clear()
+	{
+		//Removes every entry. The counters are not reset
+		for(Segment segment : this.segments)
+			synchronized(segment)
+			{
+				segment.clear();
+			}
+	}
+	
+	public int size()
+	{
+		//Returns the amount of cached expressions, valid or invalid. The segments are counted one after the other, not at a single point in time
+		int size = 0;
+		for(Segment segment : this.segments)
+			synchronized(segment)
+			{
+				size += segment.size();
+			}
+		return size;
+	}
+	
+	public long getHitCount()
+	{
+		//Returns how many lookups found their expression in the cache
+		long count = 0;
+		for(Segment segment : this.segments)
+			synchronized(segment)
+			{
+				count += segment.hitCount;
+			}
+		return count;
+	}
+	
+	public long getMissCount()
+	{
+		//Returns how many lookups had to convert their expression
+		long count = 0;
+		for(Segment segment : this.segments)
+			synchronized(segment)
+			{
+				count += segment.missCount;
+			}
+		return count;
+	}
+	
+	public long getEvictionCount()
+	{
+		//Returns how many entries were removed because their segment was full
+		long count = 0;
+		for(Segment segment : this.segments)
+			synchronized(segment)
+			{
+				count += segment.evictionCount;
+			}
+		return count;
+	}
+	
+	int getSegmentCount()
+	{
+		return this.segments.length;
+	}
+	
+	private Segment segmentOf(String key)
+	{
+		//Returns the segment of a key. The high bits of the hash are mixed in because only the low bits pick the segment
+		int hash = key.hashCode();
+		return this.segments[(hash ^ (hash >>> 16)) & this.segmentMask];
+	}
+	
+	static String normalize(String infixExpression)
+	{
+		/*
+		 * Removes the spaces at both ends of an infix expression and replaces every run of spaces with a single space. Spaces only separate tokens so the
+		 * 		normalized expression converts to the same post-fix expression, or fails with the same message.
+		 * The original string is returned when it is already normalized so the common case does not allocate.
+		 */
+		int length = infixExpression.length();
+		boolean normalized = length == 0 || (infixExpression.charAt(0) != ' ' && infixExpression.charAt(length - 1) != ' ');
+		for(int i = 1; normalized && i < length; i ++)
+			normalized = infixExpression.charAt(i) != ' ' || infixExpression.charAt(i - 1) != ' ';
+		if(normalized)
+			return infixExpression;
+		
+		StringBuilder builder = new StringBuilder(length);
+		for(int i = 0; i < length; i ++)
+		{
+			char currentChar = infixExpression.charAt(i);
+			if(currentChar != ' ' || (builder.length() != 0 && builder.charAt(builder.length() - 1) != ' '))
+				builder.append(currentChar);
+		}
+		if(builder.length() != 0 && builder.charAt(builder.length() - 1) == ' ')	//At most one trailing space is left
+			builder.setLength(builder.length() - 1);
+		return builder.toString();
+	}
+	
+	//Converters used for misses. A PostfixNotationCreator can only be used by one thread at a time so each miss takes one from the pool
+	private static final StripedPool<PostfixNotationCreator> CONVERTERS = new StripedPool<PostfixNotationCreator>(2 * Runtime.getRuntime().availableProcessors())
+	{
+		@Override
+		protected PostfixNotationCreator create()
+		{
+			return new PostfixNotationCreator();
+		}
+	};
+	
+	private static final class Segment extends LinkedHashMap<String, Object>
+	{
+		/*
+		 * Infix text to a CompiledExpression, or to the reason (String) it is invalid, in access order so the eldest entry is the least recently used.
+		 * 		The map and its counters are guarded by the lock of the segment
+		 */
+		Segment(int maximumSize)
+		{
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+		}
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Object> eldest)
+		{
+			if(this.size() <= this.maximumSize)
+				return false;
+			this.evictionCount++;									//Called while the segment is locked by put()
+			return true;
+		}
+		
+		private final int maximumSize;							//Largest amount of entries of this segment
+		long hitCount;
+		long missCount;
+		long evictionCount;
+	}
+	
+	private static final int SEGMENT_COUNT = Integer.highestOneBit(4 * Runtime.getRuntime().availableProcessors() - 1) << 1;	//Power of two
+	
+	private final boolean normalizeWhitespace;					//Whether runs of spaces are normalized before looking up an expression
+	private final Segment[] segments;							//The maximum sizes of the segments add up to the maximum size of the cache
+	private final int segmentMask;								//Segment count - 1, the segment count is a power of two
+}
@@ -0,0 +1,179 @@
+/*
+ * Author: David Jones 
+ * Date : 10/2/17
+ * This project prompts a user for an infix expression and displays the corresponding post-fix expression and evaluates it.  
+ * Project was made as a school project to practice using stacks and to demonstrate our knowledge of how to use a stack to solve
+ * a problem.
+ */
+package expression;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+public class ExpressionEvaluator 
+{
+	public static void main(String[] args) 
+	{
+		/*
+		 * With no arguments the user is prompted for expressions. The batch mode is used when -batch is given and the server mode when -server is given:
+		 * 		-batch				Convert and evaluate every line of the input using all cores
+		 * 		-input <file>		Read expressions from the file instead of the standard input. The file is memory-mapped and parsed in place
+		 * 		-output <file>		Write results to the file instead of the standard output
+		 * 		-workers <count>	Amount of worker threads (default is the amount of cores)
+		 * 		-chunk <lines>		Amount of lines given to a worker at a time (default 4096)
+		 * 		-server				Answer expressions sent over TCP connections to the local machine, one per line. See ExpressionServer
+		 * 		-port <port>		Port the server listens on (default 7070)
+		 * 		-workers <count>	Also sets the amount of event loops of the server
+		 * 		-metrics			Write the counters and latency percentiles of ExpressionMetrics to the standard error stream when the batch is done
+		 * 							or the server is stopped. Flight Recorder events are committed too, see JfrEventSink
+		 * 		-mode <mode>		Numeric engine used to evaluate in every mode: int32 (default), int64, big_integer or double. See NumericMode
+		 */
+		boolean batchMode = false, serverMode = false, metricsMode = false;
+		String inputFile = null, outputFile = null;
+		NumericMode mode = NumericMode.INT32;
+		int workerCount = Runtime.getRuntime().availableProcessors(), chunkSize = 4096, port = 7070;
+		try
+		{
+			for(int i = 0; i < args.length; i ++)
+			{
+				if(args[i].equals("-batch"))
+					batchMode = true;
+				else if(args[i].equals("-input") && i + 1 < args.length)
+					inputFile = args[++i];
+				else if(args[i].equals("-output") && i + 1 < args.length)
+					outputFile = args[++i];
+				else if(args[i].equals("-workers") && i + 1 < args.length)
+					workerCount = Integer.parseInt(args[++i]);
+				else if(args[i].equals("-chunk") && i + 1 < args.length)
+					chunkSize = Integer.parseInt(args[++i]);
+				else if(args[i].equals("-server"))
+					serverMode = true;
+				else if(args[i].equals("-port") && i + 1 < args.length)
+					port = Integer.parseInt(args[++i]);
+				else if(args[i].equals("-metrics"))
+					metricsMode = true;
+				else if(args[i].equals("-mode") && i + 1 < args.length)
+					mode = NumericMode.valueOf(args[++i].toUpperCase());
+				else
+					throw new IllegalArgumentException("Unrecognized argument " + args[i]);
+			}
+			ExpressionMetrics metrics = metricsMode ? new ExpressionMetrics() : null;
+			if(serverMode)
+				runServer(port, workerCount, mode, metrics);
+			else if(batchMode)
+				runBatch(inputFile, outputFile, workerCount, chunkSize, mode, metrics);
+			else
+				runInteractive(mode);
+		}
+		catch(Exception e)
+		{
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+		System.exit(0); 			//Added to avoid AGENT_ERROR_NO_JNI_ENV(183) exception
+	}
+	
+	private static void runInteractive(NumericMode mode)
+	{
+		//Prompts the user for infix expressions until a blank line is entered. The post-fix expression and the result of each is displayed
+		Scanner inputScanner = new Scanner(System.in);								//Keyboard input scanner
+		PostfixNotationCreator postfixExpression = new PostfixNotationCreator();	//Object that converts infix expression to post-fix and evaluates them
+		String inputExpression;														//String input by user of the post fix expression
+		
+		System.out.println("Please enter an algebraic (infix) expression:");		//Prompt the user once
+		while(!(inputExpression = inputScanner.nextLine()).isEmpty())				//Get input from the user. If the user enters a blank line then exit the loop
+		{
+			postfixExpression.clearExpression();									//Clear the old expression
+			try
+			{
+				postfixExpression.processInfixExpression(inputExpression);			//Convert the infix expression the user has given
+				System.out.println(postfixExpression.getPostfixExpression());		//Get the post-fix equivalent
+				System.out.println(evaluate(postfixExpression, mode) + "\n");		//Display the result
+			}
+			catch(Exception e)														//If an error occurs then print the error message and a new line
+			{
+				System.out.println(BatchEvaluator.messageOf(e) + "\n");
+			}
+		}
+		inputScanner.close();		//Cleanup
+	}
+	
+	private static Object evaluate(PostfixNotationCreator postfixExpression, NumericMode mode)
+	{
+		//Evaluates the converted expression with the numeric engine of mode
+		switch(mode)
+		{
+		case INT64:			return postfixExpression.evaluateLong();
+		case BIG_INTEGER:	return postfixExpression.evaluateBigInteger();
+		case DOUBLE:		return postfixExpression.evaluateDouble();
+		default:			return postfixExpression.evaluate();
+		}
+	}
+	
+	private static void runBatch(String inputFile, String outputFile, int workerCount, int chunkSize, NumericMode mode, ExpressionMetrics metrics)
+			throws Exception
+	{
+		//Converts and evaluates every line of the input with a BatchEvaluator and reports the throughput, and the metrics if any, on the standard error stream
+		FileInputStream input = inputFile == null ? null : new FileInputStream(inputFile);
+		OutputStream output = new BufferedOutputStream(outputFile == null ? System.out : new FileOutputStream(outputFile), 1 << 16);
+		try
+		{
+			BatchEvaluator evaluator = new BatchEvaluator(workerCount, chunkSize, mode, metrics);
+			long startTime = System.nanoTime();
+			long expressionCount = input == null ? evaluator.run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII), 1 << 16), output)
+					: evaluator.run(input.getChannel(), output);
+			double seconds = (System.nanoTime() - startTime) / 1e9;
+			System.err.printf("Processed %d expressions in %.3f seconds (%.0f expressions/sec) using %d workers%n", expressionCount, seconds,
+					expressionCount / Math.max(seconds, 1e-9), workerCount);
+			if(metrics != null)
+				metrics.writeReport(System.err);
+		}
+		finally
+		{
+			if(input != null)
+				input.close();
+			output.close();
+		}
+	}
+	
+	private static void runServer(int port, int loopCount, NumericMode mode, final ExpressionMetrics metrics) throws Exception
+	{
+		//Runs an ExpressionServer on the loopback address until the process is stopped. The metrics, if any, are reported when it is stopped
+		ExpressionServer server = new ExpressionServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), loopCount, mode,
+				metrics);
+		if(metrics != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						metrics.writeReport(System.err);		//Same report as the batch mode
+					}
+					catch(IOException e)
+					{//A PrintStream does not throw, it sets its error flag
+					}
+				}
+			});
+		}
+		System.err.printf("Listening on port %d with %d event loops%n", server.getPort(), loopCount);
+		try
+		{
+			server.run();
+		}
+		finally
+		{
+			server.close();
+		}
+	}
+}
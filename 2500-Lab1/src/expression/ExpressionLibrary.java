@@ -0,0 +1,343 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class reads an expression library, a file of expressions that were converted once by an ExpressionLibraryWriter. The file is memory-mapped and
+ * nothing is read when it is opened apart from the header, so opening takes the same time whatever the size of the library. Expressions are found
+ * by id or by infix text and evaluated straight from the mapped file, no CompiledExpression is created unless one is asked for. The library is
+ * immutable and can be used by any amount of threads at the same time.
+ *
+ * Format (version 2, every number is big-endian and every offset is from the start of the file):
+ * 		Header			magic "EXPL", version, entry count, hash table size, offset of the records, length of the file		(ints)
+ * 		Entries			id (long), offset of the record (int), hash of the infix text (int)		sorted by id, so an id is found by binary search
+ * 		Hash table		entry + 1 for every slot, 0 when the slot is empty. Entries are found by the hash of their infix text with linear probing
+ * 		Records			instruction count, constant count, variable count, oversized literal count, max stack depth, slot count, optimized mode
+ * 						(ints, the mode is its ordinal + 1 and 0 when the expression is not optimized)
+ * 						instructions (ints), constants (longs), then the infix text, the variable names and the oversized literals as texts
+ * 		Text			length (int) followed by the chars
+ * The instructions and constants are the same as a CompiledExpression, an optimized entry is only evaluated in the mode it was optimized for. The infix text is kept so a lookup by text can tell a hash collision from a
+ * match. A file with another version is rejected; a new version can change anything after the version number.
+ */
+package expression;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public final class ExpressionLibrary
+{
+	public static ExpressionLibrary open(String fileName) throws IOException
+	{
+		/*
+		 * Memory-maps a library file.
+		 * Caller Requirements: The file must not be changed while the library is used
+		 * Caller Expectations: An IOException is thrown if the file cannot be read, is not a library or has another format version. The file is
+		 * 		closed right away, the mapping stays valid until the library is garbage collected
+		 */
+		FileInputStream input = new FileInputStream(fileName);
+		try
+		{
+			FileChannel channel = input.getChannel();
+			if(channel.size() > MAX_SIZE)
+				throw new IOException(fileName + " is too large to be an expression library");
+			return new ExpressionLibrary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+
+	public ExpressionLibrary(ByteBuffer buffer) throws IOException
+	{
+		/*
+		 * Reads a library from a buffer, for example the bytes written by ExpressionLibraryWriter.write(OutputStream).
+		 * Caller Requirements: buffer must be non-null and hold the library from index 0 to its limit. It must not be changed while the library is
+		 * 		used, its position and limit are not used
+		 * Caller Expectations: Same exceptions as open(String). Only the header is checked, the entries and records are trusted
+		 */
+		int length = buffer.limit();
+		if(length < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not an expression library");
+		int version = buffer.getInt(4);
+		if(version != VERSION)
+			throw new IOException("Unsupported expression library version " + version + ", expected " + VERSION);
+		int entryCount = buffer.getInt(8), hashTableSize = buffer.getInt(12);
+		long hashTableOffset = HEADER_SIZE + (long)entryCount * ENTRY_SIZE;
+		if(entryCount < 0 || hashTableSize < 1 || Integer.bitCount(hashTableSize) != 1 || buffer.getInt(20) != length
+				|| buffer.getInt(16) != hashTableOffset + 4L * hashTableSize)
+			throw new IOException("The expression library is truncated or corrupt");
+		this.buffer = buffer;
+		this.entryCount = entryCount;
+		this.hashTableSize = hashTableSize;
+		this.hashTableOffset = (int)hashTableOffset;
+	}
+
+	public int size()
+	{
+		//Returns how many expressions the library holds. Entries are numbered from 0 to size() - 1 in order of their ids
+		return this.entryCount;
+	}
+
+	public int indexOf(long id)
+	{
+		//Returns the entry of the expression with the given id, or -1 if the library does not hold it
+		int low = 0, high = this.entryCount - 1;
+		while(low <= high)
+		{
+			int middle = (low + high) >>> 1;
+			long middleId = this.buffer.getLong(entryOffset(middle));
+			if(middleId < id)
+				low = middle + 1;
+			else if(middleId > id)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	public int indexOf(CharSequence infixExpression)
+	{
+		/*
+		 * Finds an expression by its infix text.
+		 * Caller Requirements: infixExpression must be non-null
+		 * Caller Expectations: The entry of an expression with exactly the same text is returned, or -1 if there is none. When several ids have the
+		 * 		same text any one of them is returned. Nothing is allocated
+		 */
+		int hash = hash(infixExpression);
+		for(int slot = slotOf(hash, this.hashTableSize); ; slot = (slot + 1) & (this.hashTableSize - 1))
+		{
+			int entry = this.buffer.getInt(this.hashTableOffset + 4 * slot) - 1;
+			if(entry < 0)
+				return -1;
+			if(this.buffer.getInt(entryOffset(entry) + 12) == hash && this.textEquals(this.getInfixOffset(entry), infixExpression))
+				return entry;
+		}
+	}
+
+	public long getId(int entry)
+	{
+		//Returns the id of an entry
+		return this.buffer.getLong(this.checkedEntryOffset(entry));
+	}
+
+	public String getInfixExpression(int entry)
+	{
+		//Returns the infix text of an entry
+		return this.readText(this.getInfixOffset(entry));
+	}
+
+	public int getVariableCount(int entry)
+	{
+		//Returns how many variables the expression of an entry has, the length of the arrays given to evaluate()
+		return this.buffer.getInt(this.getRecordOffset(entry) + 8);
+	}
+
+	public String[] getVariableNames(int entry)
+	{
+		//Returns the names of the variables of an entry in the order their values are given to evaluate()
+		String[] names = new String[this.getVariableCount(entry)];
+		int offset = this.getInfixOffset(entry);
+		for(int i = 0; i < names.length; i ++)
+		{
+			offset = this.skipText(offset);
+			names[i] = this.readText(offset);
+		}
+		return names;
+	}
+
+	public int evaluate(int entry) throws ArithmeticException
+	{
+		//Evaluates an entry without variables using a new value stack. See evaluate(int, LongStack, long[])
+		return this.evaluate(entry, new LongStack(), NO_VARIABLES);
+	}
+
+	public int evaluate(int entry, LongStack valueStack, long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression of an entry where it is stored in the file.
+		 * Caller Requirements: entry must be from 0 to size() - 1. Same as CompiledExpression.evaluate(LongStack, long[]) for the other arguments
+		 * Caller Expectations: Same result and exceptions as evaluating getCompiledExpression(entry). Nothing is allocated unless the evaluation fails
+		 *
+		 * This is the interpreter loop of CompiledExpression reading the instructions and constants from the buffer instead of from arrays.
+		 */
+		ByteBuffer buffer = this.buffer;
+		int record = this.getRecordOffset(entry);
+		int instructionCount = buffer.getInt(record);
+		int variableCount = buffer.getInt(record + 8);
+		int maxStackDepth = buffer.getInt(record + 16);
+		int slotCount = buffer.getInt(record + 20);
+		CompiledExpression.checkMode(modeOf(buffer.getInt(record + 24)), NumericMode.INT32);
+		if(variableValues.length < variableCount)
+			throw new IllegalArgumentException("The expression needs values for " + variableCount + " variables but " + variableValues.length + " were given");
+		int instructionOffset = record + RECORD_HEADER_SIZE;
+		int constantOffset = instructionOffset + 4 * instructionCount;
+		valueStack.clear();
+		valueStack.ensureCapacity(slotCount + maxStackDepth);
+		for(int slot = 0; slot < slotCount; slot ++)
+			valueStack.push(0);
+		for(int i = 0; i < instructionCount; i ++)
+		{
+			int instruction = buffer.getInt(instructionOffset + 4 * i);
+			int opcode = instruction & CompiledExpression.OPCODE_MASK;
+			int operand = instruction >>> CompiledExpression.OPERAND_SHIFT;
+			long result;
+			switch(opcode)
+			{
+			case CompiledExpression.OP_VALUE:
+				valueStack.push(buffer.getLong(constantOffset + 8 * operand));
+				continue;
+			case CompiledExpression.OP_VARIABLE:
+				result = variableValues[operand];
+				if(result > Integer.MAX_VALUE || result < Integer.MIN_VALUE)		//The names are only read for the message
+					CompiledExpression.variableValue(this.getVariableNames(entry), operand, result);
+				valueStack.push(result);
+				continue;
+			case CompiledExpression.OP_LOAD:
+				valueStack.push(valueStack.get(operand));
+				continue;
+			case CompiledExpression.OP_STORE:
+				valueStack.set(operand, valueStack.peek());
+				continue;
+			case CompiledExpression.OP_OVERSIZED_VALUE:
+				throw CompiledExpression.operandTooLarge();
+			case CompiledExpression.OP_SQUARE_ROOT:
+				result = CompiledExpression.squareRoot(valueStack.pop());
+				break;
+			case CompiledExpression.OP_CUBE_ROOT:
+				result = CompiledExpression.cubeRoot(valueStack.pop());
+				break;
+			default:
+				long secondOperand = valueStack.pop();
+				result = CompiledExpression.applyBinaryOperator(opcode, valueStack.pop(), secondOperand);
+				break;
+			}
+			if(result > Integer.MAX_VALUE || result < Integer.MIN_VALUE)
+				throw CompiledExpression.overflow(opcode);
+			valueStack.push(result);
+		}
+		return (int)valueStack.pop();
+	}
+
+	public CompiledExpression getCompiledExpression(int entry)
+	{
+		/*
+		 * Copies the expression of an entry out of the file, for callers that need a CompiledExpression such as ExpressionOptimizer or
+		 * 		ParallelEvaluator. Use evaluate() to evaluate without copying anything
+		 */
+		ByteBuffer buffer = this.buffer;
+		int record = this.getRecordOffset(entry);
+		int[] instructions = new int[buffer.getInt(record)];
+		long[] constants = new long[buffer.getInt(record + 4)];
+		int oversizedCount = buffer.getInt(record + 12);
+		int offset = record + RECORD_HEADER_SIZE;
+		for(int i = 0; i < instructions.length; i ++, offset += 4)
+			instructions[i] = buffer.getInt(offset);
+		for(int i = 0; i < constants.length; i ++, offset += 8)
+			constants[i] = buffer.getLong(offset);
+		String[] variableNames = this.getVariableNames(entry);
+		offset = this.skipText(offset);						//The infix text
+		for(int i = 0; i < variableNames.length; i ++)
+			offset = this.skipText(offset);
+		String[] oversizedLiterals = oversizedCount == 0 ? null : new String[oversizedCount];
+		for(int i = 0; i < oversizedCount; i ++)
+		{
+			oversizedLiterals[i] = this.readText(offset);
+			offset = this.skipText(offset);
+		}
+		return new CompiledExpression(instructions, constants, oversizedLiterals, variableNames, buffer.getInt(record + 16), buffer.getInt(record + 20),
+				modeOf(buffer.getInt(record + 24)));
+	}
+
+	static int hash(CharSequence text)
+	{
+		//Hash of the infix text stored in the file. The same as String.hashCode() so it does not depend on the JVM that wrote the file
+		int hash = 0;
+		for(int i = 0; i < text.length(); i ++)
+			hash = 31 * hash + text.charAt(i);
+		return hash;
+	}
+
+	static int modeCode(NumericMode optimizedMode)
+	{
+		//Returns how the mode an expression was optimized for is stored in its record, 0 for an expression that is not optimized
+		return optimizedMode == null ? 0 : optimizedMode.ordinal() + 1;
+	}
+
+	private static NumericMode modeOf(int modeCode)
+	{
+		//Reverse of modeCode()
+		return modeCode == 0 ? null : NumericMode.values()[modeCode - 1];
+	}
+
+	static int slotOf(int hash, int hashTableSize)
+	{
+		//Returns the first hash table slot probed for a hash. The high bits are mixed in because texts that differ at the end differ in the low bits
+		return (hash ^ (hash >>> 16)) & (hashTableSize - 1);
+	}
+
+	private static int entryOffset(int entry)
+	{
+		return HEADER_SIZE + entry * ENTRY_SIZE;
+	}
+
+	private int checkedEntryOffset(int entry)
+	{
+		if(entry < 0 || entry >= this.entryCount)
+			throw new IndexOutOfBoundsException("Entry " + entry + " is not in a library of " + this.entryCount + " expressions");
+		return entryOffset(entry);
+	}
+
+	private int getRecordOffset(int entry)
+	{
+		return this.buffer.getInt(this.checkedEntryOffset(entry) + 8);
+	}
+
+	private int getInfixOffset(int entry)
+	{
+		//Returns the offset of the infix text of an entry, which follows the instructions and constants
+		int record = this.getRecordOffset(entry);
+		return record + RECORD_HEADER_SIZE + 4 * this.buffer.getInt(record) + 8 * this.buffer.getInt(record + 4);
+	}
+
+	private int skipText(int offset)
+	{
+		//Returns the offset after the text at offset
+		return offset + 4 + 2 * this.buffer.getInt(offset);
+	}
+
+	private String readText(int offset)
+	{
+		char[] text = new char[this.buffer.getInt(offset)];
+		for(int i = 0; i < text.length; i ++)
+			text[i] = this.buffer.getChar(offset + 4 + 2 * i);
+		return new String(text);
+	}
+
+	private boolean textEquals(int offset, CharSequence text)
+	{
+		//Determines if the text at offset is the same as text
+		int length = this.buffer.getInt(offset);
+		if(length != text.length())
+			return false;
+		for(int i = 0; i < length; i ++)
+			if(this.buffer.getChar(offset + 4 + 2 * i) != text.charAt(i))
+				return false;
+		return true;
+	}
+
+	static final int MAGIC = 0x4558504C;				//"EXPL"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 24;
+	static final int ENTRY_SIZE = 16;
+	static final int RECORD_HEADER_SIZE = 28;
+	static final long MAX_SIZE = Integer.MAX_VALUE;	//Largest buffer that can be mapped at once
+	private static final long[] NO_VARIABLES = new long[0];
+
+	private final ByteBuffer buffer;				//The whole file, only read with absolute gets so threads do not share a position
+	private final int entryCount;
+	private final int hashTableSize;				//Amount of slots, a power of two
+	private final int hashTableOffset;
+}
@@ -0,0 +1,206 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class builds an expression library file, see ExpressionLibrary for the format. Expressions are converted once when they are added, so a
+ * process that opens the library later does not convert anything before it can evaluate them. Building a library is meant to be done offline, the
+ * writer keeps every compiled expression in memory until write() is called.
+ */
+package expression;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+
+public final class ExpressionLibraryWriter
+{
+	public ExpressionLibraryWriter()
+	{
+		this.converter = new PostfixNotationCreator();
+		this.entries = new ArrayList<Entry>();
+		this.ids = new HashSet<Long>();
+	}
+
+	public void add(long id, String infixExpression) throws InvalidTokenException
+	{
+		/*
+		 * Converts an infix expression and adds it to the library.
+		 * Caller Requirements: infixExpression must be non-null
+		 * Caller Expectations: If the expression is invalid an InvalidTokenException with the same message as processInfixExpression() is thrown and
+		 * 		nothing is added. An IllegalArgumentException is thrown if id was already added
+		 */
+		this.converter.clearExpression();
+		this.converter.processInfixExpression(infixExpression);
+		this.add(id, infixExpression, this.converter.getCompiledExpression());
+	}
+
+	public void add(long id, String infixExpression, CompiledExpression expression)
+	{
+		/*
+		 * Adds an expression that is already compiled, for example one optimized by ExpressionOptimizer. An expression optimized for another mode than
+		 * 		INT32 can only be evaluated through ExpressionLibrary.getCompiledExpression()
+		 * Caller Requirements: infixExpression and expression must be non-null, expression must be the compiled form of infixExpression
+		 * Caller Expectations: An IllegalArgumentException is thrown if id was already added
+		 */
+		if(!this.ids.add(id))
+			throw new IllegalArgumentException("The id " + id + " was already added");
+		this.entries.add(new Entry(id, infixExpression, expression));
+	}
+
+	public int size()
+	{
+		//Returns how many expressions were added
+		return this.entries.size();
+	}
+
+	public void write(String fileName) throws IOException
+	{
+		//Writes the library to a file, replacing it if it exists. See write(OutputStream)
+		OutputStream output = new FileOutputStream(fileName);
+		try
+		{
+			this.write(output);
+		}
+		finally
+		{
+			output.close();
+		}
+	}
+
+	public void write(OutputStream output) throws IOException
+	{
+		/*
+		 * Writes the library in the current format version.
+		 * Caller Requirements: output must be non-null. It is flushed but not closed
+		 * Caller Expectations: Every expression added so far is written. An IOException is thrown if the library would be larger than
+		 * 		ExpressionLibrary.MAX_SIZE bytes or if output throws one
+		 */
+		Entry[] sorted = this.entries.toArray(new Entry[this.entries.size()]);
+		Arrays.sort(sorted, new Comparator<Entry>()
+		{
+			@Override
+			public int compare(Entry first, Entry second)
+			{
+				return Long.compare(first.id, second.id);
+			}
+		});
+		int entryCount = sorted.length;
+		int hashTableSize = Integer.highestOneBit(Math.max(2 * entryCount, 1)) << 1;	//Less than half full so the probes stay short
+		long dataOffset = ExpressionLibrary.HEADER_SIZE + (long)entryCount * ExpressionLibrary.ENTRY_SIZE + 4L * hashTableSize;
+		long offset = dataOffset;
+		int[] recordOffsets = new int[entryCount];
+		for(int i = 0; i < entryCount; i ++)
+		{
+			if(offset > ExpressionLibrary.MAX_SIZE)
+				break;
+			recordOffsets[i] = (int)offset;
+			offset += sorted[i].getRecordSize();
+		}
+		if(offset > ExpressionLibrary.MAX_SIZE)
+			throw new IOException("The expression library would be larger than " + ExpressionLibrary.MAX_SIZE + " bytes");
+
+		//Entry i is stored in the hash table as i + 1 so 0 is an empty slot
+		int[] hashTable = new int[hashTableSize];
+		for(int i = 0; i < entryCount; i ++)
+		{
+			int slot = ExpressionLibrary.slotOf(sorted[i].infixHash, hashTableSize);
+			while(hashTable[slot] != 0)
+				slot = (slot + 1) & (hashTableSize - 1);
+			hashTable[slot] = i + 1;
+		}
+
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+		data.writeInt(ExpressionLibrary.MAGIC);
+		data.writeInt(ExpressionLibrary.VERSION);
+		data.writeInt(entryCount);
+		data.writeInt(hashTableSize);
+		data.writeInt((int)dataOffset);
+		data.writeInt((int)offset);
+		for(int i = 0; i < entryCount; i ++)
+		{
+			data.writeLong(sorted[i].id);
+			data.writeInt(recordOffsets[i]);
+			data.writeInt(sorted[i].infixHash);
+		}
+		for(int i = 0; i < hashTableSize; i ++)
+			data.writeInt(hashTable[i]);
+		for(int i = 0; i < entryCount; i ++)
+			sorted[i].writeRecord(data);
+		data.flush();
+	}
+
+	private static final class Entry
+	{
+		Entry(long id, String infixExpression, CompiledExpression expression)
+		{
+			this.id = id;
+			this.infixExpression = infixExpression;
+			this.infixHash = ExpressionLibrary.hash(infixExpression);
+			this.expression = expression;
+		}
+
+		long getRecordSize()
+		{
+			//Returns how many bytes writeRecord() writes
+			CompiledExpression expression = this.expression;
+			long size = ExpressionLibrary.RECORD_HEADER_SIZE + 4L * expression.instructions.length + 8L * expression.constants.length
+					+ textSize(this.infixExpression);
+			for(String name : expression.variableNames)
+				size += textSize(name);
+			if(expression.oversizedLiterals != null)
+				for(String literal : expression.oversizedLiterals)
+					size += textSize(literal);
+			return size;
+		}
+
+		void writeRecord(DataOutputStream data) throws IOException
+		{
+			//Writes the record of the expression. The layout is described in ExpressionLibrary
+			CompiledExpression expression = this.expression;
+			data.writeInt(expression.instructions.length);
+			data.writeInt(expression.constants.length);
+			data.writeInt(expression.variableNames.length);
+			data.writeInt(expression.oversizedLiterals == null ? 0 : expression.oversizedLiterals.length);
+			data.writeInt(expression.maxStackDepth);
+			data.writeInt(expression.slotCount);
+			data.writeInt(ExpressionLibrary.modeCode(expression.optimizedMode));
+			for(int instruction : expression.instructions)
+				data.writeInt(instruction);
+			for(long constant : expression.constants)
+				data.writeLong(constant);
+			writeText(data, this.infixExpression);
+			for(String name : expression.variableNames)
+				writeText(data, name);
+			if(expression.oversizedLiterals != null)		//Null when every literal fits in a long
+				for(String literal : expression.oversizedLiterals)
+					writeText(data, literal);
+		}
+
+		private static long textSize(String text)
+		{
+			return 4 + 2L * text.length();
+		}
+
+		private static void writeText(DataOutputStream data, String text) throws IOException
+		{
+			//Writes the length followed by the chars, the same chars as the String so the text can be compared exactly when it is read
+			data.writeInt(text.length());
+			data.writeChars(text);
+		}
+
+		final long id;
+		final String infixExpression;
+		final int infixHash;
+		final CompiledExpression expression;
+	}
+
+	private final PostfixNotationCreator converter;		//Converts the expressions given to add(long, String)
+	private final ArrayList<Entry> entries;				//In the order they were added, sorted by id when written
+	private final HashSet<Long> ids;					//Ids added so far
+}
@@ -0,0 +1,262 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class counts what the converters and evaluations given to it do: expressions converted, tokens and operators by type, the deepest evaluation
+ * stack, failures by reason, and histograms of how long conversion and evaluation take. It is given to a PostfixNotationCreator with setMetrics() or to
+ * the constructors of ExpressionService, BatchEvaluator and ExpressionServer, and any amount of threads can record into one instance at once.
+ * Converters without metrics only test a field for null, so leaving metrics off costs nothing measurable.
+ *
+ * When the running JVM has Flight Recorder (package jdk.jfr), every conversion and evaluation is also committed as a JFR event with the shape of the
+ * expression, so slow requests in a recording can be matched to the expressions that caused them. The events only cost a check while no recording is
+ * running. The event classes are in JfrEventSink, which is only loaded by name so this class also runs on JVMs without Flight Recorder. JfrEventSink is
+ * in the src-jfr folder, which is only compiled on JDK 11 and later so the rest builds on any JDK 8; without it there are simply no events.
+ */
+package expression;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ExpressionMetrics
+{
+	public ExpressionMetrics()
+	{
+		this.expressions = new LongAdder();
+		this.tokens = new LongAdder();
+		this.operators = newCounters(CompiledExpression.OP_CUBE_ROOT + 1);
+		this.maxStackDepth = new AtomicInteger();
+		this.conversionFailures = newCounters(ConversionError.values().length);
+		this.evaluations = new LongAdder();
+		this.evaluationFailures = newCounters(EvaluationFailure.values().length);
+		this.conversionLatency = new LatencyHistogram();
+		this.evaluationLatency = new LatencyHistogram();
+		this.events = loadEventSink();
+	}
+
+	public long getExpressionCount()
+	{
+		//Returns the amount of expressions converted, valid or not
+		return this.expressions.sum();
+	}
+
+	public long getTokenCount()
+	{
+		//Returns the amount of values, variables and operators in the expressions converted successfully. Parentheses are not counted
+		return this.tokens.sum();
+	}
+
+	public long getOperatorCount(char operator)
+	{
+		//Returns how often an operator (+, -, *, /, ^, <, >, %, Q or C) was in the expressions converted successfully, 0 for any other character
+		for(int opcode = CompiledExpression.OP_ADD; opcode <= CompiledExpression.OP_CUBE_ROOT; opcode ++)
+			if(CompiledExpression.symbolOf(opcode) == operator)
+				return this.operators[opcode].sum();
+		return 0;
+	}
+
+	public int getMaxStackDepth()
+	{
+		//Returns the deepest evaluation stack any converted expression needs
+		return this.maxStackDepth.get();
+	}
+
+	public long getConversionFailureCount(ConversionError error)
+	{
+		//Returns the amount of expressions that were invalid for the given reason
+		return this.conversionFailures[error.ordinal()].sum();
+	}
+
+	public long getUnbalancedParenthesisCount()
+	{
+		//Returns the amount of expressions with a closing parenthesis that was not opened or an opening parenthesis that was not closed
+		return this.getConversionFailureCount(ConversionError.UNMATCHED_CLOSING_PARENTHESIS)
+				+ this.getConversionFailureCount(ConversionError.UNMATCHED_OPENING_PARENTHESIS);
+	}
+
+	public long getInvalidTokenCount()
+	{
+		//Returns the amount of expressions that were invalid for any reason other than unbalanced parentheses
+		long count = 0;
+		for(LongAdder failures : this.conversionFailures)
+			count += failures.sum();
+		return count - this.getUnbalancedParenthesisCount();
+	}
+
+	public long getEvaluationCount()
+	{
+		//Returns the amount of evaluations, successful or not
+		return this.evaluations.sum();
+	}
+
+	public long getEvaluationFailureCount(EvaluationFailure failure)
+	{
+		//Returns the amount of evaluations that threw an ArithmeticException for the given reason
+		return this.evaluationFailures[failure.ordinal()].sum();
+	}
+
+	public LatencyHistogram getConversionLatency()
+	{
+		//Returns the histogram of the time taken by conversions, valid or not
+		return this.conversionLatency;
+	}
+
+	public LatencyHistogram getEvaluationLatency()
+	{
+		//Returns the histogram of the time taken by evaluations, successful or not
+		return this.evaluationLatency;
+	}
+
+	public void writeReport(Appendable output) throws IOException
+	{
+		/*
+		 * Writes every counter and the percentiles of both histograms as a few lines of text.
+		 * Caller Expectations: Recording may go on during the call, the counters are not read at one instant
+		 */
+		output.append("expressions ").append(Long.toString(this.getExpressionCount())).append(", tokens ").append(Long.toString(this.getTokenCount()))
+				.append(", evaluations ").append(Long.toString(this.getEvaluationCount())).append(", max stack depth ")
+				.append(Integer.toString(this.getMaxStackDepth())).append('\n');
+		output.append("operators");
+		for(int opcode = CompiledExpression.OP_ADD; opcode <= CompiledExpression.OP_CUBE_ROOT; opcode ++)
+			output.append(' ').append(CompiledExpression.symbolOf(opcode)).append(' ').append(Long.toString(this.operators[opcode].sum()));
+		output.append('\n');
+		output.append("invalid: unbalanced parenthesis ").append(Long.toString(this.getUnbalancedParenthesisCount())).append(", invalid token ")
+				.append(Long.toString(this.getInvalidTokenCount())).append('\n');
+		output.append("failed:");
+		for(EvaluationFailure failure : EvaluationFailure.values())
+			output.append(' ').append(failure.name().toLowerCase().replace('_', ' ')).append(' ').append(Long.toString(this.getEvaluationFailureCount(failure)));
+		output.append('\n');
+		writePercentiles(output, "conversion", this.conversionLatency);
+		writePercentiles(output, "evaluation", this.evaluationLatency);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder report = new StringBuilder();
+		try
+		{
+			this.writeReport(report);
+		}
+		catch(IOException e)
+		{//A StringBuilder does not throw
+		}
+		return report.toString();
+	}
+
+	void recordConversion(int[] instructions, int instructionCount, int maxStackDepth, int variableCount, int length, long nanos)
+	{
+		//Records a successful conversion of length characters into the given instructions
+		int operatorCount = 0;
+		for(int i = 0; i < instructionCount; i ++)
+		{
+			int opcode = instructions[i] & CompiledExpression.OPCODE_MASK;
+			if(opcode >= CompiledExpression.OP_ADD && opcode <= CompiledExpression.OP_CUBE_ROOT)
+			{
+				this.operators[opcode].increment();
+				operatorCount++;
+			}
+		}
+		this.expressions.increment();
+		this.tokens.add(instructionCount);
+		int deepest;
+		while(maxStackDepth > (deepest = this.maxStackDepth.get()) && !this.maxStackDepth.compareAndSet(deepest, maxStackDepth));
+		this.conversionLatency.record(nanos);
+		if(this.events != null)
+			this.events.conversion(length, instructionCount, operatorCount, maxStackDepth, variableCount, null, nanos);
+	}
+
+	void recordConversionFailure(ConversionError error, int length, long nanos)
+	{
+		//Records a conversion of length characters that found the expression invalid
+		this.expressions.increment();
+		this.conversionFailures[error.ordinal()].increment();
+		this.conversionLatency.record(nanos);
+		if(this.events != null)
+			this.events.conversion(length, 0, 0, 0, 0, error.name(), nanos);
+	}
+
+	void recordEvaluation(int instructionCount, int maxStackDepth, ArithmeticException failure, long nanos)
+	{
+		//Records an evaluation of the given instructions. failure is the exception it threw, null if it was successful
+		this.evaluations.increment();
+		String reason = null;
+		if(failure != null)
+		{
+			EvaluationFailure kind = EvaluationFailure.of(failure);
+			this.evaluationFailures[kind.ordinal()].increment();
+			reason = kind.name();
+		}
+		this.evaluationLatency.record(nanos);
+		if(this.events != null)
+			this.events.evaluation(instructionCount, maxStackDepth, reason, nanos);
+	}
+
+	int evaluate(CompiledExpression expression, LongStack stack, long[] variableValues) throws ArithmeticException
+	{
+		//Evaluates a compiled expression and records it. Same result and exceptions as CompiledExpression.evaluate(LongStack, long[])
+		long startTime = System.nanoTime();
+		try
+		{
+			int value = expression.evaluate(stack, variableValues);
+			this.recordEvaluation(expression.getInstructionCount(), expression.getMaxStackDepth(), null, System.nanoTime() - startTime);
+			return value;
+		}
+		catch(ArithmeticException e)
+		{
+			this.recordEvaluation(expression.getInstructionCount(), expression.getMaxStackDepth(), e, System.nanoTime() - startTime);
+			throw e;
+		}
+	}
+
+	private static void writePercentiles(Appendable output, String phase, LatencyHistogram histogram) throws IOException
+	{
+		//Writes one line with the percentiles of a histogram
+		output.append(phase).append(" ns (upper bounds):");
+		for(double fraction : REPORTED_PERCENTILES)
+			output.append(" p").append(Double.toString(fraction * 100).replace(".0", "")).append(' ').append(Long.toString(histogram.getPercentile(fraction)));
+		output.append(" of ").append(Long.toString(histogram.getCount())).append('\n');
+	}
+
+	private static LongAdder[] newCounters(int count)
+	{
+		LongAdder[] counters = new LongAdder[count];
+		for(int i = 0; i < count; i ++)
+			counters[i] = new LongAdder();
+		return counters;
+	}
+
+	private static EventSink loadEventSink()
+	{
+		//Creates the JFR event sink, or returns null when this JVM has no Flight Recorder or the build left the sink out
+		try
+		{
+			return (EventSink)Class.forName("expression.JfrEventSink").getDeclaredConstructor().newInstance();
+		}
+		catch(ReflectiveOperationException | LinkageError e)		//jdk.jfr is missing, so JfrEventSink cannot be loaded
+		{
+			return null;
+		}
+	}
+
+	abstract static class EventSink
+	{
+		//Receives every recorded conversion and evaluation. error and failure are the names of the reason an expression failed, null if it did not
+		abstract void conversion(int length, int instructionCount, int operatorCount, int maxStackDepth, int variableCount, String error, long nanos);
+
+		abstract void evaluation(int instructionCount, int maxStackDepth, String failure, long nanos);
+	}
+
+	private static final double[] REPORTED_PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private final LongAdder expressions;			//Conversions, valid or not
+	private final LongAdder tokens;					//Instructions of the valid expressions
+	private final LongAdder[] operators;			//Operators of the valid expressions, indexed by opcode
+	private final AtomicInteger maxStackDepth;		//Largest stack depth of any valid expression
+	private final LongAdder[] conversionFailures;	//Invalid expressions, indexed by ConversionError ordinal
+	private final LongAdder evaluations;			//Evaluations, successful or not
+	private final LongAdder[] evaluationFailures;	//Failed evaluations, indexed by EvaluationFailure ordinal
+	private final LatencyHistogram conversionLatency;
+	private final LatencyHistogram evaluationLatency;
+	private final EventSink events;					//JFR events, null when Flight Recorder is not available
+}
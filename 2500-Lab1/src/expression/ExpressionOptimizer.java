@@ -0,0 +1,367 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is an optional stage between conversion and evaluation. It turns a compiled expression into an equivalent one that is cheaper to evaluate:
+ * 		-Subexpressions made only of constants are computed once here (constant folding)
+ * 		-Identical subexpressions are computed once per evaluation and their value kept in a slot (common subexpression elimination)
+ * 		-Operators that do not change their operand are removed (x*1, 1*x, x+0, 0+x, x-0, x/1, x^1, x<<0, x>>0)
+ * The optimized expression gives the same result and throws the same exception as the original one for every input. A constant subexpression that
+ * would overflow or divide by zero is not folded, so it still throws when the expression is evaluated.
+ *
+ * Constants are folded with the arithmetic of one NumericMode, 7/2 is 3 with integers and 3.5 with doubles, so the optimized expression records that
+ * mode and can only be evaluated in it. A folded value is only kept when the mode would compute exactly that value from the constant, otherwise the
+ * operator is left for the evaluation.
+ */
+package expression;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class ExpressionOptimizer
+{
+	private ExpressionOptimizer(CompiledExpression expression, NumericMode mode)
+	{
+		//Created only by optimize(). Room for one node per instruction is enough since every instruction creates at most one node
+		int capacity = Math.max(expression.instructions.length, 1);
+		this.expression = expression;
+		this.mode = mode;
+		this.nodeOpcodes = new int[capacity];
+		this.nodeFirst = new int[capacity];
+		this.nodeSecond = new int[capacity];
+		this.nodeValues = new long[capacity];
+		this.nodeIndexes = new HashMap<NodeKey, Integer>();
+	}
+
+	public static CompiledExpression optimize(CompiledExpression expression)
+	{
+		//Returns an optimized copy of an expression for the INT32 mode, the mode of CompiledExpression.evaluate(). See optimize(CompiledExpression, NumericMode)
+		return optimize(expression, NumericMode.INT32);
+	}
+
+	public static CompiledExpression optimize(CompiledExpression expression, NumericMode mode)
+	{
+		/*
+		 * Returns an optimized copy of an expression that is evaluated in mode.
+		 *
+		 * Caller Requirements: expression and mode must be non-null. Expressions that were already optimized for mode are returned as they are
+		 * Caller Expectations: The returned expression has the same variables in the same order, the same result and the same exceptions as expression
+		 * 		when both are evaluated in mode. Evaluating it in another mode throws an IllegalArgumentException, see CompiledExpression.getOptimizedMode().
+		 * 		An IllegalArgumentException is thrown if expression was optimized for another mode. Its post-fix rendering shows the folded and simplified
+		 * 		form
+		 *
+		 * The post-fix instructions are turned into a graph of nodes where identical subexpressions are the same node, while folding and simplifying
+		 * 		every node as it is created. The graph is then written back as instructions in the original evaluation order. A node with more than one
+		 * 		user is stored in a slot after it is first computed and loaded everywhere else.
+		 */
+		if(expression.optimizedMode != null)
+		{
+			expression.checkMode(mode);
+			return expression;
+		}
+		ExpressionOptimizer optimizer = new ExpressionOptimizer(expression, mode);
+		int root = optimizer.buildGraph();
+		return optimizer.writeInstructions(root);
+	}
+
+	private int buildGraph()
+	{
+		//Creates the nodes of the expression and returns the root node. Works like evaluating the expression with nodes instead of values
+		int[] instructions = this.expression.instructions;
+		int[] stack = new int[this.expression.maxStackDepth];
+		int top = -1;
+		for(int i = 0; i < instructions.length; i ++)
+		{
+			int opcode = instructions[i] & CompiledExpression.OPCODE_MASK;
+			int operand = instructions[i] >>> CompiledExpression.OPERAND_SHIFT;
+			switch(opcode)
+			{
+			case CompiledExpression.OP_VALUE:
+			case CompiledExpression.OP_OVERSIZED_VALUE:
+				stack[++top] = this.node(opcode, -1, -1, this.expression.constants[operand]);
+				break;
+			case CompiledExpression.OP_VARIABLE:
+				stack[++top] = this.node(opcode, -1, -1, operand);
+				break;
+			case CompiledExpression.OP_SQUARE_ROOT:
+			case CompiledExpression.OP_CUBE_ROOT:
+				stack[top] = this.unaryNode(opcode, stack[top]);
+				break;
+			default:
+				top--;
+				stack[top] = this.binaryNode(opcode, stack[top], stack[top + 1]);
+				break;
+			}
+		}
+		return stack[0];
+	}
+
+	private int unaryNode(int opcode, int operand)
+	{
+		//Returns the node of a unary operator, folded when its operand is a constant and the mode's root of it can be kept as a constant
+		if(this.isConstant(operand))
+		{
+			int folded = this.foldUnary(opcode, this.nodeValues[operand]);
+			if(folded >= 0)
+				return folded;
+		}
+		return this.node(opcode, operand, -1, 0);
+	}
+
+	private int binaryNode(int opcode, int first, int second)
+	{
+		//Returns the node of a binary operator, folded when both operands are constants and simplified when the operator does not change an operand
+		if(this.isConstant(first) && this.isConstant(second))
+		{
+			int folded = this.foldBinary(opcode, this.nodeValues[first], this.nodeValues[second]);
+			if(folded >= 0)
+				return folded;
+			return this.node(opcode, first, second, 0);		//Overflows or divides by zero, leave it so it throws when evaluated
+		}
+		//Every value on the stack is already one the mode can hold, so removing an operator that returns its operand cannot hide an overflow. Adding 0
+		//to a double is not removed, it turns -0.0 into 0.0
+		boolean keepsAddedZero = this.mode == NumericMode.DOUBLE;
+		if(this.isConstant(second))
+		{
+			long value = this.nodeValues[second];
+			switch(opcode)
+			{
+			case CompiledExpression.OP_ADD:
+				if(value == 0 && !keepsAddedZero)
+					return first;
+				break;
+			case CompiledExpression.OP_SUBTRACT:
+			case CompiledExpression.OP_SHIFT_LEFT:
+			case CompiledExpression.OP_SHIFT_RIGHT:
+				if(value == 0)
+					return first;
+				break;
+			case CompiledExpression.OP_MULTIPLY:
+			case CompiledExpression.OP_DIVIDE:
+			case CompiledExpression.OP_POWER:
+				if(value == 1)
+					return first;
+				break;
+			}
+		}
+		if(this.isConstant(first))
+		{
+			long value = this.nodeValues[first];
+			if((opcode == CompiledExpression.OP_ADD && value == 0 && !keepsAddedZero) || (opcode == CompiledExpression.OP_MULTIPLY && value == 1))
+				return second;
+		}
+		return this.node(opcode, first, second, 0);
+	}
+
+	private int foldUnary(int opcode, long value)
+	{
+		//Returns the constant node of a root computed the way the mode computes it, or -1 if the result cannot be kept as a constant
+		boolean squareRoot = opcode == CompiledExpression.OP_SQUARE_ROOT;
+		switch(this.mode)
+		{
+		case BIG_INTEGER:
+			BigInteger operand = BigInteger.valueOf(value);
+			return this.constantNode((squareRoot ? NumericEvaluator.squareRoot(operand) : NumericEvaluator.cubeRoot(operand)).longValue());
+		case DOUBLE:
+			return this.doubleNode(squareRoot ? Math.sqrt(value) : Math.cbrt(value));
+		default:										//The root of a long is always in range, and the root of an integer is an integer
+			return this.constantNode(squareRoot ? CompiledExpression.squareRoot(value) : CompiledExpression.cubeRoot(value));
+		}
+	}
+
+	private int foldBinary(int opcode, long firstValue, long secondValue)
+	{
+		//Returns the constant node of a binary operator computed the way the mode computes it, or -1 if it throws or the result cannot be kept as a constant
+		try
+		{
+			switch(this.mode)
+			{
+			case INT64:
+				return this.constantNode(NumericEvaluator.applyExact(opcode, firstValue, secondValue));
+			case BIG_INTEGER:
+				BigInteger result = NumericEvaluator.apply(opcode, BigInteger.valueOf(firstValue), BigInteger.valueOf(secondValue));
+				return result.bitLength() < Long.SIZE ? this.constantNode(result.longValue()) : -1;
+			case DOUBLE:
+				return this.doubleNode(NumericEvaluator.applyDouble(opcode, firstValue, secondValue));
+			default:
+				long value = CompiledExpression.applyBinaryOperator(opcode, firstValue, secondValue);
+				return value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE ? this.constantNode(value) : -1;
+			}
+		}
+		catch(ArithmeticException e)
+		{//Overflows, divides by zero or a power does not fit in a long
+			return -1;
+		}
+	}
+
+	private int doubleNode(double value)
+	{
+		//Returns the constant node of a double that a long constant gives back exactly when it is evaluated, or -1. -0.0 would be evaluated as 0.0
+		if((double)(long)value != value || (value == 0 && 1 / value < 0))
+			return -1;
+		return this.constantNode((long)value);
+	}
+
+	private boolean isConstant(int node)
+	{
+		//OP_OVERSIZED_VALUE nodes are not constants, evaluating them throws an exception in the INT32 mode and they are too large to fold in the others
+		return this.nodeOpcodes[node] == CompiledExpression.OP_VALUE;
+	}
+
+	private int constantNode(long value)
+	{
+		return this.node(CompiledExpression.OP_VALUE, -1, -1, value);
+	}
+
+	private int node(int opcode, int first, int second, long value)
+	{
+		//Returns the node with the given contents, creating it if there is none yet. Identical subexpressions therefore share a node
+		NodeKey key = new NodeKey(opcode, first, second, value);
+		Integer existing = this.nodeIndexes.get(key);
+		if(existing != null)
+			return existing;
+		if(this.nodeCount == this.nodeOpcodes.length)			//Folding can create a node that is not counted by an instruction
+		{
+			int capacity = this.nodeCount * 2;
+			this.nodeOpcodes = Arrays.copyOf(this.nodeOpcodes, capacity);
+			this.nodeFirst = Arrays.copyOf(this.nodeFirst, capacity);
+			this.nodeSecond = Arrays.copyOf(this.nodeSecond, capacity);
+			this.nodeValues = Arrays.copyOf(this.nodeValues, capacity);
+		}
+		int node = this.nodeCount++;
+		this.nodeOpcodes[node] = opcode;
+		this.nodeFirst[node] = first;
+		this.nodeSecond[node] = second;
+		this.nodeValues[node] = value;
+		this.nodeIndexes.put(key, node);
+		return node;
+	}
+
+	private CompiledExpression writeInstructions(int root)
+	{
+		/*
+		 * Writes the nodes reachable from root as post-fix instructions. Nodes are visited in the same order the original instructions computed them,
+		 * 		so the first exception thrown while evaluating is the same. The walk uses its own stack since expressions can be nested far deeper than
+		 * 		the thread stack allows for recursion.
+		 */
+		//Count the users of every node. Operands are always created before their operator, so walking down from the root sees every user of a node first
+		int[] userCounts = new int[this.nodeCount];
+		userCounts[root] = 1;
+		for(int node = root; node >= 0; node --)
+		{
+			if(userCounts[node] == 0 || this.nodeFirst[node] < 0)
+				continue;
+			userCounts[this.nodeFirst[node]]++;
+			if(this.nodeSecond[node] >= 0)
+				userCounts[this.nodeSecond[node]]++;
+		}
+
+		int[] slots = new int[this.nodeCount];					//Slot of a computed node that has more than one user, -1 before it is computed
+		Arrays.fill(slots, -1);
+		int slotCount = 0;
+		int[] instructions = new int[this.expression.instructions.length * 2];
+		int instructionCount = 0;
+		long[] constants = new long[Math.max(this.expression.constants.length, 1)];
+		int constantCount = 0;
+		int depth = 0, maxDepth = 0;
+
+		int[] walkNodes = new int[16], walkStates = new int[16];	//Nodes being written and how many of their operands are written
+		int walkTop = 0;
+		walkNodes[0] = root;
+		while(walkTop >= 0)
+		{
+			int node = walkNodes[walkTop];
+			int opcode = this.nodeOpcodes[node];
+			int instruction = -1;
+			if(walkStates[walkTop] == 0 && slots[node] >= 0)			//Already computed, load it
+				instruction = CompiledExpression.instruction(CompiledExpression.OP_LOAD, slots[node]);
+			else if(opcode == CompiledExpression.OP_VARIABLE)
+				instruction = CompiledExpression.instruction(opcode, (int)this.nodeValues[node]);
+			else if(opcode == CompiledExpression.OP_VALUE || opcode == CompiledExpression.OP_OVERSIZED_VALUE)
+			{
+				if(constantCount == constants.length)
+					constants = Arrays.copyOf(constants, constantCount * 2);
+				constants[constantCount] = this.nodeValues[node];
+				instruction = CompiledExpression.instruction(opcode, constantCount++);
+			}
+			else if(walkStates[walkTop] == 0 || (walkStates[walkTop] == 1 && this.nodeSecond[node] >= 0))
+			{
+				//Write the next operand first
+				int operand = walkStates[walkTop]++ == 0 ? this.nodeFirst[node] : this.nodeSecond[node];
+				if(++walkTop == walkNodes.length)
+				{
+					walkNodes = Arrays.copyOf(walkNodes, walkTop * 2);
+					walkStates = Arrays.copyOf(walkStates, walkTop * 2);
+				}
+				walkNodes[walkTop] = operand;
+				walkStates[walkTop] = 0;
+				continue;
+			}
+			else
+			{
+				instruction = opcode;							//Every operand is written, write the operator
+				depth -= CompiledExpression.isBinaryOperator(opcode) ? 2 : 1;
+			}
+
+			if(instructionCount + 2 > instructions.length)
+				instructions = Arrays.copyOf(instructions, instructions.length * 2 + 2);
+			instructions[instructionCount++] = instruction;
+			if(++depth > maxDepth)
+				maxDepth = depth;
+			boolean computed = (instruction & CompiledExpression.OPCODE_MASK) != CompiledExpression.OP_LOAD;
+			if(computed && userCounts[node] > 1 && opcode > CompiledExpression.OP_VARIABLE)	//Keep operators used more than once
+			{
+				slots[node] = slotCount;
+				instructions[instructionCount++] = CompiledExpression.instruction(CompiledExpression.OP_STORE, slotCount++);
+			}
+			walkTop--;
+		}
+		return new CompiledExpression(Arrays.copyOf(instructions, instructionCount), Arrays.copyOf(constants, constantCount),
+				this.expression.oversizedLiterals, this.expression.variableNames, maxDepth, slotCount, this.mode);
+	}
+
+	/*
+	 * Key of a node. Two nodes with the same opcode, operands and value are the same subexpression
+	 */
+	private static final class NodeKey
+	{
+		NodeKey(int opcode, int first, int second, long value)
+		{
+			this.opcode = opcode;
+			this.first = first;
+			this.second = second;
+			this.value = value;
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			if(!(other instanceof NodeKey))
+				return false;
+			NodeKey key = (NodeKey)other;
+			return this.opcode == key.opcode && this.first == key.first && this.second == key.second && this.value == key.value;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = this.opcode;
+			hash = hash * 31 + this.first;
+			hash = hash * 31 + this.second;
+			return hash * 31 + (int)(this.value ^ (this.value >>> 32));
+		}
+
+		private final int opcode, first, second;
+		private final long value;
+	}
+
+	private final CompiledExpression expression;			//The expression being optimized
+	private final NumericMode mode;							//Mode whose arithmetic folds the constants
+	private int[] nodeOpcodes;								//Opcode of every node
+	private int[] nodeFirst;								//First (or only) operand node of an operator, -1 for values
+	private int[] nodeSecond;								//Second operand node of a binary operator, -1 otherwise
+	private long[] nodeValues;								//Constant of a value, index of a variable
+	private int nodeCount;
+	private final HashMap<NodeKey, Integer> nodeIndexes;	//Node of every distinct subexpression
+}
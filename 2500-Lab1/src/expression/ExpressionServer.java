@@ -0,0 +1,292 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is a TCP server that converts and evaluates infix expressions for clients on the same machine. The protocol is line based: every line a
+ * client sends is an infix expression and every line the server sends back is the post-fix expression and the result separated by a tab, or the error
+ * message, the same as the batch mode writes. Clients may send any amount of lines without waiting for the answers (pipelining); the answers of a
+ * connection are always in the order of its lines.
+ *
+ * Connections are handled by a few event loops, each a thread with its own selector and its own PostfixNotationCreator. An event loop reads whatever a
+ * connection has sent, converts every complete line straight from the read buffer and answers them with a single write. When a client does not read its
+ * answers the loop stops reading from that connection until they are written, so a slow client cannot make the server buffer without limit.
+ */
+package expression;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class ExpressionServer implements Closeable
+{
+	public ExpressionServer(InetSocketAddress address, int loopCount) throws IOException
+	{
+		this(address, loopCount, null);
+	}
+
+	public ExpressionServer(InetSocketAddress address, int loopCount, ExpressionMetrics metrics) throws IOException
+	{
+		this(address, loopCount, NumericMode.INT32, metrics);
+	}
+
+	public ExpressionServer(InetSocketAddress address, int loopCount, NumericMode mode, ExpressionMetrics metrics) throws IOException
+	{
+		/*
+		 * Creates a server listening on address. The connections are not accepted until run() is called.
+		 * Caller Requirements: loopCount must be greater than 0. Port 0 picks a free port, see getPort(). mode must be non-null. metrics may be null
+		 * Caller Expectations: An IOException is thrown if the address cannot be bound. Every expression is evaluated in mode and recorded in metrics
+		 */
+		if(loopCount < 1)
+			throw new IllegalArgumentException("The amount of event loops must be greater than 0");
+		this.serverChannel = ServerSocketChannel.open();
+		this.serverChannel.bind(address);
+		this.loops = new EventLoop[loopCount];
+		this.mode = mode;
+		this.metrics = metrics;
+	}
+
+	public int getPort()
+	{
+		//Returns the port the server listens on
+		return this.serverChannel.socket().getLocalPort();
+	}
+
+	public void run() throws IOException
+	{
+		/*
+		 * Accepts connections until the server is closed. The calling thread only accepts connections, they are handed to the event loops in turn.
+		 * Caller Expectations: Returns when close() is called from another thread. Any other IOException of the server socket is thrown
+		 */
+		for(int i = 0; i < this.loops.length; i ++)
+		{
+			this.loops[i] = new EventLoop(Selector.open(), this.mode, this.metrics);
+			this.loops[i].setName("expression-server-" + i);
+			this.loops[i].setDaemon(true);
+			this.loops[i].start();
+		}
+		try
+		{
+			for(int next = 0; ; next = (next + 1) % this.loops.length)
+			{
+				SocketChannel channel = this.serverChannel.accept();
+				channel.configureBlocking(false);
+				channel.socket().setTcpNoDelay(true);					//Answers are small, send them right away
+				this.loops[next].addConnection(channel);
+			}
+		}
+		catch(ClosedChannelException e)
+		{//close() was called
+		}
+		finally
+		{
+			for(EventLoop loop : this.loops)
+				if(loop != null)
+					loop.shutDown();
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		//Stops accepting connections. run() closes the connections and stops the event loops
+		this.serverChannel.close();
+	}
+
+	private static final class EventLoop extends Thread
+	{
+		EventLoop(Selector selector, NumericMode mode, ExpressionMetrics metrics)
+		{
+			this.selector = selector;
+			this.mode = mode;
+			this.newConnections = new ConcurrentLinkedQueue<SocketChannel>();
+			this.converter = new PostfixNotationCreator();
+			this.converter.setMetrics(metrics);
+			this.view = new AsciiSequence();
+		}
+
+		void addConnection(SocketChannel channel)
+		{
+			//Called by the accepting thread. The channel is registered by the loop itself because registering blocks while the loop is selecting
+			this.newConnections.add(channel);
+			this.selector.wakeup();
+		}
+
+		void shutDown()
+		{
+			this.running = false;
+			this.selector.wakeup();
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				while(this.running)
+				{
+					this.selector.select();
+					SocketChannel channel;
+					while((channel = this.newConnections.poll()) != null)
+						channel.register(this.selector, SelectionKey.OP_READ, new Connection(channel));
+					Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+					while(keys.hasNext())
+					{
+						SelectionKey key = keys.next();
+						keys.remove();
+						Connection connection = (Connection)key.attachment();
+						try
+						{
+							if(key.isWritable())
+								this.writeAnswers(key, connection);
+							else if(key.isReadable())
+								this.readExpressions(key, connection);
+						}
+						catch(IOException e)				//The client went away. Only this connection is closed
+						{
+							key.cancel();
+							connection.channel.close();
+						}
+					}
+				}
+			}
+			catch(IOException e)
+			{
+				throw new IllegalStateException("The event loop of the expression server failed", e);
+			}
+			finally
+			{
+				for(SelectionKey key : this.selector.keys())
+				{
+					try
+					{
+						key.channel().close();
+					}
+					catch(IOException e)
+					{//The connection is being dropped anyway
+					}
+				}
+				try
+				{
+					this.selector.close();
+				}
+				catch(IOException e)
+				{//Nothing left to clean up
+				}
+			}
+		}
+
+		private void readExpressions(SelectionKey key, Connection connection) throws IOException
+		{
+			//Reads what the client has sent, answers every complete line and keeps the start of an incomplete line for the next read
+			ByteBuffer input = connection.input;
+			int readCount = connection.channel.read(input);
+			int end = input.position();
+			int lineStart = 0;
+			for(int i = connection.scanned; i <= end; i ++)
+			{
+				if(i < end ? input.get(i) != '\n' : readCount >= 0 || i == lineStart)	//A last line without a line end is answered when the client closes
+					continue;
+				if(connection.discarding)						//The rest of a line that was too long, it has already been answered
+					connection.discarding = false;
+				else
+				{
+					int lineEnd = i > lineStart && input.get(i - 1) == '\r' ? i - 1 : i;
+					this.view.wrap(input, lineStart, lineEnd - lineStart);
+					BatchEvaluator.appendResult(this.converter, this.mode, this.view, connection.output);
+				}
+				lineStart = i + 1;
+			}
+			//Move the incomplete line to the start of the buffer
+			Buffer buffer = input;								//Called through Buffer so the class also runs on Java 8, where ByteBuffer does not override these
+			buffer.limit(end);
+			buffer.position(Math.min(lineStart, end));			//Past the end when the last line had no line end
+			input.compact();
+			connection.scanned = input.position();
+			if(!input.hasRemaining())							//No line end in a full buffer
+			{
+				if(input.capacity() < MAX_LINE_LENGTH)
+					connection.input = ByteBuffer.allocate(input.capacity() * 2).put((ByteBuffer)buffer.flip());
+				else
+				{
+					if(!connection.discarding)					//The line is answered once, however many buffers of it are discarded
+					{
+						connection.output.append(InvalidTokenException.MESSAGE_PREFIX).append("The expression is longer than ")
+								.appendNumber(MAX_LINE_LENGTH).append(" characters\n");
+						connection.discarding = true;
+					}
+					buffer.clear();
+					connection.scanned = 0;
+				}
+			}
+			if(readCount < 0)									//The client has nothing more to send. Answer what was sent and close
+			{
+				connection.closing = true;
+				key.interestOps(0);
+			}
+			this.writeAnswers(key, connection);
+		}
+
+		private void writeAnswers(SelectionKey key, Connection connection) throws IOException
+		{
+			//Writes the answers that are waiting. Reading stops until every answer is written
+			if(connection.written < connection.output.length())
+				connection.written += connection.output.writeTo(connection.channel, connection.written);
+			if(connection.written < connection.output.length())
+			{
+				key.interestOps(SelectionKey.OP_WRITE);
+				return;
+			}
+			connection.output.setLength(0);
+			connection.written = 0;
+			if(connection.closing)
+			{
+				key.cancel();
+				connection.channel.close();
+			}
+			else
+				key.interestOps(SelectionKey.OP_READ);
+		}
+
+		private final Selector selector;
+		private final ConcurrentLinkedQueue<SocketChannel> newConnections;	//Accepted connections that are not registered yet
+		private final PostfixNotationCreator converter;						//Converts the expressions of every connection of this loop
+		private final NumericMode mode;										//How the expressions are evaluated
+		private final AsciiSequence view;									//View of the line being converted
+		private volatile boolean running = true;
+	}
+
+	private static final class Connection
+	{
+		Connection(SocketChannel channel)
+		{
+			this.channel = channel;
+			this.input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+			this.output = new AsciiOutputBuffer(INITIAL_BUFFER_SIZE);
+		}
+
+		final SocketChannel channel;
+		ByteBuffer input;						//Bytes read and not answered yet, from the start of the buffer to its position
+		int scanned;							//Bytes of input already searched for a line end
+		boolean discarding;						//Whether the bytes up to the next line end belong to a line that was too long
+		final AsciiOutputBuffer output;			//Answers that are not written yet
+		int written;							//Bytes of output already written
+		boolean closing;						//Whether the client has closed its side, the connection is closed once the answers are written
+	}
+
+	static final int INITIAL_BUFFER_SIZE = 1 << 13;		//Size of the buffers of a new connection
+	static final int MAX_LINE_LENGTH = 1 << 20;			//Longest expression a client can send, the read buffer does not grow beyond it
+
+	private final ServerSocketChannel serverChannel;
+	private final EventLoop[] loops;
+	private final NumericMode mode;						//How every expression is evaluated
+	private final ExpressionMetrics metrics;			//Where every expression answered is recorded, null when nothing is
+}
@@ -0,0 +1,125 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class converts and evaluates infix expressions for any number of threads at once. It has no state of its own apart from a pool of scratch
+ * objects: a PostfixNotationCreator is taken from the pool for the duration of a call and given back afterwards, so one instance can be shared by a
+ * whole service instead of creating a converter per request. Conversion returns a CompiledExpression, which is immutable and can be evaluated by any
+ * amount of threads at the same time.
+ */
+package expression;
+
+public final class ExpressionService
+{
+	public ExpressionService()
+	{
+		this(2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	public ExpressionService(int poolCapacity)
+	{
+		this(poolCapacity, null);
+	}
+
+	public ExpressionService(int poolCapacity, final ExpressionMetrics metrics)
+	{
+		/*
+		 * Creates a service.
+		 * Caller Requirements: poolCapacity must be greater than 0. metrics may be null
+		 * Caller Expectations: At most poolCapacity scratch objects are kept between calls. More threads than that can use the service at once, the
+		 * 		extra scratch objects are created when needed and dropped afterwards. Every conversion and evaluation is recorded in metrics
+		 */
+		this.metrics = metrics;
+		this.converters = new StripedPool<PostfixNotationCreator>(poolCapacity)
+		{
+			@Override
+			protected PostfixNotationCreator create()
+			{
+				PostfixNotationCreator converter = new PostfixNotationCreator();
+				converter.setMetrics(metrics);
+				return converter;
+			}
+		};
+	}
+
+	public CompiledExpression compile(String infixExpression) throws InvalidTokenException
+	{
+		//Converts an infix expression. See compile(CharSequence, int, int)
+		return this.compile(infixExpression, 0, infixExpression.length());
+	}
+
+	public CompiledExpression compile(CharSequence infixExpression, int offset, int length) throws InvalidTokenException
+	{
+		/*
+		 * Converts the region of an infix expression from offset to offset + length.
+		 * Caller Requirements: Same as PostfixNotationCreator.convert(CharSequence, int, int)
+		 * Caller Expectations: The compiled expression is returned. If the expression is invalid an InvalidTokenException with the same message as
+		 * 		PostfixNotationCreator.processInfixExpression() is thrown
+		 */
+		PostfixNotationCreator converter = this.converters.acquire();
+		try
+		{
+			ConversionResult result = converter.convert(infixExpression, offset, length);
+			if(!result.isValid())
+				throw new InvalidTokenException(result.getReason());
+			return converter.getCompiledExpression();
+		}
+		finally
+		{
+			this.converters.release(converter);
+		}
+	}
+
+	public int evaluate(String infixExpression) throws InvalidTokenException, ArithmeticException
+	{
+		/*
+		 * Converts and evaluates an infix expression in one call.
+		 * Caller Requirements: infixExpression must be non-null
+		 * Caller Expectations: Same result and exceptions as processInfixExpression() followed by evaluate() on a PostfixNotationCreator. No compiled
+		 * 		expression is created, so nothing is allocated for a valid expression without variables
+		 */
+		PostfixNotationCreator converter = this.converters.acquire();
+		try
+		{
+			ConversionResult result = converter.convert(infixExpression, 0, infixExpression.length());
+			if(!result.isValid())
+				throw new InvalidTokenException(result.getReason());
+			return converter.evaluate();
+		}
+		finally
+		{
+			this.converters.release(converter);
+		}
+	}
+
+	public int evaluate(CompiledExpression expression) throws ArithmeticException
+	{
+		//Evaluates an expression without variables. See evaluate(CompiledExpression, long[])
+		return this.evaluate(expression, NO_VARIABLES);
+	}
+
+	public int evaluate(CompiledExpression expression, long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates a compiled expression with a value stack from the pool.
+		 * Caller Requirements: Same as CompiledExpression.evaluate(LongStack, long[])
+		 * Caller Expectations: Same as CompiledExpression.evaluate(LongStack, long[]). Nothing is allocated once the pool holds enough stacks
+		 */
+		PostfixNotationCreator converter = this.converters.acquire();
+		try
+		{
+			if(this.metrics != null)
+				return this.metrics.evaluate(expression, converter.valueStack, variableValues);
+			return expression.evaluate(converter.valueStack, variableValues);
+		}
+		finally
+		{
+			this.converters.release(converter);
+		}
+	}
+
+	private static final long[] NO_VARIABLES = new long[0];
+
+	private final StripedPool<PostfixNotationCreator> converters;	//Scratch objects. The value stack of a converter is also used to evaluate
+	private final ExpressionMetrics metrics;						//Where evaluations of compiled expressions are recorded, null when they are not
+}
@@ -0,0 +1,13 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This interface is implemented by the classes BytecodeCompiler generates for hot expressions. It is public because the generated classes are defined by
+ * their own class loader and cannot see anything that is package-private.
+ */
+package expression;
+
+public interface GeneratedEvaluator
+{
+	int evaluate(long[] variableValues) throws ArithmeticException;		//Same result and exceptions as CompiledExpression.evaluate(LongStack, long[])
+}
@@ -0,0 +1,27 @@
+/*
+ * Author: David Jones
+ * Date: 10/2/17
+ * 
+ * This class is an exception thrown when an infix expression is invalid. It gives a detailed reason why. Created as a class so all InvalidTokenException 
+ * contain "The algebraic (infix) expression is invalid: " before the detailed reason
+ */
+package expression;
+
+public class InvalidTokenException extends Exception
+{
+	public InvalidTokenException(String reasonWhy)
+	{
+		super(MESSAGE_PREFIX + reasonWhy);
+		this.reasonWhy = reasonWhy;
+	}
+	
+	public String getReason()
+	{
+		//Returns the detailed reason the expression is invalid, without the common beginning of the message
+		return this.reasonWhy;
+	}
+	
+	static final String MESSAGE_PREFIX = "The algebraic (infix) expression is invalid: ";	//Start of the message of every InvalidTokenException
+	
+	private final String reasonWhy;			//The detailed reason given when the exception was created
+}
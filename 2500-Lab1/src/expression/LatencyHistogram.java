@@ -0,0 +1,70 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class counts durations in buckets whose bounds are powers of two: bucket b holds the durations of at least 2^(b-1) and less than 2^b nanoseconds,
+ * bucket 0 holds durations of 0. Recording a duration is a single add to a striped counter, so many threads can record at once without contending, and
+ * the histogram has a fixed size no matter how many durations are recorded. Percentiles are only known to a factor of two, which is enough to see where
+ * time goes and to spot slow outliers.
+ */
+package expression;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyHistogram
+{
+	LatencyHistogram()
+	{
+		this.buckets = new LongAdder[BUCKET_COUNT];
+		for(int i = 0; i < BUCKET_COUNT; i ++)
+			this.buckets[i] = new LongAdder();
+	}
+
+	void record(long nanos)
+	{
+		//Counts one duration. Negative durations (a clock that went backwards) count as 0
+		this.buckets[nanos <= 0 ? 0 : BUCKET_COUNT - Long.numberOfLeadingZeros(nanos)].increment();
+	}
+
+	public long getCount()
+	{
+		//Returns the amount of durations recorded
+		long count = 0;
+		for(LongAdder bucket : this.buckets)
+			count += bucket.sum();
+		return count;
+	}
+
+	public long getBucketCount(int bucket)
+	{
+		//Returns the amount of durations recorded in a bucket, see the description of the class
+		return this.buckets[bucket].sum();
+	}
+
+	public long getPercentile(double fraction)
+	{
+		/*
+		 * Returns the upper bound in nanoseconds of the bucket holding the given fraction of the durations, for example 0.99 for the 99th percentile.
+		 * Caller Requirements: fraction must be from 0 to 1
+		 * Caller Expectations: 0 is returned if nothing was recorded. The value is exact to a factor of two. Durations recorded during the call may or
+		 * 		may not be included
+		 */
+		long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		for(int i = 0; i < BUCKET_COUNT; i ++)
+			total += counts[i] = this.buckets[i].sum();
+		long wanted = (long)Math.ceil(fraction * total);
+		long seen = 0;
+		for(int i = 0; i < BUCKET_COUNT; i ++)
+		{
+			seen += counts[i];
+			if(seen >= wanted && counts[i] != 0)
+				return i == 0 ? 0 : i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << i;
+		}
+		return 0;
+	}
+
+	static final int BUCKET_COUNT = 64;			//Bucket 63 holds every duration of 2^62 nanoseconds or more
+
+	private final LongAdder[] buckets;
+}
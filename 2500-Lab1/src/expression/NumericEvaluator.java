@@ -0,0 +1,320 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class holds the evaluation loops of the numeric modes other than INT32 (see NumericMode), and the arithmetic they need. Each loop is written for
+ * its own kind of value, longs in a LongStack, BigIntegers in an array and doubles in a DoubleStack, so no mode boxes its values or goes through a generic
+ * number type. The loops read the same instructions as CompiledExpression.execute(), including slots, and follow the same order of evaluation, so the
+ * first failing operator is the same one in every mode that fails.
+ */
+package expression;
+
+import java.math.BigInteger;
+
+final class NumericEvaluator
+{
+	private NumericEvaluator()
+	{
+		//Only static methods
+	}
+
+	static long executeLong(int[] instructions, int instructionCount, long[] constants, int slotCount, int maxStackDepth, LongStack valueStack,
+			long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates instructions in the INT64 mode.
+		 * Caller Requirements: Same as CompiledExpression.execute()
+		 * Caller Expectations: Returns the value of the expression. An ArithmeticException is thrown if an operand does not fit in a long, an operator
+		 * 		overflows or a value is divided by zero. Variables can have any long value
+		 */
+		valueStack.clear();
+		valueStack.ensureCapacity(slotCount + maxStackDepth);
+		for(int slot = 0; slot < slotCount; slot ++)
+			valueStack.push(0);
+		for(int i = 0; i < instructionCount; i ++)
+		{
+			int instruction = instructions[i];
+			int operand = instruction >>> CompiledExpression.OPERAND_SHIFT;
+			switch(instruction & CompiledExpression.OPCODE_MASK)
+			{
+			case CompiledExpression.OP_VALUE:
+				valueStack.push(constants[operand]);
+				break;
+			case CompiledExpression.OP_OVERSIZED_VALUE:			//Oversized for an int, but it may fit in a long
+				if(constants[operand] < 0)
+					throw CompiledExpression.operandTooLarge();
+				valueStack.push(constants[operand]);
+				break;
+			case CompiledExpression.OP_VARIABLE:
+				valueStack.push(variableValues[operand]);
+				break;
+			case CompiledExpression.OP_LOAD:
+				valueStack.push(valueStack.get(operand));
+				break;
+			case CompiledExpression.OP_STORE:
+				valueStack.set(operand, valueStack.peek());
+				break;
+			case CompiledExpression.OP_SQUARE_ROOT:
+				valueStack.push(CompiledExpression.squareRoot(valueStack.pop()));
+				break;
+			case CompiledExpression.OP_CUBE_ROOT:
+				valueStack.push(CompiledExpression.cubeRoot(valueStack.pop()));
+				break;
+			default:
+				long secondOperand = valueStack.pop();
+				valueStack.push(applyExact(instruction & CompiledExpression.OPCODE_MASK, valueStack.pop(), secondOperand));
+				break;
+			}
+		}
+		return valueStack.pop();
+	}
+
+	static BigInteger executeBigInteger(int[] instructions, int instructionCount, long[] constants, String[] oversizedLiterals, int slotCount,
+			int maxStackDepth, BigInteger[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates instructions in the BIG_INTEGER mode.
+		 * Caller Requirements: Same as CompiledExpression.execute(). oversizedLiterals must hold the text of every operand that did not fit in a long,
+		 * 		it may be null if there are none
+		 * Caller Expectations: Returns the value of the expression. An ArithmeticException is thrown if a value is divided by zero or a result would
+		 * 		have more than NumericMode.MAX_BIG_INTEGER_BITS bits
+		 */
+		BigInteger[] stack = new BigInteger[slotCount + maxStackDepth];	//Slots at the bottom, like the other loops
+		int top = slotCount - 1;
+		for(int i = 0; i < instructionCount; i ++)
+		{
+			int instruction = instructions[i];
+			int operand = instruction >>> CompiledExpression.OPERAND_SHIFT;
+			switch(instruction & CompiledExpression.OPCODE_MASK)
+			{
+			case CompiledExpression.OP_VALUE:
+				stack[++top] = BigInteger.valueOf(constants[operand]);
+				break;
+			case CompiledExpression.OP_OVERSIZED_VALUE:			//Negative means the literal did not fit in a long, its text was kept instead
+				long value = constants[operand];
+				stack[++top] = value >= 0 ? BigInteger.valueOf(value) : new BigInteger(oversizedLiterals[(int)(-value - 1)]);
+				break;
+			case CompiledExpression.OP_VARIABLE:
+				stack[++top] = variableValues[operand];
+				break;
+			case CompiledExpression.OP_LOAD:
+				stack[++top] = stack[operand];
+				break;
+			case CompiledExpression.OP_STORE:
+				stack[operand] = stack[top];
+				break;
+			case CompiledExpression.OP_SQUARE_ROOT:
+				stack[top] = squareRoot(stack[top]);
+				break;
+			case CompiledExpression.OP_CUBE_ROOT:
+				stack[top] = cubeRoot(stack[top]);
+				break;
+			default:
+				BigInteger secondOperand = stack[top--];
+				stack[top] = apply(instruction & CompiledExpression.OPCODE_MASK, stack[top], secondOperand);
+				break;
+			}
+		}
+		return stack[top];
+	}
+
+	static double executeDouble(int[] instructions, int instructionCount, long[] constants, String[] oversizedLiterals, int slotCount,
+			int maxStackDepth, DoubleStack valueStack, double[] variableValues)
+	{
+		/*
+		 * Evaluates instructions in the DOUBLE mode.
+		 * Caller Requirements: Same as executeBigInteger()
+		 * Caller Expectations: Returns the value of the expression, nothing is thrown. Operands are rounded to the nearest double
+		 */
+		valueStack.clear();
+		valueStack.ensureCapacity(slotCount + maxStackDepth);
+		for(int slot = 0; slot < slotCount; slot ++)
+			valueStack.push(0);
+		for(int i = 0; i < instructionCount; i ++)
+		{
+			int instruction = instructions[i];
+			int operand = instruction >>> CompiledExpression.OPERAND_SHIFT;
+			switch(instruction & CompiledExpression.OPCODE_MASK)
+			{
+			case CompiledExpression.OP_VALUE:
+				valueStack.push(constants[operand]);
+				break;
+			case CompiledExpression.OP_OVERSIZED_VALUE:
+				long value = constants[operand];
+				valueStack.push(value >= 0 ? value : new BigInteger(oversizedLiterals[(int)(-value - 1)]).doubleValue());	//BigInteger reads any digits
+				break;
+			case CompiledExpression.OP_VARIABLE:
+				valueStack.push(variableValues[operand]);
+				break;
+			case CompiledExpression.OP_LOAD:
+				valueStack.push(valueStack.get(operand));
+				break;
+			case CompiledExpression.OP_STORE:
+				valueStack.set(operand, valueStack.peek());
+				break;
+			case CompiledExpression.OP_SQUARE_ROOT:
+				valueStack.push(Math.sqrt(valueStack.pop()));
+				break;
+			case CompiledExpression.OP_CUBE_ROOT:
+				valueStack.push(Math.cbrt(valueStack.pop()));
+				break;
+			default:
+				double secondOperand = valueStack.pop();
+				valueStack.push(applyDouble(instruction & CompiledExpression.OPCODE_MASK, valueStack.pop(), secondOperand));
+				break;
+			}
+		}
+		return valueStack.pop();
+	}
+
+	static double applyDouble(int opcode, double firstOperand, double secondOperand)
+	{
+		//Performs a binary operator on two doubles
+		switch(opcode)
+		{
+		case CompiledExpression.OP_ADD:				return firstOperand + secondOperand;
+		case CompiledExpression.OP_SUBTRACT:		return firstOperand - secondOperand;
+		case CompiledExpression.OP_MULTIPLY:		return firstOperand * secondOperand;
+		case CompiledExpression.OP_DIVIDE:			return firstOperand / secondOperand;
+		case CompiledExpression.OP_POWER:			return Math.pow(firstOperand, secondOperand);
+		case CompiledExpression.OP_SHIFT_LEFT:		return firstOperand * Math.pow(2, secondOperand);
+		case CompiledExpression.OP_SHIFT_RIGHT:		return firstOperand / Math.pow(2, secondOperand);
+		default:									return firstOperand % secondOperand;
+		}
+	}
+
+	static long applyExact(int opcode, long firstOperand, long secondOperand) throws ArithmeticException
+	{
+		//Performs a binary operator on two longs, throwing the overflow exception of the operator if the result does not fit in a long
+		try
+		{
+			switch(opcode)
+			{
+			case CompiledExpression.OP_ADD:			return Math.addExact(firstOperand, secondOperand);
+			case CompiledExpression.OP_SUBTRACT:	return Math.subtractExact(firstOperand, secondOperand);
+			case CompiledExpression.OP_MULTIPLY:	return Math.multiplyExact(firstOperand, secondOperand);
+			default:								break;
+			}
+		}
+		catch(ArithmeticException e)				//Name the operator like the INT32 mode does
+		{
+			throw CompiledExpression.overflow(opcode);
+		}
+		switch(opcode)
+		{
+		case CompiledExpression.OP_DIVIDE:
+			if(firstOperand == Long.MIN_VALUE && secondOperand == -1)
+				throw CompiledExpression.overflow(opcode);
+			return firstOperand / secondOperand;
+		case CompiledExpression.OP_POWER:			return CompiledExpression.power(firstOperand, secondOperand);
+		case CompiledExpression.OP_SHIFT_LEFT:		return shiftLeft(firstOperand, secondOperand);
+		case CompiledExpression.OP_SHIFT_RIGHT:
+			if(secondOperand == Long.MIN_VALUE)		//Cannot be negated. Shifting left by that much overflows unless the value is 0
+				return shiftLeft(firstOperand, Long.MAX_VALUE);
+			return shiftLeft(firstOperand, -secondOperand);
+		default:									return firstOperand % secondOperand;
+		}
+	}
+
+	private static long shiftLeft(long value, long count) throws ArithmeticException
+	{
+		//Multiplies value by 2^count, throwing if the result does not fit in a long. A negative count shifts right, rounding down like >> does
+		if(count < 0)
+			return count <= -Long.SIZE ? value >> (Long.SIZE - 1) : value >> -count;
+		if(value == 0)
+			return 0;
+		if(count >= Long.SIZE || (value << count) >> count != value)
+			throw CompiledExpression.overflow(CompiledExpression.OP_SHIFT_LEFT);
+		return value << count;
+	}
+
+	static BigInteger apply(int opcode, BigInteger firstOperand, BigInteger secondOperand) throws ArithmeticException
+	{
+		//Performs a binary operator on two BigIntegers. Results that would be too large to hold throw the overflow exception of the operator
+		switch(opcode)
+		{
+		case CompiledExpression.OP_ADD:				return firstOperand.add(secondOperand);
+		case CompiledExpression.OP_SUBTRACT:		return firstOperand.subtract(secondOperand);
+		case CompiledExpression.OP_MULTIPLY:
+			if(firstOperand.bitLength() + secondOperand.bitLength() - 1 > NumericMode.MAX_BIG_INTEGER_BITS)
+				throw CompiledExpression.overflow(opcode);
+			return firstOperand.multiply(secondOperand);
+		case CompiledExpression.OP_DIVIDE:			return firstOperand.divide(secondOperand);
+		case CompiledExpression.OP_POWER:			return power(firstOperand, secondOperand);
+		case CompiledExpression.OP_SHIFT_LEFT:		return shiftLeft(firstOperand, secondOperand, opcode);
+		case CompiledExpression.OP_SHIFT_RIGHT:		return shiftLeft(firstOperand, secondOperand.negate(), opcode);
+		default:									return firstOperand.remainder(secondOperand);	//Same sign as the dividend, like %
+		}
+	}
+
+	private static BigInteger power(BigInteger base, BigInteger exponent) throws ArithmeticException
+	{
+		//Same as CompiledExpression.power() for any size of integer
+		if(exponent.signum() < 0)
+		{
+			if(base.signum() == 0)
+				throw CompiledExpression.overflow(CompiledExpression.OP_POWER);
+			if(base.abs().equals(BigInteger.ONE))
+				return base.signum() < 0 && exponent.testBit(0) ? base : BigInteger.ONE;
+			return BigInteger.ZERO;
+		}
+		int magnitudeBits = base.abs().bitLength();
+		if(magnitudeBits <= 1)								//0, 1 and -1 never grow
+			return exponent.signum() == 0 ? BigInteger.ONE : base.signum() < 0 && !exponent.testBit(0) ? BigInteger.ONE : base;
+		//The result has at least (magnitudeBits - 1) * exponent + 1 bits
+		if(exponent.bitLength() > 31 || (long)(magnitudeBits - 1) * exponent.intValue() + 1 > NumericMode.MAX_BIG_INTEGER_BITS)
+			throw CompiledExpression.overflow(CompiledExpression.OP_POWER);
+		return base.pow(exponent.intValue());
+	}
+
+	private static BigInteger shiftLeft(BigInteger value, BigInteger count, int opcode) throws ArithmeticException
+	{
+		//Multiplies value by 2^count. A negative count shifts right, rounding down like >> does
+		if(count.bitLength() > 31)							//Further than any BigInteger can be shifted
+		{
+			if(count.signum() < 0 || value.signum() == 0)
+				return value.signum() < 0 ? BigInteger.ONE.negate() : BigInteger.ZERO;
+			throw CompiledExpression.overflow(opcode);
+		}
+		int shift = count.intValue();
+		if(shift > 0 && value.signum() != 0 && (long)value.bitLength() + shift > NumericMode.MAX_BIG_INTEGER_BITS)
+			throw CompiledExpression.overflow(opcode);
+		return value.shiftLeft(shift);
+	}
+
+	static BigInteger squareRoot(BigInteger value)
+	{
+		//Same as CompiledExpression.squareRoot() for any size of integer
+		if(value.signum() <= 0)
+			return BigInteger.ZERO;
+		if(value.bitLength() < Long.SIZE - 1)
+			return BigInteger.valueOf(CompiledExpression.squareRoot(value.longValue()));
+		//Newton's method from a power of two above the root. Every step is still above the root until it stops going down
+		BigInteger root = BigInteger.ONE.shiftLeft((value.bitLength() + 1) / 2);
+		while(true)
+		{
+			BigInteger next = root.add(value.divide(root)).shiftRight(1);
+			if(next.compareTo(root) >= 0)
+				return root;
+			root = next;
+		}
+	}
+
+	static BigInteger cubeRoot(BigInteger value)
+	{
+		//Same as CompiledExpression.cubeRoot() for any size of integer
+		if(value.bitLength() < Long.SIZE - 1)
+			return BigInteger.valueOf(CompiledExpression.cubeRoot(value.longValue()));
+		BigInteger magnitude = value.abs();
+		BigInteger root = BigInteger.ONE.shiftLeft((magnitude.bitLength() + 2) / 3);
+		while(true)
+		{
+			BigInteger next = root.shiftLeft(1).add(magnitude.divide(root.multiply(root))).divide(THREE);
+			if(next.compareTo(root) >= 0)
+				return value.signum() < 0 ? root.negate() : root;
+			root = next;
+		}
+	}
+
+	private static final BigInteger THREE = BigInteger.valueOf(3);
+}
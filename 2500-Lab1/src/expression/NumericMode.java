@@ -0,0 +1,19 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * The kinds of numbers an expression can be evaluated with. Every mode has its own evaluation loop (see CompiledExpression), so a mode only costs what
+ * its numbers cost. The operators mean the same in every mode except where noted. Expressions optimized by ExpressionOptimizer have their constants
+ * folded with the arithmetic of one mode and can only be evaluated in that mode.
+ */
+package expression;
+
+public enum NumericMode
+{
+	INT32,				//Integers that fail outside the range of an int. The original behavior of evaluate(), computed in longs and checked after every operator
+	INT64,				//Longs that fail on overflow. Shift amounts that are negative shift the other way, shifting a value out of range fails
+	BIG_INTEGER,		//Integers of any size, shifts like INT64. Results larger than MAX_BIG_INTEGER_BITS bits fail so a power cannot exhaust the memory
+	DOUBLE;				//IEEE doubles. Nothing fails: division by zero and roots of negative numbers give infinities and NaN. Shifts multiply or divide by 2^n
+
+	static final int MAX_BIG_INTEGER_BITS = 1 << 24;	//About 5 million decimal digits
+}
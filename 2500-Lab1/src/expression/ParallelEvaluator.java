@@ -0,0 +1,226 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class evaluates one very large compiled expression with several threads. The post-fix instructions are split once, when the evaluator is created,
+ * into spans: a span is a subexpression whose own instructions, not counting the spans nested in it, number at least the threshold. Spans that are
+ * not nested in one another do not depend on each other, so they are evaluated by separate tasks of a ForkJoinPool and a span is evaluated as soon as
+ * the spans nested in it are done, with their results pushed in place of their instructions.
+ *
+ * The result and the exception thrown are the same as CompiledExpression.evaluate(). A span that fails keeps its exception instead of throwing it, and
+ * the span containing it only throws it when the evaluation reaches its position. The exception thrown is therefore always the first one in post-fix
+ * order, whichever task failed first.
+ *
+ * Only INT32 evaluation is done in parallel. Optimized expressions that keep values in slots are evaluated by the calling thread, because a slot can be
+ * stored in one span and loaded in another.
+ */
+package expression;
+
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+public final class ParallelEvaluator
+{
+	public ParallelEvaluator(CompiledExpression expression)
+	{
+		this(expression, DEFAULT_THRESHOLD);
+	}
+
+	public ParallelEvaluator(CompiledExpression expression, int threshold)
+	{
+		/*
+		 * Splits an expression into spans that can be evaluated in parallel.
+		 * Caller Requirements: expression must be non-null. threshold must be greater than 0, it is the least amount of instructions a task evaluates
+		 * 		apart from the task of the whole expression
+		 * Caller Expectations: The expression is read once. The evaluator is immutable and can be used by any amount of threads at the same time. An
+		 * 		IllegalArgumentException is thrown if the expression was optimized for another mode than INT32, the mode spans are evaluated in
+		 */
+		if(threshold < 1)
+			throw new IllegalArgumentException("The threshold must be greater than 0");
+		expression.checkMode(NumericMode.INT32);
+		this.expression = expression;
+		int[] instructions = expression.instructions;
+		int instructionCount = instructions.length;
+		int maxSpanCount = expression.slotCount > 0 ? 1 : instructionCount / threshold + 1;	//Every span but the last has threshold instructions
+		this.spanStarts = new int[maxSpanCount];
+		this.spanEnds = new int[maxSpanCount];
+		this.spanCapacities = new int[maxSpanCount];
+		this.childOffsets = new int[maxSpanCount + 1];
+		this.childSpans = new int[maxSpanCount];
+		if(expression.slotCount > 0)
+		{
+			this.spanCount = 0;
+			return;
+		}
+
+		/*
+		 * Every value on the stack has the index where its subexpression starts and its weight, the amount of its instructions that are not in a span.
+		 * A subexpression becomes a span once its weight reaches the threshold and its weight goes back to 0. The spans that are not nested in another
+		 * span yet are kept in openSpans in post-fix order, so the spans nested in a new span are always at the top.
+		 */
+		int[] starts = new int[expression.maxStackDepth + 1];
+		int[] weights = new int[expression.maxStackDepth + 1];
+		int[] openSpans = new int[maxSpanCount];
+		int top = -1, openCount = 0, spanCount = 0;
+		for(int i = 0; i < instructionCount; i ++)
+		{
+			int opcode = instructions[i] & CompiledExpression.OPCODE_MASK;
+			if(opcode <= CompiledExpression.OP_VARIABLE)
+			{
+				starts[++top] = i;
+				weights[top] = 1;
+				continue;
+			}
+			if(CompiledExpression.isBinaryOperator(opcode))	//The subexpression of a binary operator starts where its first operand starts
+			{
+				top--;
+				weights[top] += weights[top + 1];
+			}
+			weights[top]++;
+			if(weights[top] >= threshold && i < instructionCount - 1)	//The whole expression is always the last span, see below
+			{
+				openCount = this.addSpan(spanCount++, starts[top], i, weights[top], openSpans, openCount);
+				weights[top] = 0;
+			}
+		}
+		this.addSpan(spanCount++, 0, instructionCount - 1, weights[0], openSpans, openCount);
+		this.spanCount = spanCount;
+	}
+
+	public int evaluate() throws ArithmeticException
+	{
+		//Evaluates an expression without variables. See evaluate(ForkJoinPool, long[])
+		return this.evaluate(ForkJoinPool.commonPool(), NO_VARIABLES);
+	}
+
+	public int evaluate(long[] variableValues) throws ArithmeticException
+	{
+		//Evaluates with the common pool. See evaluate(ForkJoinPool, long[])
+		return this.evaluate(ForkJoinPool.commonPool(), variableValues);
+	}
+
+	public int evaluate(ForkJoinPool pool, long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression with the threads of pool.
+		 * Caller Requirements: pool must be non-null. variableValues must hold a value for every variable in the order of getVariableNames() of the
+		 * 		expression
+		 * Caller Expectations: Same result and exception as CompiledExpression.evaluate(LongStack, long[]). When the expression has a single span or
+		 * 		keeps values in slots it is evaluated by the calling thread and pool is not used
+		 */
+		this.expression.checkVariableCount(variableValues.length);
+		if(this.spanCount <= 1)
+			return this.expression.evaluate(new LongStack(this.expression.slotCount + this.expression.maxStackDepth), variableValues);
+		SpanTask root = new SpanTask(null, this.spanCount - 1, variableValues);
+		pool.invoke(root);
+		if(root.failure != null)
+			throw root.failure;
+		return (int)root.value;
+	}
+
+	public CompiledExpression getExpression()
+	{
+		//Returns the expression being evaluated
+		return this.expression;
+	}
+
+	public int getSpanCount()
+	{
+		//Returns how many tasks an evaluation uses. 0 for an expression that keeps values in slots, which is never split
+		return this.spanCount;
+	}
+
+	private int addSpan(int span, int start, int end, int weight, int[] openSpans, int openCount)
+	{
+		//Records a span and makes the open spans nested in it its children. Returns the new amount of open spans
+		int firstChild = openCount;
+		while(firstChild > 0 && this.spanStarts[openSpans[firstChild - 1]] >= start)
+			firstChild--;
+		int childCount = openCount - firstChild;
+		this.spanStarts[span] = start;
+		this.spanEnds[span] = end;
+		this.spanCapacities[span] = Math.min(this.expression.maxStackDepth, weight + childCount);	//Every value pushed is an instruction or a child
+		System.arraycopy(openSpans, firstChild, this.childSpans, this.childOffsets[span], childCount);
+		this.childOffsets[span + 1] = this.childOffsets[span] + childCount;
+		openSpans[firstChild] = span;
+		return firstChild + 1;
+	}
+
+	private final class SpanTask extends CountedCompleter<Void>
+	{
+		SpanTask(SpanTask parent, int span, long[] variableValues)
+		{
+			super(parent);
+			this.span = span;
+			this.variableValues = variableValues;
+		}
+
+		@Override
+		public void compute()
+		{
+			/*
+			 * Forks a task for every span nested in this one. The last of them to finish evaluates this span, see onCompletion(). A span without
+			 * 		nested spans is evaluated right away by tryComplete()
+			 */
+			int firstChild = ParallelEvaluator.this.childOffsets[this.span];
+			this.children = new SpanTask[ParallelEvaluator.this.childOffsets[this.span + 1] - firstChild];
+			this.setPendingCount(this.children.length);
+			for(int i = 0; i < this.children.length; i ++)
+				this.children[i] = new SpanTask(this, ParallelEvaluator.this.childSpans[firstChild + i], this.variableValues);
+			for(int i = 0; i < this.children.length; i ++)
+				this.children[i].fork();
+			this.tryComplete();
+		}
+
+		@Override
+		public void onCompletion(CountedCompleter<?> caller)
+		{
+			/*
+			 * Evaluates the instructions of this span once every nested span is done, pushing the value of each nested span in place of its
+			 * 		instructions. The exception of a nested span is only thrown once the instructions before it succeeded
+			 */
+			ParallelEvaluator evaluator = ParallelEvaluator.this;
+			CompiledExpression expression = evaluator.expression;
+			LongStack valueStack = new LongStack(evaluator.spanCapacities[this.span]);
+			int next = evaluator.spanStarts[this.span];
+			try
+			{
+				for(int i = 0; i < this.children.length; i ++)
+				{
+					int child = evaluator.childSpans[evaluator.childOffsets[this.span] + i];
+					CompiledExpression.executeRange(expression.instructions, next, evaluator.spanStarts[child], expression.constants,
+							expression.variableNames, valueStack, this.variableValues);
+					if(this.children[i].failure != null)
+						throw this.children[i].failure;
+					valueStack.push(this.children[i].value);
+					next = evaluator.spanEnds[child] + 1;
+				}
+				CompiledExpression.executeRange(expression.instructions, next, evaluator.spanEnds[this.span] + 1, expression.constants,
+						expression.variableNames, valueStack, this.variableValues);
+				this.value = valueStack.pop();
+			}
+			catch(ArithmeticException e)
+			{
+				this.failure = e;
+			}
+			this.children = null;					//The values are read, let the nested tasks be collected
+		}
+
+		private final int span;
+		private final long[] variableValues;
+		private SpanTask[] children;				//Tasks of the nested spans in post-fix order
+		private long value;							//Value of the span once the task is complete
+		private ArithmeticException failure;		//First exception of the span in post-fix order, null if it has a value
+	}
+
+	static final int DEFAULT_THRESHOLD = 1 << 14;	//Large enough that a task takes longer than forking it
+	private static final long[] NO_VARIABLES = new long[0];
+
+	private final CompiledExpression expression;
+	private final int spanCount;					//The last span is the whole expression
+	private final int[] spanStarts;					//Index of the first instruction of every span
+	private final int[] spanEnds;					//Index of the last instruction of every span
+	private final int[] spanCapacities;				//Most values a span can have on its stack
+	private final int[] childOffsets;				//The spans nested directly in span s are childSpans[childOffsets[s]] to childSpans[childOffsets[s + 1] - 1]
+	private final int[] childSpans;
+}
@@ -0,0 +1,650 @@
+/*
+ * Author: David Jones 
+ * Date: 10/2/17
+ * This class creates converts a infix expression to post-fix and evaluates it
+ * An object holds the state of the expression it converted, so it can only be used by one thread at a time. See ExpressionService for sharing
+ * converters between threads.
+ */
+package expression;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class PostfixNotationCreator 
+{
+	public PostfixNotationCreator()
+	{
+		this.operatorStack = new CharStack();				//Create the stack
+		this.instructions = new int[16];					//Initial instruction and operand buffers, they grow as needed and are reused between expressions
+		this.constants = new long[16];
+		this.oversizedLiterals = new ArrayList<String>();
+		this.variableNames = new ArrayList<String>();
+		this.valueStack = new LongStack();
+		this.postfixBuilder = new StringBuilder();
+		this.byteView = new AsciiSequence();
+		this.digits = new char[20];							//20 chars is enough room for the digits of any long
+		this.parenthesisOffsets = new int[16];
+		this.result = new ConversionResult();
+	}
+	
+	public void processInfixExpression(String infixExpression) throws InvalidTokenException
+	{
+		/*
+		 * -Processes an infix expression and creates the equivalent post-fix expression
+		 * -Caller requirements: This function expects a non-null (may be empty) string that contains an infix expression
+		 * -Caller expectations: If the infix string is invalid an InvalidTokenException will be thrown with the reason the expression is invalid contained in the message, otherwise
+		 * 		a post-fix expression is created that can be retrieved using getPostfixExpression() or getCompiledExpression().
+		 * -Operation:
+		 *  	The string is processed character by character. All grouped characters that represent digits are appended to the post-fix instructions immediately. If a character is an operator
+		 *  it is processed. When an opening parenthesis '(' is found it is pushed onto the stack. When a closed parenthesis '(' is found the stack is popped until an opening '('
+		 *  parenthesis is popped from the stack, if a '(' is not found on the stack then the expression is invalid. 
+		 *  	Operators are identified as unary or binary operators which require 1 or 2 operands. All operators require a value after them. Unary operators (C and Q) require an operator
+		 *  to proceed them, while binary operator (+,-,*,/,<,>, etc) require a value to proceed them. Parenthesis are treated as 'containers' of values.
+		 *  	Variables are values too. A variable name starts with a lower case letter or '_' followed by lower case letters, digits or '_'. Upper case
+		 *  letters are not allowed so names cannot be confused with the unary operators.
+		 */
+		this.throwIfInvalid(this.convert(infixExpression, 0, infixExpression.length()));
+	}
+	
+	public void processInfixExpression(ByteBuffer buffer, int offset, int length) throws InvalidTokenException
+	{
+		//Same as processInfixExpression(String) for ASCII text in a buffer. See convert(ByteBuffer, int, int)
+		this.throwIfInvalid(this.convert(buffer, offset, length));
+	}
+	
+	public void processInfixExpression(CharSequence infixExpression, int offset, int length) throws InvalidTokenException
+	{
+		//Same as processInfixExpression(String) for a region of the text. See convert(CharSequence, int, int)
+		this.throwIfInvalid(this.convert(infixExpression, offset, length));
+	}
+	
+	private void throwIfInvalid(ConversionResult result) throws InvalidTokenException
+	{
+		//Turns the result of a conversion into the exception of the original API
+		if(!result.isValid())
+			throw new InvalidTokenException(result.getReason());
+	}
+	
+	public ConversionResult convert(String infixExpression)
+	{
+		//Converts an infix expression without throwing when it is invalid. See convert(CharSequence, int, int)
+		return this.convert(infixExpression, 0, infixExpression.length());
+	}
+	
+	public ConversionResult convert(ByteBuffer buffer, int offset, int length)
+	{
+		/*
+		 * Converts an infix expression stored as ASCII text in a buffer, one byte per character. This is how lines of a memory-mapped file are converted.
+		 * 
+		 * Caller Requirements: The bytes from offset to offset + length must be within the limit of buffer. The position and limit of buffer are not used
+		 * 		and not changed, so many threads can read different regions of the same buffer
+		 * Caller Expectations: Same as convert(CharSequence, int, int). The bytes are read in place, no String is created for the expression
+		 */
+		this.byteView.wrap(buffer, offset, length);
+		return this.convert(this.byteView, 0, length);
+	}
+	
+	public ConversionResult convert(CharSequence infixExpression, int offset, int length)
+	{
+		/*
+		 * Converts the region of an infix expression from offset to offset + length. This is what processInfixExpression() does, see its description.
+		 * 
+		 * Caller Requirements: infixExpression must be non-null and the region must be within it
+		 * Caller Expectations: The expression held by this object is cleared first. The result of the conversion is returned, nothing is thrown if the
+		 * 		expression is invalid. The result tells why and at which offset in the region the expression is invalid, its message is only built if
+		 * 		asked for. The result object belongs to this converter and is reused by the next conversion.
+		 * 		Numbers are accumulated in place and variable names are compared in place, so a valid expression without new variable names or oversized
+		 * 		numbers is converted without creating any objects, and so is an invalid expression until its message is asked for
+		 */
+		if(offset < 0 || length < 0 || offset > infixExpression.length() - length)
+			throw new IndexOutOfBoundsException("The region " + offset + " to " + (offset + length) + " is outside of the expression");
+		if(this.metrics == null)
+			return this.convertRegion(infixExpression, offset, offset + length);
+		long startTime = System.nanoTime();
+		ConversionResult result = this.convertRegion(infixExpression, offset, offset + length);
+		long nanos = System.nanoTime() - startTime;
+		if(result.isValid())
+			this.metrics.recordConversion(this.instructions, this.instructionCount, this.maxStackDepth, this.variableNames.size(), length, nanos);
+		else
+			this.metrics.recordConversionFailure(result.getError(), length, nanos);
+		return result;
+	}
+	
+	private ConversionResult convertRegion(CharSequence infixExpression, int offset, int endIndex)
+	{
+		//Converts the region from offset to endIndex, exclusive. See convert(CharSequence, int, int)
+		this.clearExpression();
+		ConversionResult result = this.result;
+		result.reset(infixExpression, offset, endIndex);
+		int tokenStartIndex, tokenEndIndex;		//Used to represent the current token start index and end of token index
+		boolean needsValue = true;				//If true a value (operand) is needed, if false an operator is needed. To begin the loop a value is needed
+		
+		//Process each character in the string. Append values(operands) immediately to the post-fix expression. Push '(' on the stack, process operators and ')'
+		for(tokenStartIndex = tokenEndIndex = offset; tokenEndIndex < endIndex; tokenEndIndex ++)
+		{
+			char currentChar = infixExpression.charAt(tokenEndIndex);		//Get the current character. It may be a token by itself (operator) or part of a token (value)
+			if(Character.isDigit(currentChar))	continue;					//IS the character is a digit? If so then loop until a non-digit character is found.
+			if (tokenStartIndex != tokenEndIndex)							//Is the token start index is not equal to the token end index? Is so a value (operand) exists, append it to the post fix instructions
+			{
+				if(!needsValue)												//Is an operator needed? If so the expression is invalid
+					return result.setError(ConversionError.VALUE_NOT_EXPECTED, tokenStartIndex, tokenEndIndex);
+				if(!this.appendValue(infixExpression, tokenStartIndex, tokenEndIndex))	//Append the value to the post-fix instructions
+					return result.setError(ConversionError.TOO_MANY_OPERANDS, tokenStartIndex, tokenEndIndex);
+				needsValue = false;											//An operator is now needed since a value was just added
+			}
+			if(this.isOperator(currentChar))								//Is the current character an operator? If so process the operator
+			{
+				int operandCount = this.processOperator(infixExpression, tokenEndIndex, endIndex);	//Process the operator and get whether it is binary(2) or unary(1) operator
+				if(operandCount == 0)										//Is the operator unary without a starting parenthesis? If so the expression is invalid
+					return result.setError(ConversionError.MISSING_UNARY_PARENTHESIS, tokenEndIndex, tokenEndIndex + 1);
+				if(operandCount == 2)										//Is the operator a binary operator? If so make sure it's okay to accept an operator
+				{	
+					if(needsValue)											//Is a value(operand) needed? If so then the infix expression is malformed
+						return result.setError(ConversionError.MISSING_OPERAND, tokenEndIndex, tokenEndIndex + 1);
+				}
+				else if(!needsValue)										//Since the operator is unary is an operator needed? If so then the infix expression is malformed
+					return result.setError(ConversionError.UNARY_OPERATOR_NOT_EXPECTED, tokenEndIndex, tokenEndIndex + 1);
+				needsValue = true;
+			}
+			else if(currentChar == '(')										//Is the character a left parenthesis? If so push it onto the stack and indicate a value is needed next
+			{
+				if(!needsValue)												//Is an operator needed? If so the expression is malformed
+					return result.setError(ConversionError.PARENTHESIS_NOT_EXPECTED, tokenEndIndex, tokenEndIndex + 1);
+				this.operatorStack.push('(');
+				this.pushParenthesisOffset(tokenEndIndex);
+				needsValue = true;						
+			}
+			else if(currentChar == ')')										//Is the character a right parenthesis? If so then process the parenthesis
+			{
+				if(needsValue)												//Is a value needed? If so then the previous operator does not have an operand associated with it
+					return result.setError(ConversionError.MISSING_VALUE_BEFORE_PARENTHESIS, tokenEndIndex, tokenEndIndex + 1);
+				if(!this.processRightParenthesis())
+					return result.setError(ConversionError.UNMATCHED_CLOSING_PARENTHESIS, tokenEndIndex, tokenEndIndex + 1);
+			}
+			else if(isVariableStart(currentChar))							//Is the character the start of a variable name? If so append the whole name as a value
+			{
+				int nameEndIndex = tokenEndIndex + 1;
+				while(nameEndIndex < endIndex && isVariablePart(infixExpression.charAt(nameEndIndex)))
+					nameEndIndex++;
+				if(!needsValue)												//Is an operator needed? If so the expression is invalid
+					return result.setError(ConversionError.VARIABLE_NOT_EXPECTED, tokenEndIndex, nameEndIndex);
+				if(!this.appendVariable(infixExpression, tokenEndIndex, nameEndIndex))
+					return result.setError(ConversionError.TOO_MANY_OPERANDS, tokenEndIndex, nameEndIndex);
+				needsValue = false;
+				tokenEndIndex = nameEndIndex - 1;							//Continue after the name
+			}
+			else if(currentChar != ' ')										//Is the token not a space? If not a space then the token is invalid
+				return result.setError(ConversionError.UNRECOGNIZED_CHARACTER, tokenEndIndex, tokenEndIndex + 1);
+			tokenStartIndex = tokenEndIndex + 1;							//Reset the token start index
+		}
+		//Is the token start index is not equal to the token end index? If so a value(operand) exists,  append it to the post-fix instructions. This would be in the case that a value is the last thing in the infix expression
+		if(tokenStartIndex != tokenEndIndex)									
+		{
+			if(!needsValue)													//Is an operator needed? If so then a value(operand) was given without an associated operand
+				return result.setError(ConversionError.VALUE_NOT_EXPECTED, tokenStartIndex, tokenEndIndex);
+			if(!this.appendValue(infixExpression, tokenStartIndex, tokenEndIndex))
+				return result.setError(ConversionError.TOO_MANY_OPERANDS, tokenStartIndex, tokenEndIndex);
+			needsValue = false;												
+		}
+		//Is a value needed? This would occur if the infix expression was ended with an operator without a value(operand) associated with it. The expression is malformed
+		if(needsValue)														
+			return result.setError(ConversionError.MISSING_FINAL_OPERAND, endIndex, endIndex);
+		
+		//Pop any remaining operators off the stack and append to the post-fix expression. If a ( is found then the expression does not contain a corresponding starting parenthesis.
+		while(!this.operatorStack.isEmpty())
+		{
+			char operator = this.operatorStack.pop();
+			if(operator == '(')												//The innermost parenthesis that is still open is the one reported
+			{
+				int parenthesisOffset = this.parenthesisOffsets[this.parenthesisCount - 1];
+				return result.setError(ConversionError.UNMATCHED_OPENING_PARENTHESIS, parenthesisOffset, parenthesisOffset + 1);
+			}
+			this.appendOperator(operator);
+		}
+		
+		//Every token has been appended. The buffers are only copied into an immutable compiled expression if getCompiledExpression() asks for it
+		this.converted = true;
+		return result;
+	}
+	
+	private void pushParenthesisOffset(int offset)
+	{
+		//Remembers where an opening parenthesis is so an error can point to it if it is never closed
+		if(this.parenthesisCount == this.parenthesisOffsets.length)
+			this.parenthesisOffsets = Arrays.copyOf(this.parenthesisOffsets, this.parenthesisCount * 2);
+		this.parenthesisOffsets[this.parenthesisCount++] = offset;
+	}
+	
+	public int evaluate() throws ArithmeticException
+	{
+		/*
+		 * Evaluates the post-fix expression that is contained in this object.
+		 * 
+		 * Caller Requirements: A call to processInfixExpression must have completed without any exceptions
+		 * Caller Expectations: An integer is returned representing the result of the post-fix expression evaluation
+		 *  
+		 * If an operand is outside the range of an integer or while performing calculations an intermediate value is outside of the range of an integer
+		 * 		an Arithmetic Exception is thrown
+		 * 
+		 * The instructions are evaluated with a value stack that is kept by this object, so evaluating the same expression many times does not parse
+		 * 		any text or allocate any memory. See CompiledExpression.evaluate(LongStack)
+		 */
+		return this.evaluate(NO_VARIABLES);
+	}
+	
+	public int evaluate(long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the post-fix expression that is contained in this object using the given values for its variables.
+		 * 
+		 * Caller Requirements: Same as evaluate(). variableValues must hold a value for every variable in the order of 
+		 * 		getCompiledExpression().getVariableNames()
+		 * Caller Expectations: Same as evaluate(). A variable outside the range of an integer causes an ArithmeticException
+		 */
+		if(!this.converted)									//Nothing has been converted, the result of an empty expression is 0
+			return 0;
+		if(this.metrics == null)
+			return this.evaluateInstructions(variableValues);
+		long startTime = System.nanoTime();
+		try
+		{
+			int value = this.evaluateInstructions(variableValues);
+			this.recordEvaluation(null, startTime);
+			return value;
+		}
+		catch(ArithmeticException e)
+		{
+			this.recordEvaluation(e, startTime);
+			throw e;
+		}
+	}
+	
+	private void recordEvaluation(ArithmeticException failure, long startTime)
+	{
+		//Records an evaluation of the converted instructions that started at startTime in the metrics
+		this.metrics.recordEvaluation(this.instructionCount, this.maxStackDepth, failure, System.nanoTime() - startTime);
+	}
+	
+	private int evaluateInstructions(long[] variableValues)
+	{
+		//Evaluates the converted instructions. See evaluate(long[])
+		if(!this.variableNames.isEmpty())					//The compiled expression checks the values and has the names for error messages
+			return this.getCompiledExpression().evaluate(this.valueStack, variableValues);
+		return CompiledExpression.execute(this.instructions, this.instructionCount, this.constants, null, 0, this.maxStackDepth, this.valueStack, variableValues);
+	}
+	
+	public long evaluateLong() throws ArithmeticException
+	{
+		/*
+		 * Evaluates the post-fix expression in the INT64 mode, see NumericMode.
+		 * Caller Requirements: Same as evaluate(). The expression must not contain variables, evaluate the compiled expression for those
+		 * Caller Expectations: Same as CompiledExpression.evaluateLong(). Nothing is allocated. The evaluation is recorded in the metrics like evaluate()
+		 */
+		if(!this.converted)
+			return 0;
+		if(this.metrics == null)
+			return this.evaluateLongInstructions();
+		long startTime = System.nanoTime();
+		try
+		{
+			long value = this.evaluateLongInstructions();
+			this.recordEvaluation(null, startTime);
+			return value;
+		}
+		catch(ArithmeticException e)
+		{
+			this.recordEvaluation(e, startTime);
+			throw e;
+		}
+	}
+	
+	private long evaluateLongInstructions()
+	{
+		//Evaluates the converted instructions in the INT64 mode. See evaluateLong()
+		if(!this.variableNames.isEmpty())					//Throws the exception about the missing values
+			return this.getCompiledExpression().evaluateLong(this.valueStack, NO_VARIABLES);
+		return NumericEvaluator.executeLong(this.instructions, this.instructionCount, this.constants, 0, this.maxStackDepth, this.valueStack, NO_VARIABLES);
+	}
+	
+	public BigInteger evaluateBigInteger() throws ArithmeticException
+	{
+		//Same as evaluateLong() in the BIG_INTEGER mode. See CompiledExpression.evaluateBigInteger()
+		if(!this.converted)
+			return BigInteger.ZERO;
+		if(this.metrics == null)
+			return this.evaluateBigIntegerInstructions();
+		long startTime = System.nanoTime();
+		try
+		{
+			BigInteger value = this.evaluateBigIntegerInstructions();
+			this.recordEvaluation(null, startTime);
+			return value;
+		}
+		catch(ArithmeticException e)
+		{
+			this.recordEvaluation(e, startTime);
+			throw e;
+		}
+	}
+	
+	private BigInteger evaluateBigIntegerInstructions()
+	{
+		//Evaluates the converted instructions in the BIG_INTEGER mode. See evaluateBigInteger()
+		if(!this.variableNames.isEmpty() || !this.oversizedLiterals.isEmpty())	//The compiled expression has the text of oversized literals in an array
+			return this.getCompiledExpression().evaluateBigInteger(NO_BIG_VARIABLES);
+		return NumericEvaluator.executeBigInteger(this.instructions, this.instructionCount, this.constants, null, 0, this.maxStackDepth, NO_BIG_VARIABLES);
+	}
+	
+	public double evaluateDouble()
+	{
+		//Same as evaluateLong() in the DOUBLE mode. See CompiledExpression.evaluateDouble()
+		if(!this.converted)
+			return 0;
+		if(this.metrics == null)
+			return this.evaluateDoubleInstructions();
+		long startTime = System.nanoTime();
+		double value = this.evaluateDoubleInstructions();		//Nothing fails in the DOUBLE mode
+		this.recordEvaluation(null, startTime);
+		return value;
+	}
+	
+	private double evaluateDoubleInstructions()
+	{
+		//Evaluates the converted instructions in the DOUBLE mode. See evaluateDouble()
+		if(this.doubleStack == null)
+			this.doubleStack = new DoubleStack();
+		if(!this.variableNames.isEmpty() || !this.oversizedLiterals.isEmpty())
+			return this.getCompiledExpression().evaluateDouble(this.doubleStack, NO_DOUBLE_VARIABLES);
+		return NumericEvaluator.executeDouble(this.instructions, this.instructionCount, this.constants, null, 0, this.maxStackDepth, this.doubleStack, 
+				NO_DOUBLE_VARIABLES);
+	}
+	
+	public void setMetrics(ExpressionMetrics metrics)
+	{
+		/*
+		 * Records the conversions and evaluations of this object in metrics from now on. null stops recording, which is the default.
+		 * Caller Expectations: The same metrics can be given to any amount of converters, including ones used by other threads
+		 */
+		this.metrics = metrics;
+	}
+	
+	public String getPostfixExpression()
+	{
+		/*
+		 * Returns the converted infix expression as a post fix string
+		 * Caller Requirements: A call to processInfixExpression must have completed without any exceptions for this function to return valid data
+		 * Caller Expectations: String is returned representing the post-fix expression. Each operand and operator is seperated by a space
+		*/
+		if(!this.converted)
+			return "";
+		if(this.postfixBuilder.length() == 0)				//Render the expression only once, into the buffer that is reused by every expression
+		{
+			try
+			{
+				this.writePostfixExpression(this.postfixBuilder);
+			}
+			catch(IOException e)
+			{//A StringBuilder never throws an IOException
+			}
+		}
+		return this.postfixBuilder.toString();
+	}
+	
+	public void writePostfixExpression(Appendable output) throws IOException
+	{
+		/*
+		 * Writes the converted infix expression as a post fix string to output without creating a String
+		 * Caller Requirements: A call to processInfixExpression must have completed without any exceptions for this function to write valid data
+		 * Caller Expectations: The same text as getPostfixExpression() is written to output. Any IOException thrown by output is passed on
+		 */
+		if(!this.converted)
+			return;
+		if(!this.oversizedLiterals.isEmpty() || !this.variableNames.isEmpty())	//Names and literal text are kept in lists, the compiled expression has arrays
+			this.getCompiledExpression().writePostfixExpression(output);
+		else
+			CompiledExpression.writeInstructions(output, this.instructions, 0, this.instructionCount, this.constants, null, null, null, this.digits);
+	}
+	
+	public CompiledExpression getCompiledExpression()
+	{
+		/*
+		 * Returns the converted infix expression in its compiled form
+		 * Caller Requirements: A call to processInfixExpression must have completed without any exceptions for this function to return valid data
+		 * Caller Expectations: The compiled expression is returned, or null if no expression has been converted. The compiled expression is immutable
+		 * 		and stays valid after this object is cleared or reused
+		 */
+		if(this.converted && this.compiledExpression == null)	//Copy the buffers the first time the compiled expression is asked for
+		{
+			String[] oversized = this.oversizedLiterals.isEmpty() ? null : this.oversizedLiterals.toArray(new String[this.oversizedLiterals.size()]);
+			this.compiledExpression = new CompiledExpression(Arrays.copyOf(this.instructions, this.instructionCount), 
+					Arrays.copyOf(this.constants, this.constantCount), oversized, this.variableNames.toArray(new String[this.variableNames.size()]), 
+					this.maxStackDepth, 0);
+		}
+		return this.compiledExpression;
+	}
+	
+	public void clearExpression()
+	{
+		// This function resets the class. Should be called when a new infix expression is going to be processed. The buffers are kept for the next expression
+		this.operatorStack.clear();
+		this.instructionCount = 0;
+		this.constantCount = 0;
+		this.stackDepth = 0;
+		this.maxStackDepth = 0;
+		this.oversizedLiterals.clear();
+		this.variableNames.clear();
+		this.parenthesisCount = 0;
+		this.converted = false;
+		this.compiledExpression = null;
+		this.postfixBuilder.setLength(0);
+	}
+	
+	protected boolean appendValue(CharSequence infixExpression, int startIndex, int endIndex)
+	{
+		/*
+		 * Appends a value (operand) to the post-fix instructions.
+		 * 
+		 * Caller Requirements: The characters from startIndex (inclusive) to endIndex (exclusive) must all be digits
+		 * Caller Expectations: The digits are converted to a number in place. Numbers outside of the range of an integer are appended as an oversized value
+		 * 		that throws an ArithmeticException when evaluated. If the number does not fit in a long its text is kept so it can still be displayed.
+		 * 		Returns false and appends nothing if the expression already has CompiledExpression.MAX_OPERAND + 1 values, the most an instruction can index
+		 */
+		if(this.constantCount > CompiledExpression.MAX_OPERAND)
+			return false;
+		long value = 0;
+		for(int i = startIndex; i < endIndex && value >= 0; i ++)			//Accumulate the digits. value becomes negative if it does not fit in a long
+		{
+			int digit = Character.digit(infixExpression.charAt(i), 10);
+			value = value > (Long.MAX_VALUE - digit) / 10 ? -1 : value * 10 + digit;
+		}
+		int opcode = CompiledExpression.OP_VALUE;
+		if(value < 0)													//Keep the text of the literal and store its index as a negative value
+		{
+			this.oversizedLiterals.add(infixExpression.subSequence(startIndex, endIndex).toString());
+			value = -this.oversizedLiterals.size();
+			opcode = CompiledExpression.OP_OVERSIZED_VALUE;
+		}
+		else if(value > Integer.MAX_VALUE)
+			opcode = CompiledExpression.OP_OVERSIZED_VALUE;
+		if(this.constantCount == this.constants.length)
+			this.constants = Arrays.copyOf(this.constants, this.constantCount * 2);
+		this.constants[this.constantCount] = value;
+		this.appendInstruction(CompiledExpression.instruction(opcode, this.constantCount++));
+		if(++this.stackDepth > this.maxStackDepth)						//A value adds to the stack. Track the deepest point for the evaluation stack size
+			this.maxStackDepth = this.stackDepth;
+		return true;
+	}
+	
+	protected boolean appendVariable(CharSequence infixExpression, int startIndex, int endIndex)
+	{
+		/*
+		 * Appends a variable to the post-fix instructions.
+		 * 
+		 * Caller Requirements: The characters from startIndex (inclusive) to endIndex (exclusive) must be a variable name
+		 * Caller Expectations: Every use of the same name refers to the same variable. Variables are numbered in order of their first use. Returns
+		 * 		false and appends nothing if the name is new and the expression already has CompiledExpression.MAX_OPERAND + 1 variables
+		 */
+		int variableIndex = 0;
+		while(variableIndex < this.variableNames.size())				//Look for the name among the variables that are already used
+		{
+			String name = this.variableNames.get(variableIndex);
+			if(name.length() == endIndex - startIndex && regionMatches(infixExpression, startIndex, name))
+				break;
+			variableIndex++;
+		}
+		if(variableIndex > CompiledExpression.MAX_OPERAND)
+			return false;
+		if(variableIndex == this.variableNames.size())
+			this.variableNames.add(infixExpression.subSequence(startIndex, endIndex).toString());
+		this.appendInstruction(CompiledExpression.instruction(CompiledExpression.OP_VARIABLE, variableIndex));
+		if(++this.stackDepth > this.maxStackDepth)
+			this.maxStackDepth = this.stackDepth;
+		return true;
+	}
+	
+	private static boolean regionMatches(CharSequence text, int startIndex, String name)
+	{
+		//Determines if the characters of text starting at startIndex are the characters of name. Compares in place so no String is created
+		for(int i = 0; i < name.length(); i ++)
+			if(text.charAt(startIndex + i) != name.charAt(i))
+				return false;
+		return true;
+	}
+	
+	protected void appendOperator(char operator)
+	{
+		//Appends an operator to the post-fix instructions. Binary operators take two values from the stack and leave one
+		int opcode = CompiledExpression.opcodeOf(operator);
+		this.appendInstruction(opcode);
+		if(opcode != CompiledExpression.OP_SQUARE_ROOT && opcode != CompiledExpression.OP_CUBE_ROOT)
+			this.stackDepth--;
+	}
+	
+	private void appendInstruction(int instruction)
+	{
+		//Appends an instruction, growing the buffer when it is full
+		if(this.instructionCount == this.instructions.length)
+			this.instructions = Arrays.copyOf(this.instructions, this.instructionCount * 2);
+		this.instructions[this.instructionCount++] = instruction;
+	}
+	
+	protected boolean isOperator(char what)
+	{
+		//Determines if the specified character is an operator. Valid operators are (+,-,*,/,^,Q,C,<,>,%)
+		switch(what)
+		{
+		case '+':	return true;
+		case '-':	return true;
+		case '*':	return true;
+		case '/':	return true;
+		case '^':	return true;
+		case 'Q': 	return true;
+		case 'C':	return true;
+		case '<': 	return true;
+		case '>':	return true;
+		case '%':	return true;
+		default :	return false;
+		}
+	}
+	
+	protected static boolean isVariableStart(char what)
+	{
+		//Determines if the specified character can start a variable name (a-z or _)
+		return (what >= 'a' && what <= 'z') || what == '_';
+	}
+	
+	protected static boolean isVariablePart(char what)
+	{
+		//Determines if the specified character can be part of a variable name after the first character (a-z, 0-9 or _)
+		return isVariableStart(what) || (what >= '0' && what <= '9');
+	}
+	
+	protected int processOperator(CharSequence infixExpression, int operatorIndex, int endIndex)
+	{
+		/*
+		 * Processes an operator in an infix expression. 
+		 * 
+		 * Caller Requirements: A valid operator must exist at operatorIndex in infixExpression. endIndex is the end of the expression (exclusive) 
+		 * Caller Expectations: The function returns how many operands are required are for the operator. 1 for unary, 2 for binary operators.
+		 * 		Upon return all operators of higher precedence are popped from the operator stack until a starting parenthesis '(' is found.
+		 * 		0 is returned and nothing is pushed if a unary operator does not contain a '(' following it (ignores whitespace)
+		 * 
+		 */
+		char operatorToken = infixExpression.charAt(operatorIndex);						//Get the operator
+		
+		//Our unary operators have the highest precedence so do not worry about popping the stack but check to make sure the beginning parenthesis exists
+		if(operatorToken == 'Q' || operatorToken == 'C')								//Is the operator unary? If so make sure a beginning parenthesis exists
+		{
+			//Skip whitespace after the operator. Like String.trim() every character up to a space counts as whitespace
+			int openingParenIndex = operatorIndex + 1;
+			while(openingParenIndex < endIndex && infixExpression.charAt(openingParenIndex) <= ' ')
+				openingParenIndex++;
+			//Is the first character that is not whitespace something other than a beginning parenthesis? If so the expression is invalid
+			if(openingParenIndex == endIndex || infixExpression.charAt(openingParenIndex) != '(')
+				return 0;
+		}
+		//The operator is a binary operator at this point. Pop all operators off the stack and append to the post fix expression until a '(' is found
+		else
+			while(!this.operatorStack.isEmpty() && this.operatorStack.peek() != '(')
+				this.appendOperator(this.operatorStack.pop());
+		//Push the operator onto the stack
+		operatorStack.push(operatorToken);
+		if(operatorToken == 'Q' || operatorToken == 'C')		//Is the operator a unary operator? If so return 1
+			return 1;
+		return 2;												//Operator was binary
+	}
+	
+	protected boolean processRightParenthesis()
+	{
+		/*
+		 * Processes a right parenthesis. Pops all operators off the stack and appends to the post fix string until a beginning parenthesis '(' is found.
+		 * 
+		 * Caller requirements: None
+		 * Caller expectations: The function will append all operators on the stack to the post-fix string until a '(' is found. If a '(' is not found the 
+		 * 		infix expression is invalid and false is returned.
+		 */
+		
+		//Loop until the stack is empty or a beginning parenthesis is found. Append every popped operator to the string
+		while(!this.operatorStack.isEmpty())	
+		{	
+			char token = this.operatorStack.pop();
+			if(token == '(')								//If the operator is a beginning parenthesis stop looping and the expression is valid		
+			{
+				this.parenthesisCount--;
+				return true;
+			}
+			this.appendOperator(token);
+		}
+		
+		//At this point the stack id not contain a beginning parenthesis so the expression is invalid
+		return false;
+	}
+	
+	protected CharStack operatorStack;				//A stack of operators used for converting an infix expression to a post-fix expression
+	protected int[] instructions;					//Post-fix instructions of the expression being converted, see CompiledExpression
+	protected int instructionCount;					//Amount of instructions used in the instruction buffer
+	protected long[] constants;						//Operand values referenced by the instructions
+	protected int constantCount;					//Amount of operand values used in the constant buffer
+	protected ArrayList<String> oversizedLiterals;	//Text of operands that do not fit in a long
+	protected ArrayList<String> variableNames;		//Names of the variables in order of their first use
+	protected int stackDepth;						//Amount of values that would be on the evaluation stack after the appended instructions
+	protected int maxStackDepth;					//Largest value of stackDepth so far
+	protected boolean converted;					//Whether the buffers hold a successfully converted expression
+	protected CompiledExpression compiledExpression;//Copy of the buffers made by getCompiledExpression(), null until it is asked for
+	protected LongStack valueStack;					//Value stack reused by evaluate()
+	protected StringBuilder postfixBuilder;			//Buffer the post-fix string is rendered into by getPostfixExpression(), reused by every expression
+	private final AsciiSequence byteView;			//View of the bytes given to processInfixExpression(ByteBuffer, int, int), moved for every expression
+	private final char[] digits;					//Scratch space for writing numbers
+	private int[] parenthesisOffsets;				//Offsets of the opening parentheses that are not closed yet, in the order they were found
+	private int parenthesisCount;					//Amount of offsets used in parenthesisOffsets
+	private final ConversionResult result;			//Result of the last conversion, reused by every conversion
+	private ExpressionMetrics metrics;				//Where conversions and evaluations are recorded, null when they are not
+	private DoubleStack doubleStack;				//Value stack reused by evaluateDouble(), created when it is first used
+	
+	private static final long[] NO_VARIABLES = new long[0];
+	private static final BigInteger[] NO_BIG_VARIABLES = new BigInteger[0];
+	private static final double[] NO_DOUBLE_VARIABLES = new double[0];
+}
@@ -0,0 +1,387 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class converts an infix expression to post-fix while its text arrives, for expressions that are too large to hold in memory or that are read
+ * from a stream. Text is given in chunks of any size with feed() and every post-fix token is written to the output as soon as it is known, followed by
+ * a space like getPostfixExpression() does. finish() ends the expression. The expression is checked with the same rules and the same messages as
+ * PostfixNotationCreator.convert(), but each character is looked at once: a unary operator only remembers that it is waiting for its '(' instead of
+ * searching ahead for it.
+ *
+ * The memory used grows with how deeply the expression is nested, not with its length. The operator stack holds at most a binary operator and the
+ * unary operators per open parenthesis, and a number only keeps the digits that fit in a long; the digits of a number too large for a long are written
+ * straight to the output. Only the text of an invalid token is kept, for the message.
+ *
+ * Tokens are written before the rest of the expression is checked, so when the expression turns out to be invalid the output already holds the tokens
+ * before the error. Callers that must not write anything for an invalid expression should give an output they can take back, like a StringBuilder.
+ */
+package expression;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+public final class PostfixStreamConverter
+{
+	public PostfixStreamConverter(Appendable output)
+	{
+		/*
+		 * Creates a converter writing the post-fix tokens of every expression to output.
+		 * Caller Requirements: output must be non-null
+		 */
+		this.output = output;
+		this.operatorStack = new CharStack();
+		this.parenthesisOffsets = new long[16];
+		this.numberText = new StringBuilder(20);
+		this.errorText = new StringBuilder();
+		this.digits = new char[20];							//20 chars is enough room for the digits of any long
+		this.result = new ConversionResult();
+		this.needsValue = true;
+	}
+
+	public boolean feed(char[] chars, int offset, int length) throws IOException
+	{
+		/*
+		 * Converts the next part of the expression.
+		 * Caller Requirements: The region from offset to offset + length must be within chars. A token may be split across any two calls
+		 * Caller Expectations: Returns false once the expression is known to be invalid; the rest of the text is then ignored and finish() tells why.
+		 * 		Any IOException thrown by the output is passed on
+		 */
+		if(offset < 0 || length < 0 || offset > chars.length - length)
+			throw new IndexOutOfBoundsException("The region " + offset + " to " + (offset + length) + " is outside of the array");
+		for(int i = offset, end = offset + length; i < end && this.error == null; i ++)
+		{
+			this.processCharacter(chars[i]);
+			this.position++;
+		}
+		return this.error == null;
+	}
+
+	public ConversionResult finish() throws IOException
+	{
+		/*
+		 * Ends the expression and writes the operators that are still waiting for it to end.
+		 * Caller Expectations: Returns the result of the conversion, with the offsets of errors counted from the first character fed. The result object
+		 * 		is reused by the next expression. The converter is cleared and ready for the next expression
+		 */
+		try
+		{
+			if(this.error == null)
+				this.endExpression();
+			if(this.error != null)
+				return this.result.setStreamError(this.error, this.errorText, this.errorAtEnd, this.errorOffset);
+			this.result.reset(this.errorText, 0, 0);
+			return this.result;
+		}
+		finally
+		{
+			this.operatorStack.clear();
+			this.parenthesisCount = 0;
+			this.state = NONE;
+			this.needsValue = true;
+			this.position = 0;
+			this.error = null;
+		}
+	}
+
+	public ConversionResult convert(Reader input) throws IOException
+	{
+		/*
+		 * Converts the whole text of a reader as one expression. The reader is read in chunks and stops being read once the expression is invalid.
+		 * Caller Expectations: Same as finish(). The reader is not closed. Any IOException thrown by the reader or the output is passed on
+		 */
+		char[] buffer = new char[1 << 13];
+		int readCount;
+		while((readCount = input.read(buffer)) >= 0)
+			if(!this.feed(buffer, 0, readCount))
+				break;
+		return this.finish();
+	}
+
+	private void processCharacter(char character) throws IOException
+	{
+		//Continues the token that is being read, or starts a new token with the character
+		switch(this.state)
+		{
+		case NUMBER:
+			if(Character.isDigit(character))
+			{
+				this.appendDigit(character);
+				return;
+			}
+			this.endNumber();
+			break;
+		case VARIABLE:
+			if(PostfixNotationCreator.isVariablePart(character))
+			{
+				this.output.append(character);
+				return;
+			}
+			this.output.append(' ');
+			break;
+		case INVALID_VALUE:
+		case INVALID_VARIABLE:						//Keep the text of the token for the message until it ends
+			if(this.state == INVALID_VALUE ? Character.isDigit(character) : PostfixNotationCreator.isVariablePart(character))
+				this.errorText.append(character);
+			else
+			{
+				this.error = this.invalidTokenError;
+				this.errorAtEnd = false;
+			}
+			return;
+		case UNARY:
+			if(!this.processUnaryLookahead(character))
+				return;
+			break;
+		default:
+			break;
+		}
+		this.state = NONE;
+		this.startToken(character);
+	}
+
+	private void startToken(char character) throws IOException
+	{
+		//Processes a character that is not part of the token before it, the same way PostfixNotationCreator.convert() does
+		if(Character.isDigit(character))
+		{
+			if(!this.needsValue)
+				this.startInvalidToken(ConversionError.VALUE_NOT_EXPECTED, INVALID_VALUE, character);
+			else
+			{
+				this.state = NUMBER;
+				this.number = 0;
+				this.leadingZeros = 0;
+				this.numberOverflowed = false;
+				this.numberText.setLength(0);
+				this.appendDigit(character);
+				this.needsValue = false;
+			}
+		}
+		else if(character == 'Q' || character == 'C')			//Whether the operator is valid is only known once its '(' is found
+		{
+			this.state = UNARY;
+			this.unaryOperator = character;
+			this.unaryOffset = this.position;
+			this.controlOffset = -1;
+		}
+		else if(isBinaryOperator(character))
+		{
+			if(this.needsValue)
+			{
+				this.fail(ConversionError.MISSING_OPERAND, character, this.position);
+				return;
+			}
+			while(!this.operatorStack.isEmpty() && this.operatorStack.peek() != '(')
+				this.output.append(this.operatorStack.pop()).append(' ');
+			this.operatorStack.push(character);
+			this.needsValue = true;
+		}
+		else if(character == '(')
+		{
+			if(!this.needsValue)
+			{
+				this.fail(ConversionError.PARENTHESIS_NOT_EXPECTED, character, this.position);
+				return;
+			}
+			this.operatorStack.push('(');
+			if(this.parenthesisCount == this.parenthesisOffsets.length)
+				this.parenthesisOffsets = Arrays.copyOf(this.parenthesisOffsets, this.parenthesisCount * 2);
+			this.parenthesisOffsets[this.parenthesisCount++] = this.position;
+		}
+		else if(character == ')')
+		{
+			if(this.needsValue)
+			{
+				this.fail(ConversionError.MISSING_VALUE_BEFORE_PARENTHESIS, character, this.position);
+				return;
+			}
+			char operator;
+			while(!this.operatorStack.isEmpty() && (operator = this.operatorStack.pop()) != '(')
+				this.output.append(operator).append(' ');
+			if(this.parenthesisCount == 0)						//The stack ran out without a '('
+				this.fail(ConversionError.UNMATCHED_CLOSING_PARENTHESIS, character, this.position);
+			else
+				this.parenthesisCount--;
+		}
+		else if(PostfixNotationCreator.isVariableStart(character))
+		{
+			if(!this.needsValue)
+				this.startInvalidToken(ConversionError.VARIABLE_NOT_EXPECTED, INVALID_VARIABLE, character);
+			else
+			{
+				this.state = VARIABLE;
+				this.output.append(character);
+				this.needsValue = false;
+			}
+		}
+		else if(character != ' ')
+			this.fail(ConversionError.UNRECOGNIZED_CHARACTER, character, this.position);
+	}
+
+	private boolean processUnaryLookahead(char character)
+	{
+		/*
+		 * Checks the character after a unary operator. Like PostfixNotationCreator.processOperator() every character up to a space is skipped while
+		 * 		looking for the '(', but one other than a space is still an unrecognized character once the '(' is found.
+		 * Caller Expectations: Returns true when the character is the '(' and the operator was pushed, false when the character was skipped or the
+		 * 		expression is invalid
+		 */
+		if(character <= ' ')
+		{
+			if(character != ' ' && this.controlOffset < 0)
+			{
+				this.controlCharacter = character;
+				this.controlOffset = this.position;
+			}
+			return false;
+		}
+		if(character != '(')
+			this.fail(ConversionError.MISSING_UNARY_PARENTHESIS, this.unaryOperator, this.unaryOffset);
+		else if(!this.needsValue)
+			this.fail(ConversionError.UNARY_OPERATOR_NOT_EXPECTED, this.unaryOperator, this.unaryOffset);
+		else if(this.controlOffset >= 0)
+			this.fail(ConversionError.UNRECOGNIZED_CHARACTER, this.controlCharacter, this.controlOffset);
+		else
+		{
+			this.operatorStack.push(this.unaryOperator);
+			return true;
+		}
+		return false;
+	}
+
+	private void endExpression() throws IOException
+	{
+		//Ends the token being read and checks and writes what is left, like the end of PostfixNotationCreator.convert()
+		switch(this.state)
+		{
+		case NUMBER:
+			this.endNumber();
+			break;
+		case VARIABLE:
+			this.output.append(' ');
+			break;
+		case INVALID_VALUE:
+		case INVALID_VARIABLE:
+			this.error = this.invalidTokenError;		//The token is at the end, errorAtEnd is still set
+			return;
+		case UNARY:
+			this.fail(ConversionError.MISSING_UNARY_PARENTHESIS, this.unaryOperator, this.unaryOffset);
+			return;
+		default:
+			break;
+		}
+		if(this.needsValue)
+		{
+			this.errorText.setLength(0);
+			this.error = ConversionError.MISSING_FINAL_OPERAND;
+			this.errorAtEnd = true;
+			this.errorOffset = this.position;
+			return;
+		}
+		while(!this.operatorStack.isEmpty())
+		{
+			char operator = this.operatorStack.pop();
+			if(operator == '(')							//The innermost parenthesis that is still open is the one reported
+			{
+				this.fail(ConversionError.UNMATCHED_OPENING_PARENTHESIS, '(', this.parenthesisOffsets[this.parenthesisCount - 1]);
+				return;
+			}
+			this.output.append(operator).append(' ');
+		}
+	}
+
+	private void appendDigit(char character) throws IOException
+	{
+		/*
+		 * Adds a digit to the number being read. Leading zeros are only counted and the other digits are kept until the number no longer fits in a long;
+		 * 		from then on the text of the number is written as it arrives, the same as an oversized literal is written by getPostfixExpression()
+		 */
+		if(this.numberOverflowed)
+		{
+			this.output.append(character);
+			return;
+		}
+		if(character == '0' && this.number == 0 && this.numberText.length() == 0)
+		{
+			this.leadingZeros++;
+			return;
+		}
+		int digit = Character.digit(character, 10);
+		if(this.number > (Long.MAX_VALUE - digit) / 10)
+		{
+			for(long i = 0; i < this.leadingZeros; i ++)
+				this.output.append('0');
+			this.output.append(this.numberText).append(character);
+			this.numberOverflowed = true;
+			return;
+		}
+		this.number = this.number * 10 + digit;
+		this.numberText.append(character);
+	}
+
+	private void endNumber() throws IOException
+	{
+		//Writes the number that was read unless its text was already written
+		if(!this.numberOverflowed)
+			CompiledExpression.writeNumber(this.output, this.number, this.digits);
+		this.output.append(' ');
+	}
+
+	private void startInvalidToken(ConversionError error, int state, char character)
+	{
+		//Starts keeping the text of a value or variable that makes the expression invalid. The error is set once the token ends
+		this.state = state;
+		this.invalidTokenError = error;
+		this.errorText.setLength(0);
+		this.errorText.append(character);
+		this.errorAtEnd = true;
+		this.errorOffset = this.position;
+	}
+
+	private void fail(ConversionError error, char token, long offset)
+	{
+		//Marks the expression as invalid because of a single character token
+		this.errorText.setLength(0);
+		this.errorText.append(token);
+		this.error = error;
+		this.errorAtEnd = false;
+		this.errorOffset = offset;
+	}
+
+	private static boolean isBinaryOperator(char what)
+	{
+		//Determines if the specified character is a binary operator (+,-,*,/,^,<,>,%)
+		return CompiledExpression.isBinaryOperator(CompiledExpression.opcodeOf(what));
+	}
+
+	private static final int NONE = 0;					//Between tokens
+	private static final int NUMBER = 1;				//Reading the digits of a value
+	private static final int VARIABLE = 2;				//Writing the characters of a variable name
+	private static final int UNARY = 3;					//Looking for the '(' of a unary operator
+	private static final int INVALID_VALUE = 4;			//Keeping the text of a value where an operator is needed
+	private static final int INVALID_VARIABLE = 5;		//Keeping the text of a variable where an operator is needed
+
+	private final Appendable output;					//Where the post-fix tokens are written
+	private final CharStack operatorStack;				//Operators and parentheses waiting for their operands
+	private long[] parenthesisOffsets;					//Offsets of the opening parentheses that are not closed yet, in the order they were found
+	private int parenthesisCount;						//Amount of offsets used in parenthesisOffsets
+	private int state;									//What the last character was part of, one of the constants above
+	private boolean needsValue;							//If true a value (operand) is needed, if false an operator is needed
+	private long position;								//Offset of the next character from the start of the expression
+	private long number;								//Value of the digits read so far, without the leading zeros
+	private long leadingZeros;							//Amount of '0' digits before the first other digit
+	private boolean numberOverflowed;					//Whether the number is too large for a long and its text is being written
+	private final StringBuilder numberText;				//Digits of the number after its leading zeros, until it overflows
+	private char unaryOperator;							//The unary operator waiting for its '('
+	private long unaryOffset;							//Offset of unaryOperator
+	private char controlCharacter;						//First character other than a space skipped after the unary operator
+	private long controlOffset;							//Offset of controlCharacter, -1 if there was none
+	private ConversionError invalidTokenError;			//Error of the invalid token whose text is being kept
+	private ConversionError error;						//Why the expression is invalid, null while it is valid
+	private final StringBuilder errorText;				//Text of the token that made the expression invalid
+	private boolean errorAtEnd;							//Whether the invalid token ends the expression
+	private long errorOffset;							//Offset of the token that made the expression invalid
+	private final char[] digits;						//Scratch space for writing numbers
+	private final ConversionResult result;				//Result of the last expression, reused by every expression
+}
@@ -5,6 +5,8 @@
  * This generic class is a First in Last out Stack of a generic type. Created as a class to show an understanding of how stacks work. Allows peeking, popping, pushing,
  * clearing and determining if the stack is empty.
  */
+package expression;
+
 public class Stack <T> 
 {
 	void clear()
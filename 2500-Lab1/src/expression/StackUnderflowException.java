@@ -4,6 +4,8 @@
  * 
  * Created to represent an exception that is thrown when a peek or pop operation is made on a stack that is empty.
  */
+package expression;
+
 public class StackUnderflowException extends Exception
 {
 	public StackUnderflowException()
@@ -0,0 +1,69 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class is a bounded pool of scratch objects that can be used by any number of threads without locking. The pooled objects are kept in an array of
+ * slots. A thread starts looking at a slot picked from its id and takes the first object it finds by swapping the slot with null, so threads mostly
+ * use different slots and do not contend. When no object is found a new one is created, and when an object is returned to a full pool it is dropped.
+ * Unlike a ThreadLocal the amount of pooled objects does not grow with the amount of threads, which matters when there are many short-lived threads.
+ */
+package expression;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+abstract class StripedPool<T>
+{
+	StripedPool(int capacity)
+	{
+		/*
+		 * Creates an empty pool.
+		 * Caller Requirements: capacity must be greater than 0
+		 * Caller Expectations: At most capacity objects are kept, rounded up to a power of two
+		 */
+		if(capacity < 1)
+			throw new IllegalArgumentException("The capacity of the pool must be greater than 0");
+		int slotCount = Integer.highestOneBit(capacity);
+		if(slotCount < capacity)
+			slotCount <<= 1;
+		this.slots = new AtomicReferenceArray<T>(slotCount);
+		this.mask = slotCount - 1;
+	}
+
+	protected abstract T create();			//Creates a new object when the pool has none near the slot of the thread
+
+	T acquire()
+	{
+		/*
+		 * Takes an object from the pool, or creates one if the slots near the slot of the thread are empty.
+		 * Caller Expectations: The object is only used by the caller until it is given back with release()
+		 */
+		int start = stripe();
+		for(int i = 0; i < PROBE_COUNT; i ++)
+		{
+			T item = this.slots.getAndSet((start + i) & this.mask, null);
+			if(item != null)
+				return item;
+		}
+		return this.create();
+	}
+
+	void release(T item)
+	{
+		//Gives an object back to the pool. The object is dropped if the slots near the slot of the thread are all full
+		int start = stripe();
+		for(int i = 0; i < PROBE_COUNT; i ++)
+			if(this.slots.compareAndSet((start + i) & this.mask, null, item))
+				return;
+	}
+
+	private static int stripe()
+	{
+		//Spreads the thread ids over the slots. Thread ids are consecutive so they are multiplied by a large odd number first
+		return (int)((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 40);
+	}
+
+	private static final int PROBE_COUNT = 4;		//Slots looked at before creating or dropping an object
+
+	private final AtomicReferenceArray<T> slots;	//Pooled objects, null where a slot is empty
+	private final int mask;							//Amount of slots minus 1, the amount of slots is a power of two
+}
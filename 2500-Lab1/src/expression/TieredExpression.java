@@ -0,0 +1,91 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * This class evaluates a compiled expression with the interpreter until it has been evaluated a configurable amount of times, then generates a JVM class
+ * for it with BytecodeCompiler and uses that from then on. Cold expressions never pay for generating a class, hot expressions get straight-line code the
+ * JIT can inline. Results and exceptions are the same in both tiers.
+ */
+package expression;
+
+public final class TieredExpression
+{
+	public TieredExpression(CompiledExpression expression)
+	{
+		this(expression, DEFAULT_COMPILE_THRESHOLD);
+	}
+
+	public TieredExpression(CompiledExpression expression, int compileThreshold)
+	{
+		/*
+		 * Creates a tiered expression.
+		 * Caller Requirements: expression must be non-null. compileThreshold must not be negative
+		 * Caller Expectations: The expression is interpreted for its first compileThreshold evaluations. 0 generates the class on the first evaluation
+		 */
+		if(compileThreshold < 0)
+			throw new IllegalArgumentException("The compile threshold must not be negative");
+		this.expression = expression;
+		this.compileThreshold = compileThreshold;
+	}
+
+	public int evaluate(LongStack valueStack) throws ArithmeticException
+	{
+		//Evaluates an expression without variables, see evaluate(LongStack, long[])
+		return this.evaluate(valueStack, NO_VARIABLES);
+	}
+
+	public int evaluate(LongStack valueStack, long[] variableValues) throws ArithmeticException
+	{
+		/*
+		 * Evaluates the expression.
+		 *
+		 * Caller Requirements: Same as CompiledExpression.evaluate(LongStack, long[]). The value stack is only used by the interpreter
+		 * Caller Expectations: Same as CompiledExpression.evaluate(LongStack, long[])
+		 *
+		 * Can be called by many threads at once. The evaluation count is not exact when it is, so the class may be generated a few evaluations late, and
+		 * 		two threads can both generate a class for the expression. Either class gives the same results.
+		 */
+		GeneratedEvaluator generated = this.generated;
+		if(generated != null)
+		{
+			this.expression.checkVariableCount(variableValues.length);
+			return generated.evaluate(variableValues);
+		}
+		if(this.evaluationCount >= this.compileThreshold && this.evaluationCount != NEVER_COMPILE)
+		{
+			generated = BytecodeCompiler.compile(this.expression);
+			if(generated == null)							//Too large to generate, keep interpreting
+				this.evaluationCount = NEVER_COMPILE;
+			else
+			{
+				this.generated = generated;
+				this.expression.checkVariableCount(variableValues.length);
+				return generated.evaluate(variableValues);
+			}
+		}
+		else if(this.evaluationCount != NEVER_COMPILE)
+			this.evaluationCount++;
+		return this.expression.evaluate(valueStack, variableValues);
+	}
+
+	public boolean isGenerated()
+	{
+		//Returns whether the expression is evaluated by a generated class
+		return this.generated != null;
+	}
+
+	public CompiledExpression getCompiledExpression()
+	{
+		return this.expression;
+	}
+
+	public static final int DEFAULT_COMPILE_THRESHOLD = 1000;		//Evaluations before a class is generated when no threshold is given
+
+	private static final int NEVER_COMPILE = -1;				//Evaluation count of an expression that is too large to generate a class for
+	private static final long[] NO_VARIABLES = new long[0];
+
+	private final CompiledExpression expression;				//The expression, used by the interpreter
+	private final int compileThreshold;							//Evaluations before a class is generated
+	private int evaluationCount;								//Evaluations done by the interpreter so far
+	private volatile GeneratedEvaluator generated;				//The generated class once it exists
+}
@@ -0,0 +1,152 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that the batch mode writes, in input order, the same lines as converting and evaluating every expression one after the other.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+public class BatchEvaluatorTest
+{
+	@Test
+	public void readerMatchesSequentialEvaluation() throws IOException, InterruptedException
+	{
+		String[] lines = lines(5, 3000);
+		String expected = expectedOutput(lines, NumericMode.INT32);
+		int[][] configurations = {{1, 1}, {3, 7}, {4, 1000}};
+		for(int[] configuration : configurations)
+		{
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			long count = new BatchEvaluator(configuration[0], configuration[1]).run(new BufferedReader(new StringReader(join(lines, "\n"))), output);
+			assertEquals(lines.length, count);
+			assertEquals(expected, output.toString("US-ASCII"));
+		}
+	}
+
+	@Test
+	public void mappedFileMatchesSequentialEvaluation() throws IOException, InterruptedException
+	{
+		String[] lines = lines(6, 3000);
+		File file = File.createTempFile("expressions", ".txt");
+		try
+		{
+			FileOutputStream fileOutput = new FileOutputStream(file);
+			fileOutput.write(join(lines, "\r\n").getBytes("US-ASCII"));		//Windows line ends, the '\r' is not part of the expression
+			fileOutput.close();
+			RandomAccessFile input = new RandomAccessFile(file, "r");
+			try
+			{
+				for(NumericMode mode : NumericMode.values())
+				{
+					ByteArrayOutputStream output = new ByteArrayOutputStream();
+					long count = new BatchEvaluator(3, 5, mode, null).run(input.getChannel(), output);
+					assertEquals(lines.length, count);
+					assertEquals(mode.toString(), expectedOutput(lines, mode), output.toString("US-ASCII"));
+				}
+			}
+			finally
+			{
+				input.close();
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void divisionWithoutMessageIsReportedAsDivideByZero()
+	{
+		//What HotSpot throws once a division by zero is hot
+		assertEquals("/ by zero", BatchEvaluator.messageOf(new ArithmeticException()));
+		assertEquals("Error: An operand is too large", BatchEvaluator.messageOf(new ArithmeticException("Error: An operand is too large")));
+	}
+
+	@Test
+	public void hotDivisionByZeroKeepsItsMessage() throws IOException, InterruptedException
+	{
+		//Enough divisions by zero for the JIT to compile the evaluation loop, every line must still have the message
+		String[] lines = new String[200000];
+		for(int i = 0; i < lines.length; i ++)
+			lines[i] = i + " / 0";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new BatchEvaluator(2, 1000).run(new BufferedReader(new StringReader(join(lines, "\n"))), output);
+		String[] results = output.toString("US-ASCII").split("\n");
+		assertEquals(lines.length, results.length);
+		for(String result : results)
+			assertEquals("/ by zero", result);
+	}
+
+	static String[] lines(long seed, int count)
+	{
+		//Random expressions without variables, every tenth one made invalid with a character that is not part of any token
+		RandomExpressions expressions = new RandomExpressions(seed, 0);
+		String[] lines = new String[count];
+		for(int i = 0; i < count; i ++)
+		{
+			lines[i] = expressions.next(1 + i % 9);
+			if(i % 10 == 3)
+			{
+				int position = expressions.getRandom().nextInt(lines[i].length() + 1);
+				lines[i] = lines[i].substring(0, position) + "#)(+ ".charAt(i % 5) + lines[i].substring(position);
+			}
+		}
+		return lines;
+	}
+
+	static String expectedOutput(String[] lines, NumericMode mode)
+	{
+		//The output of converting and evaluating the lines one after the other with a single converter
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		StringBuilder output = new StringBuilder();
+		for(String line : lines)
+		{
+			converter.clearExpression();
+			try
+			{
+				converter.processInfixExpression(line);
+				String postfixExpression = converter.getPostfixExpression();
+				String value;
+				switch(mode)
+				{
+				case INT64:			value = String.valueOf(converter.evaluateLong());			break;
+				case BIG_INTEGER:	value = converter.evaluateBigInteger().toString();			break;
+				case DOUBLE:		value = String.valueOf(converter.evaluateDouble());			break;
+				default:			value = String.valueOf(converter.evaluate());				break;
+				}
+				output.append(postfixExpression).append('\t').append(value);
+			}
+			catch(InvalidTokenException e)
+			{
+				output.append(e.getMessage());
+			}
+			catch(ArithmeticException e)
+			{
+				output.append(e.getMessage() == null ? "/ by zero" : e.getMessage());
+			}
+			output.append('\n');
+		}
+		return output.toString();
+	}
+
+	static String join(String[] lines, String separator)
+	{
+		StringBuilder text = new StringBuilder();
+		for(String line : lines)
+			text.append(line).append(separator);
+		return text.toString();
+	}
+}
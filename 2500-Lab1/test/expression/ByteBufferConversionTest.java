@@ -0,0 +1,85 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that converting a region of a ByteBuffer or of a CharSequence in place gives the same result as converting the expression as a String.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.junit.function.ThrowingRunnable;
+
+public class ByteBufferConversionTest
+{
+	@Test
+	public void regionsMatchStrings()
+	{
+		String[] expressions = BatchEvaluatorTest.lines(12, 5000);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		for(int i = 0; i < expressions.length; i ++)
+		{
+			String infixExpression = expressions[i];
+			String expected = describe(converter, converter.convert(infixExpression));
+
+			//The expression between other text, so the region does not start at 0 or end at the end
+			String text = "9 + (" + infixExpression + ")x";
+			byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+			ByteBuffer buffer = i % 2 == 0 ? ByteBuffer.wrap(bytes) : ByteBuffer.allocateDirect(bytes.length);
+			if(buffer.isDirect())
+			{
+				buffer.put(bytes);
+				buffer.clear();
+			}
+			assertEquals(infixExpression, expected, describe(converter, converter.convert(buffer, 5, infixExpression.length())));
+			assertEquals(infixExpression, expected, describe(converter, converter.convert(text, 5, infixExpression.length())));
+			assertEquals(0, buffer.position());						//Read without moving the position
+		}
+	}
+
+	@Test
+	public void processInfixExpressionThrowsTheSameMessage()
+	{
+		final PostfixNotationCreator converter = new PostfixNotationCreator();
+		final ByteBuffer buffer = ByteBuffer.wrap("1 + 2 3".getBytes(StandardCharsets.US_ASCII));
+		InvalidTokenException e = assertThrows(InvalidTokenException.class, new ThrowingRunnable()
+		{
+			@Override
+			public void run() throws InvalidTokenException
+			{
+				converter.processInfixExpression(buffer, 0, buffer.capacity());
+			}
+		});
+		assertEquals("An operator must proceed the value 3", e.getReason());
+		assertThrows(IndexOutOfBoundsException.class, new ThrowingRunnable()
+		{
+			@Override
+			public void run()
+			{
+				converter.convert(buffer, 2, buffer.capacity());
+			}
+		});
+	}
+
+	private static String describe(PostfixNotationCreator converter, ConversionResult result)
+	{
+		//Everything a caller can see of a conversion: the post-fix expression and value, or the error and where it is relative to the region
+		if(!result.isValid())
+			return result.getError() + " " + result.getErrorOffset() + " " + result.getErrorLength() + " " + result.getReason();
+		String value;
+		try
+		{
+			value = String.valueOf(converter.evaluate());
+		}
+		catch(ArithmeticException e)
+		{
+			value = BatchEvaluator.messageOf(e);
+		}
+		return converter.getPostfixExpression() + "= " + value;
+	}
+}
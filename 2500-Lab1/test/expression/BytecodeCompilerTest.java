@@ -0,0 +1,96 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that the classes generated for expressions give the same results and exceptions as the interpreter.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class BytecodeCompilerTest
+{
+	@Test
+	public void generatedClassMatchesInterpreter() throws InvalidTokenException
+	{
+		RandomExpressions expressions = new RandomExpressions(10, 5);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		LongStack valueStack = new LongStack();
+		for(int i = 0; i < 1500; i ++)
+		{
+			String infixExpression = expressions.next(1 + i % 20);
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression);
+			CompiledExpression expression = converter.getCompiledExpression();
+			if(i % 2 == 1)										//Optimized expressions keep values in slots
+				expression = ExpressionOptimizer.optimize(expression);
+			GeneratedEvaluator generated = BytecodeCompiler.compile(expression);
+			for(int j = 0; j < 20; j ++)
+			{
+				long[] values = expressions.nextValues();
+				long[] expressionValues = Arrays.copyOf(values, expression.getVariableCount());
+				assertEquals(infixExpression, interpret(expression, valueStack, expressionValues), run(generated, expressionValues));
+			}
+		}
+	}
+
+	@Test
+	public void tieredExpressionSwitchesAfterThreshold() throws InvalidTokenException
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression("x * 3 + Q(y)");
+		TieredExpression expression = new TieredExpression(converter.getCompiledExpression(), 5);
+		LongStack valueStack = new LongStack();
+		for(int i = 0; i < 10; i ++)
+		{
+			assertEquals(i > 5, expression.isGenerated());
+			assertEquals(i * 3 + 4, expression.evaluate(valueStack, new long[] {i, 16}));
+		}
+		assertTrue(expression.isGenerated());
+	}
+
+	@Test
+	public void largeExpressionsAreNotGenerated() throws InvalidTokenException
+	{
+		StringBuilder infixExpression = new StringBuilder("1");
+		for(int i = 0; i < BytecodeCompiler.MAX_INSTRUCTIONS; i ++)
+			infixExpression.append("+1");
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression(infixExpression.toString());
+		assertNull(BytecodeCompiler.compile(converter.getCompiledExpression()));
+		TieredExpression expression = new TieredExpression(converter.getCompiledExpression(), 0);
+		assertEquals(BytecodeCompiler.MAX_INSTRUCTIONS + 1, expression.evaluate(new LongStack()));
+		assertFalse(expression.isGenerated());
+	}
+
+	static String interpret(CompiledExpression expression, LongStack valueStack, long[] values)
+	{
+		try
+		{
+			return String.valueOf(expression.evaluate(valueStack, values));
+		}
+		catch(ArithmeticException e)
+		{
+			return BatchEvaluator.messageOf(e);
+		}
+	}
+
+	private static String run(GeneratedEvaluator generated, long[] values)
+	{
+		try
+		{
+			return String.valueOf(generated.evaluate(values));
+		}
+		catch(ArithmeticException e)
+		{
+			return BatchEvaluator.messageOf(e);
+		}
+	}
+}
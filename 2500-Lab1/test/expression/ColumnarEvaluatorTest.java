@@ -0,0 +1,99 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that evaluating a block of rows an instruction at a time gives the same results and the same exception as evaluating the rows one by one.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ColumnarEvaluatorTest
+{
+	@Test
+	public void matchesRowByRowEvaluation() throws InvalidTokenException
+	{
+		RandomExpressions expressions = new RandomExpressions(9, 3);
+		Random random = expressions.getRandom();
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		ColumnarEvaluator evaluator = new ColumnarEvaluator();
+		LongStack valueStack = new LongStack();
+		for(int i = 0; i < 400; i ++)
+		{
+			String infixExpression = expressions.next(1 + i % 10);
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression);
+			CompiledExpression expression = converter.getCompiledExpression();
+			if(i % 2 == 1)										//Optimized expressions keep values in slots
+				expression = ExpressionOptimizer.optimize(expression);
+			int rowCount = 1 + random.nextInt(3 * ColumnarEvaluator.BLOCK_SIZE);
+			long[][] columns = new long[expression.getVariableCount()][rowCount];
+			int[][] intColumns = new int[columns.length][rowCount];
+			for(int variable = 0; variable < columns.length; variable ++)
+				for(int row = 0; row < rowCount; row ++)
+				{
+					//Mostly small values, sometimes a value that makes a late row fail
+					columns[variable][row] = random.nextInt(rowCount * 8) == 0 ? random.nextLong() >> random.nextInt(64) : random.nextInt(201) - 100;
+					intColumns[variable][row] = (int)columns[variable][row];
+				}
+
+			String expected = evaluateRows(expression, columns, rowCount, valueStack);
+			int[] results = new int[rowCount];
+			assertEquals(infixExpression, expected, evaluateColumns(evaluator, expression, columns, rowCount, results));
+			for(int variable = 0; variable < columns.length; variable ++)
+				for(int row = 0; row < rowCount; row ++)
+					columns[variable][row] = intColumns[variable][row];
+			expected = evaluateRows(expression, columns, rowCount, valueStack);
+			assertEquals(infixExpression, expected, evaluateColumns(evaluator, expression, intColumns, rowCount, results));
+		}
+	}
+
+	private static String evaluateRows(CompiledExpression expression, long[][] columns, int rowCount, LongStack valueStack)
+	{
+		//The results of the rows one by one up to the first row that fails, and its message
+		StringBuilder results = new StringBuilder();
+		long[] values = new long[columns.length];
+		for(int row = 0; row < rowCount; row ++)
+		{
+			for(int variable = 0; variable < columns.length; variable ++)
+				values[variable] = columns[variable][row];
+			try
+			{
+				results.append(expression.evaluate(valueStack, values)).append(' ');
+			}
+			catch(ArithmeticException e)
+			{
+				return results.append(BatchEvaluator.messageOf(e)).append(" (row ").append(row).append(')').toString();
+			}
+		}
+		return results.toString();
+	}
+
+	private static String evaluateColumns(ColumnarEvaluator evaluator, CompiledExpression expression, Object columns, int rowCount, int[] results)
+	{
+		//The results written by the columnar evaluator, up to the row that failed when it throws
+		String failure = null;
+		try
+		{
+			if(columns instanceof int[][])
+				evaluator.evaluate(expression, (int[][])columns, rowCount, results);
+			else
+				evaluator.evaluate(expression, (long[][])columns, rowCount, results);
+		}
+		catch(ArithmeticException e)
+		{
+			failure = e.getMessage();
+		}
+		int failedRow = failure == null ? rowCount : Integer.parseInt(failure.substring(failure.lastIndexOf("(row ") + 5, failure.length() - 1));
+		StringBuilder text = new StringBuilder();
+		for(int row = 0; row < failedRow; row ++)
+			text.append(results[row]).append(' ');
+		if(failure != null)
+			text.append(failure);
+		return text.toString();
+	}
+}
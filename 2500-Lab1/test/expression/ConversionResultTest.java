@@ -0,0 +1,71 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that the conversion results reported without exceptions agree with the InvalidTokenException thrown for the same expression.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class ConversionResultTest
+{
+	@Test
+	public void resultsMatchExceptions() throws IOException
+	{
+		String[] expressions = BatchEvaluatorTest.lines(13, 20000);
+		PostfixNotationCreator checker = new PostfixNotationCreator();
+		PostfixNotationCreator thrower = new PostfixNotationCreator();
+		int invalidCount = 0;
+		for(String infixExpression : expressions)
+		{
+			ConversionResult result = checker.convert(infixExpression);
+			String exceptionMessage = null;
+			thrower.clearExpression();
+			try
+			{
+				thrower.processInfixExpression(infixExpression);
+			}
+			catch(InvalidTokenException e)
+			{
+				exceptionMessage = e.getMessage();
+			}
+			assertEquals(infixExpression, exceptionMessage, result.getMessage());
+			if(result.isValid())
+			{
+				assertNull(result.getError());
+				assertEquals(-1, result.getErrorOffset());
+				assertEquals(thrower.getPostfixExpression(), checker.getPostfixExpression());
+				continue;
+			}
+			invalidCount++;
+			StringBuilder written = new StringBuilder();
+			result.writeMessage(written);
+			assertEquals(exceptionMessage, written.toString());
+			assertEquals(exceptionMessage, InvalidTokenException.MESSAGE_PREFIX + result.getReason());
+			assertTrue(infixExpression, result.getErrorOffset() >= 0 && result.getErrorOffset() <= infixExpression.length());
+			assertTrue(infixExpression, result.getErrorOffset() + result.getErrorLength() <= infixExpression.length());
+		}
+		assertTrue(invalidCount > 1000);
+	}
+
+	@Test
+	public void resultBelongsToTheConverter()
+	{
+		//The result is reused by the next conversion, a reason asked for before is kept
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		ConversionResult first = converter.convert("1 +");
+		String reason = first.getReason();
+		ConversionResult second = converter.convert("(1");
+		assertSame(first, second);
+		assertEquals("An operand is needed at the end of the expression", reason);
+		assertEquals(ConversionError.UNMATCHED_OPENING_PARENTHESIS, second.getError());
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that the cache returns what converting the expression returns, stays within its maximum size and counts every lookup, from one thread and
+ * from many.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ExpressionCacheTest
+{
+	@Test
+	public void matchesConversion()
+	{
+		String[] expressions = BatchEvaluatorTest.lines(7, 2000);
+		ExpressionCache cache = new ExpressionCache(300, false);
+		for(int pass = 0; pass < 3; pass ++)
+			for(String infixExpression : expressions)
+				assertEquals(infixExpression, convert(infixExpression), compile(cache, infixExpression));
+		assertEquals(3 * expressions.length, cache.getHitCount() + cache.getMissCount());
+		assertEquals(cache.getMissCount() - cache.getEvictionCount(), cache.size());
+		assertEquals(300, cache.size());
+	}
+
+	@Test
+	public void keepsTheLeastRecentlyUsedOrder() throws InvalidTokenException
+	{
+		//A cache of one entry has one segment, so the order is exact
+		ExpressionCache cache = new ExpressionCache(1, false);
+		assertEquals(1, cache.getSegmentCount());
+		CompiledExpression first = cache.compile("1 + 2");
+		assertSame(first, cache.compile("1 + 2"));
+		cache.compile("3 * 4");
+		assertEquals(1, cache.getEvictionCount());
+		assertTrue(first != cache.compile("1 + 2"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(3, cache.getMissCount());
+	}
+
+	@Test
+	public void normalizesWhitespace() throws InvalidTokenException
+	{
+		ExpressionCache cache = new ExpressionCache(16, true);
+		CompiledExpression expression = cache.compile("1 + 2");
+		assertSame(expression, cache.compile("  1   +  2 "));
+		assertEquals("1 + 2", ExpressionCache.normalize("  1   +  2 "));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void segmentsShareTheMaximumSize()
+	{
+		for(int maximumSize = 1; maximumSize < 100; maximumSize ++)
+		{
+			ExpressionCache cache = new ExpressionCache(maximumSize, false);
+			for(int i = 0; i < 1000; i ++)
+				compile(cache, Integer.toString(i));
+			assertEquals(maximumSize, cache.size());
+		}
+	}
+
+	@Test
+	public void concurrentLookupsMatchConversion() throws InterruptedException
+	{
+		final String[] expressions = BatchEvaluatorTest.lines(8, 500);
+		final String[] expected = new String[expressions.length];
+		for(int i = 0; i < expressions.length; i ++)
+			expected[i] = convert(expressions[i]);
+		final ExpressionCache cache = new ExpressionCache(200, false);
+		final AtomicReference<String> failure = new AtomicReference<String>();
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t ++)
+		{
+			final int seed = t;
+			threads[t] = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					for(int i = 0; i < 20000; i ++)
+					{
+						int index = (i * 31 + seed * 977) % expressions.length;
+						String actual = compile(cache, expressions[index]);
+						if(!actual.equals(expected[index]))
+							failure.compareAndSet(null, expressions[index] + ": " + actual);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+		assertEquals(null, failure.get());
+		assertEquals(threads.length * 20000L, cache.getHitCount() + cache.getMissCount());
+		assertTrue(cache.size() <= 200);
+	}
+
+	private static String convert(String infixExpression)
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		ConversionResult result = converter.convert(infixExpression);
+		return result.isValid() ? converter.getPostfixExpression() : result.getReason();
+	}
+
+	private static String compile(ExpressionCache cache, String infixExpression)
+	{
+		try
+		{
+			CompiledExpression expression = cache.compile(infixExpression);
+			assertNotNull(expression);
+			return expression.toString();
+		}
+		catch(InvalidTokenException e)
+		{
+			return e.getReason();
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that expressions written to a library and read back give the same results and exceptions as the expressions that were written.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class ExpressionLibraryTest
+{
+	@Test
+	public void roundTripMatchesInterpreter() throws InvalidTokenException, IOException
+	{
+		//Expressions with variables and oversized literals, every third one optimized, found by id and by text in a memory-mapped file
+		RandomExpressions expressions = new RandomExpressions(22, RandomExpressions.VARIABLE_NAMES.length);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		ExpressionLibraryWriter writer = new ExpressionLibraryWriter();
+		HashSet<String> texts = new HashSet<String>();
+		HashSet<Long> ids = new HashSet<Long>();
+		String[] infixExpressions = new String[3000];
+		CompiledExpression[] written = new CompiledExpression[infixExpressions.length];
+		long[] entryIds = new long[infixExpressions.length];
+		for(int i = 0; i < infixExpressions.length; i ++)
+		{
+			do
+				infixExpressions[i] = expressions.next(1 + i % 15);
+			while(!texts.add(infixExpressions[i]));				//Distinct texts, so a lookup by text has one answer
+			do
+				entryIds[i] = expressions.getRandom().nextLong();
+			while(!ids.add(entryIds[i]));
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpressions[i]);
+			written[i] = converter.getCompiledExpression();
+			if(i % 3 == 0)
+				written[i] = ExpressionOptimizer.optimize(written[i]);
+			writer.add(entryIds[i], infixExpressions[i], written[i]);
+		}
+		File file = File.createTempFile("expressions", ".lib");
+		try
+		{
+			writer.write(file.getPath());
+			ExpressionLibrary library = ExpressionLibrary.open(file.getPath());
+			assertEquals(infixExpressions.length, library.size());
+			LongStack valueStack = new LongStack();
+			for(int i = 0; i < infixExpressions.length; i ++)
+			{
+				int entry = library.indexOf(entryIds[i]);
+				assertEquals(entryIds[i], library.getId(entry));
+				assertEquals(entry, library.indexOf(infixExpressions[i]));
+				assertEquals(entry, library.indexOf(new StringBuilder(infixExpressions[i])));
+				assertEquals(infixExpressions[i], library.getInfixExpression(entry));
+				assertEquals(Arrays.asList(written[i].getVariableNames()), Arrays.asList(library.getVariableNames(entry)));
+				CompiledExpression copy = library.getCompiledExpression(entry);
+				assertEquals(written[i].toString(), copy.toString());
+				assertEquals(written[i].getSlotCount(), copy.getSlotCount());
+				for(int j = 0; j < 3; j ++)
+				{
+					long[] values = Arrays.copyOf(expressions.nextValues(), written[i].getVariableCount());
+					String expected = BytecodeCompilerTest.interpret(written[i], valueStack, values);
+					assertEquals(infixExpressions[i], expected, evaluate(library, entry, values));
+					assertEquals(infixExpressions[i], expected, BytecodeCompilerTest.interpret(copy, valueStack, values));
+				}
+			}
+			assertEquals(-1, library.indexOf(infixExpressions[0] + " "));
+			for(int i = 0; i < 100; i ++)
+			{
+				long id = expressions.getRandom().nextLong();
+				if(!ids.contains(id))
+					assertEquals(-1, library.indexOf(id));
+			}
+		}
+		finally
+		{
+			if(!file.delete())
+				file.deleteOnExit();						//Windows keeps a mapped file until the mapping is garbage collected
+		}
+	}
+
+	@Test
+	public void emptyAndOldLibraries() throws IOException
+	{
+		ExpressionLibrary library = read(new ExpressionLibraryWriter());
+		assertEquals(0, library.size());
+		assertEquals(-1, library.indexOf(0));
+		assertEquals(-1, library.indexOf("1 + 2"));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new ExpressionLibraryWriter().write(output);
+		byte[] bytes = output.toByteArray();
+		bytes[7] = 1;											//Version 1 records have no optimized mode
+		try
+		{
+			new ExpressionLibrary(ByteBuffer.wrap(bytes));
+			fail();
+		}
+		catch(IOException e)
+		{
+			assertEquals("Unsupported expression library version 1, expected 2", e.getMessage());
+		}
+	}
+
+	@Test
+	public void optimizedModeIsKept() throws InvalidTokenException, IOException
+	{
+		//An entry optimized for DOUBLE keeps its mode, the library's own INT32 loop refuses it
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression("8 / 4 + x");
+		CompiledExpression optimized = ExpressionOptimizer.optimize(converter.getCompiledExpression(), NumericMode.DOUBLE);
+		ExpressionLibraryWriter writer = new ExpressionLibraryWriter();
+		writer.add(1, "8 / 4 + x", optimized);
+		writer.add(2, "8 / 4 + x", ExpressionOptimizer.optimize(converter.getCompiledExpression()));
+		ExpressionLibrary library = read(writer);
+		CompiledExpression doubleEntry = library.getCompiledExpression(library.indexOf(1));
+		assertSame(NumericMode.DOUBLE, doubleEntry.getOptimizedMode());
+		assertEquals(optimized.toString(), doubleEntry.toString());
+		assertEquals(2.5, doubleEntry.evaluateDouble(new DoubleStack(), new double[] {0.5}), 0);
+		try
+		{
+			library.evaluate(library.indexOf(1), new LongStack(), new long[] {1});
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{//Folded for doubles
+		}
+		assertEquals(3, library.evaluate(library.indexOf(2), new LongStack(), new long[] {1}));
+		assertSame(NumericMode.INT32, library.getCompiledExpression(library.indexOf(2)).getOptimizedMode());
+	}
+
+	private static String evaluate(ExpressionLibrary library, int entry, long[] values)
+	{
+		//Evaluates an entry in the file and returns the value, or the message of the exception like the batch output
+		try
+		{
+			return String.valueOf(library.evaluate(entry, new LongStack(), values));
+		}
+		catch(ArithmeticException e)
+		{
+			return BatchEvaluator.messageOf(e);
+		}
+	}
+
+	private static ExpressionLibrary read(ExpressionLibraryWriter writer) throws IOException
+	{
+		//Writes the library to memory and reads it back
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		writer.write(output);
+		return new ExpressionLibrary(ByteBuffer.wrap(output.toByteArray()));
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that the metrics count what the converter and the evaluators did, and that every kind of evaluation failure is counted by the kind carried by
+ * its exception.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class ExpressionMetricsTest
+{
+	@Test
+	public void countsConversionsAndEvaluations()
+	{
+		ExpressionMetrics metrics = new ExpressionMetrics();
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.setMetrics(metrics);
+		String[] expressions = {"1 + 2 * 3", "Q(16) - 1", "(1", "2 3", "1 / 0", "2147483647 + 1", "3000000000", "x + 1"};
+		for(String infixExpression : expressions)
+		{
+			if(!converter.convert(infixExpression).isValid())
+				continue;
+			try
+			{
+				converter.evaluate(new long[] {1L << 40});
+			}
+			catch(ArithmeticException e)
+			{//Counted by the metrics
+			}
+		}
+		assertEquals(expressions.length, metrics.getExpressionCount());
+		assertEquals(6, metrics.getEvaluationCount());
+		assertEquals(1, metrics.getUnbalancedParenthesisCount());
+		assertEquals(1, metrics.getConversionFailureCount(ConversionError.VALUE_NOT_EXPECTED));
+		assertEquals(3, metrics.getOperatorCount('+'));
+		assertEquals(1, metrics.getOperatorCount('Q'));
+		assertEquals(1, metrics.getEvaluationFailureCount(EvaluationFailure.DIVIDE_BY_ZERO));
+		assertEquals(1, metrics.getEvaluationFailureCount(EvaluationFailure.OVERFLOW));
+		assertEquals(1, metrics.getEvaluationFailureCount(EvaluationFailure.OPERAND_TOO_LARGE));
+		assertEquals(1, metrics.getEvaluationFailureCount(EvaluationFailure.VARIABLE_OUT_OF_RANGE));
+	}
+
+	@Test
+	public void countsEvaluationsInEveryMode()
+	{
+		//The batch and the server evaluate through the converter in the mode given with -mode, every mode must be recorded
+		ExpressionMetrics metrics = new ExpressionMetrics();
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.setMetrics(metrics);
+		String[] expressions = {"1 + 2", "9223372036854775807 + 1", "1 / 0", "2 ^ 100000000"};
+		for(String infixExpression : expressions)
+		{
+			assertTrue(converter.convert(infixExpression).isValid());
+			for(NumericMode mode : new NumericMode[] {NumericMode.INT64, NumericMode.BIG_INTEGER, NumericMode.DOUBLE})
+			{
+				try
+				{
+					switch(mode)
+					{
+					case INT64:			converter.evaluateLong();			break;
+					case BIG_INTEGER:	converter.evaluateBigInteger();		break;
+					default:			converter.evaluateDouble();			break;
+					}
+				}
+				catch(ArithmeticException e)
+				{//Counted by the metrics
+				}
+			}
+		}
+		assertEquals(3 * expressions.length, metrics.getEvaluationCount());
+		assertEquals(3 * expressions.length, metrics.getEvaluationLatency().getCount());
+		assertEquals(2, metrics.getEvaluationFailureCount(EvaluationFailure.DIVIDE_BY_ZERO));	//INT64 and BIG_INTEGER, DOUBLE gives infinity
+		assertEquals(3, metrics.getEvaluationFailureCount(EvaluationFailure.OVERFLOW));			//The sum and the power in INT64, the power in BIG_INTEGER
+	}
+
+	@Test
+	public void failureKindComesFromTheException()
+	{
+		//The message is not read, a plain ArithmeticException is the JVM's division by zero whatever it says
+		assertEquals(EvaluationFailure.DIVIDE_BY_ZERO, EvaluationFailure.of(new ArithmeticException()));
+		assertEquals(EvaluationFailure.DIVIDE_BY_ZERO, EvaluationFailure.of(new ArithmeticException("/ by zero")));
+		assertEquals(EvaluationFailure.OVERFLOW, EvaluationFailure.of(CompiledExpression.overflow(CompiledExpression.OP_ADD)));
+		assertEquals(EvaluationFailure.OPERAND_TOO_LARGE, EvaluationFailure.of(CompiledExpression.operandTooLarge()));
+		assertEquals(EvaluationFailure.VARIABLE_OUT_OF_RANGE, EvaluationFailure.of(CompiledExpression.variableOutOfRange("x")));
+		assertEquals(EvaluationFailure.OVERFLOW, EvaluationFailure.of(new EvaluationException(EvaluationFailure.OVERFLOW, "too large by zero")));
+	}
+
+	@Test
+	public void everyEvaluatorThrowsTheKind() throws InvalidTokenException
+	{
+		//The same failure from the interpreter, a generated class and the columnar evaluator
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression("x * 3000000 + 3000000000");
+		CompiledExpression expression = converter.getCompiledExpression();
+		long[][] cases = {{1L << 33}, {3000}, {1}};
+		EvaluationFailure[] expected = {EvaluationFailure.VARIABLE_OUT_OF_RANGE, EvaluationFailure.OVERFLOW, EvaluationFailure.OPERAND_TOO_LARGE};
+		GeneratedEvaluator generated = BytecodeCompiler.compile(expression);
+		for(int i = 0; i < cases.length; i ++)
+		{
+			try
+			{
+				expression.evaluate(new LongStack(), cases[i]);
+				throw new AssertionError("No exception");
+			}
+			catch(EvaluationException e)
+			{
+				assertEquals(expected[i], e.getFailure());
+			}
+			try
+			{
+				generated.evaluate(cases[i]);
+				throw new AssertionError("No exception");
+			}
+			catch(EvaluationException e)
+			{
+				assertEquals(expected[i], e.getFailure());
+			}
+			try
+			{
+				new ColumnarEvaluator().evaluate(expression, new long[][] {cases[i]}, 1, new int[1]);
+				throw new AssertionError("No exception");
+			}
+			catch(EvaluationException e)
+			{
+				assertEquals(expected[i], e.getFailure());
+				assertTrue(e.getMessage().endsWith("(row 0)"));
+			}
+		}
+	}
+
+	@Test
+	public void reportHasEveryCounter() throws IOException
+	{
+		ExpressionMetrics metrics = new ExpressionMetrics();
+		StringBuilder report = new StringBuilder();
+		metrics.writeReport(report);
+		assertEquals(report.toString(), metrics.toString());
+		for(EvaluationFailure failure : EvaluationFailure.values())
+			assertTrue(report.toString().contains(failure.name().toLowerCase().replace('_', ' ') + " 0"));
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that optimized expressions give the same results and exceptions as the expressions they were made from.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ExpressionOptimizerTest
+{
+	@Test
+	public void optimizedMatchesInterpreter() throws InvalidTokenException
+	{
+		RandomExpressions expressions = new RandomExpressions(11, 3);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		LongStack valueStack = new LongStack();
+		int sharedCount = 0;
+		for(int i = 0; i < 20000; i ++)
+		{
+			String infixExpression = withRepeats(expressions, 1 + i % 8);
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression);
+			CompiledExpression expression = converter.getCompiledExpression();
+			CompiledExpression optimized = ExpressionOptimizer.optimize(expression);
+			assertEquals(Arrays.asList(expression.getVariableNames()), Arrays.asList(optimized.getVariableNames()));
+			if(optimized.getSlotCount() > 0)
+				sharedCount++;
+			for(int j = 0; j < 5; j ++)
+			{
+				long[] values = Arrays.copyOf(expressions.nextValues(), expression.getVariableCount());
+				assertEquals(infixExpression, BytecodeCompilerTest.interpret(expression, valueStack, values),
+						BytecodeCompilerTest.interpret(optimized, valueStack, values));
+			}
+		}
+		assertTrue(sharedCount > 1000);								//The repeats are found and kept in slots
+	}
+
+	@Test
+	public void optimizedMatchesEveryMode() throws InvalidTokenException
+	{
+		//Every mode folds with its own arithmetic, so the optimized expression is compared in the mode it was optimized for
+		RandomExpressions expressions = new RandomExpressions(12, 3);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		int foldedCount = 0;
+		for(int i = 0; i < 10000; i ++)
+		{
+			String infixExpression = withRepeats(expressions, 1 + i % 8);
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression);
+			CompiledExpression expression = converter.getCompiledExpression();
+			long[][] values = new long[3][];
+			for(int j = 0; j < values.length; j ++)
+				values[j] = Arrays.copyOf(expressions.nextValues(), expression.getVariableCount());
+			for(NumericMode mode : NumericMode.values())
+			{
+				CompiledExpression optimized = ExpressionOptimizer.optimize(expression, mode);
+				assertSame(mode, optimized.getOptimizedMode());
+				if(optimized.getInstructionCount() < expression.getInstructionCount())
+					foldedCount++;
+				for(long[] row : values)
+					assertEquals(mode + " " + infixExpression, evaluate(expression, mode, row), evaluate(optimized, mode, row));
+			}
+		}
+		assertTrue(foldedCount > 10000);
+	}
+
+	@Test
+	public void foldsWithTheArithmeticOfTheMode() throws InvalidTokenException
+	{
+		String[] expressions = {"7 / 2", "Q(2)", "C(0 - 9)", "1 < 64", "1 < 40", "0 - 5 > 1", "2 ^ 70 / (2 ^ 68)", "0 * (0 - 1) + 0", "x + 0", "7 % 0", "1 / 0"};
+		String[][] expected = {
+			{"3", "3", "3", "3.5"},
+			{"1", "1", "1", "1.4142135623730951"},
+			{"-2", "-2", "-2", "-2.080083823051904"},
+			{"1", "Error: The expression caused an overflow when performing <", "18446744073709551616", "1.8446744073709552E19"},
+			{"Error: The expression caused an overflow when performing <", "1099511627776", "1099511627776", "1.099511627776E12"},
+			{"-3", "-3", "-3", "-2.5"},
+			{"Error: The expression caused an overflow when performing ^", "Error: The expression caused an overflow when performing ^", "4", "4.0"},
+			{"0", "0", "0", "0.0"},
+			{"0", "0", "0", "0.0"},
+			{"/ by zero", "/ by zero", "BigInteger divide by zero", "NaN"},
+			{"/ by zero", "/ by zero", "BigInteger divide by zero", "Infinity"}};
+		for(int i = 0; i < expressions.length; i ++)
+			for(NumericMode mode : NumericMode.values())
+			{
+				CompiledExpression expression = compile(expressions[i], false);
+				long[] values = new long[expression.getVariableCount()];
+				assertEquals(mode + " " + expressions[i], expected[i][mode.ordinal()], evaluate(expression, mode, values));
+				assertEquals(mode + " " + expressions[i], expected[i][mode.ordinal()], evaluate(ExpressionOptimizer.optimize(expression, mode), mode, values));
+			}
+		assertEquals("7 2 / ", optimize("7 / 2", NumericMode.DOUBLE));		//3.5 cannot be kept as a constant
+		assertEquals("2 ", optimize("8 / 4", NumericMode.DOUBLE));
+		assertEquals("2 Q ", optimize("Q(2)", NumericMode.DOUBLE));
+		assertEquals("1 64 < ", optimize("1 < 64", NumericMode.INT64));
+		assertEquals("x 0 + ", optimize("x + 0", NumericMode.DOUBLE));		//Adding 0 turns -0.0 into 0.0
+		assertEquals("x ", optimize("x + 0", NumericMode.INT64));
+	}
+
+	@Test
+	public void optimizedExpressionsOnlyRunInTheirMode() throws InvalidTokenException
+	{
+		CompiledExpression optimized = ExpressionOptimizer.optimize(compile("7 / 2", false), NumericMode.DOUBLE);
+		assertSame(optimized, ExpressionOptimizer.optimize(optimized, NumericMode.DOUBLE));
+		for(NumericMode mode : new NumericMode[] {NumericMode.INT32, NumericMode.INT64, NumericMode.BIG_INTEGER})
+		{
+			try
+			{
+				evaluate(optimized, mode, new long[0]);
+				fail(mode.toString());
+			}
+			catch(IllegalArgumentException e)
+			{
+				assertEquals("The expression was optimized for the DOUBLE mode and cannot be evaluated in the " + mode + " mode", e.getMessage());
+			}
+		}
+		try
+		{
+			ExpressionOptimizer.optimize(optimized);
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{//Its constants cannot be folded again for another mode
+		}
+		try
+		{
+			BytecodeCompiler.compile(optimized);
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{//Generated code evaluates in the INT32 mode
+		}
+		try
+		{
+			new ParallelEvaluator(optimized);
+			fail();
+		}
+		catch(IllegalArgumentException e)
+		{//Spans are evaluated in the INT32 mode
+		}
+		assertEquals(null, compile("7 / 2", false).getOptimizedMode());
+	}
+
+	@Test
+	public void foldsAndShares() throws InvalidTokenException
+	{
+		assertEquals("10 ", optimize("2 * 3 + 4"));
+		assertEquals("x ", optimize("x * 1 + 0"));
+		assertEquals("x 2 + x 2 + * ", optimize("(x + 2) * (x + 2)"));
+		assertEquals(1, compile("(x + 2) * (x + 2)", true).getSlotCount());
+		assertEquals("1 0 / ", optimize("1 / 0"));				//Still throws when evaluated
+		CompiledExpression optimized = compile("(x + 2) * (x + 2)", true);
+		assertSame(optimized, ExpressionOptimizer.optimize(optimized));
+	}
+
+	private static String withRepeats(RandomExpressions expressions, int operandCount)
+	{
+		//Half of the expressions use the same subexpression more than once
+		String part = expressions.next(operandCount);
+		if(expressions.getRandom().nextBoolean())
+			return part;
+		return "(" + part + ") + C(" + part + ") % (" + expressions.next(2) + " - (" + part + "))";
+	}
+
+	private static String optimize(String infixExpression) throws InvalidTokenException
+	{
+		return compile(infixExpression, true).toString();
+	}
+
+	private static String optimize(String infixExpression, NumericMode mode) throws InvalidTokenException
+	{
+		return ExpressionOptimizer.optimize(compile(infixExpression, false), mode).toString();
+	}
+
+	private static String evaluate(CompiledExpression expression, NumericMode mode, long[] values)
+	{
+		//Evaluates in a mode and returns the value, or the message of the exception like the batch output
+		try
+		{
+			switch(mode)
+			{
+			case INT64:
+				return String.valueOf(expression.evaluateLong(new LongStack(), values));
+			case BIG_INTEGER:
+				BigInteger[] bigValues = new BigInteger[values.length];
+				for(int i = 0; i < values.length; i ++)
+					bigValues[i] = BigInteger.valueOf(values[i]);
+				return expression.evaluateBigInteger(bigValues).toString();
+			case DOUBLE:
+				double[] doubleValues = new double[values.length];
+				for(int i = 0; i < values.length; i ++)
+					doubleValues[i] = values[i];
+				return String.valueOf(expression.evaluateDouble(new DoubleStack(), doubleValues));
+			default:
+				return String.valueOf(expression.evaluate(new LongStack(), values));
+			}
+		}
+		catch(ArithmeticException e)
+		{
+			return BatchEvaluator.messageOf(e);
+		}
+	}
+
+	private static CompiledExpression compile(String infixExpression, boolean optimize) throws InvalidTokenException
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression(infixExpression);
+		return optimize ? ExpressionOptimizer.optimize(converter.getCompiledExpression()) : converter.getCompiledExpression();
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests of the line protocol of ExpressionServer over a local connection.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class ExpressionServerTest
+{
+	@Test
+	public void pipelinedLinesMatchBatchOutput() throws Exception
+	{
+		//Every line is sent before any answer is read, the answers must still be the batch output in order
+		String[] lines = BatchEvaluatorTest.lines(15, 5000);
+		assertEquals(BatchEvaluatorTest.expectedOutput(lines, NumericMode.INT32), exchange(BatchEvaluatorTest.join(lines, "\r\n")));
+	}
+
+	@Test
+	public void lastLineIsAnsweredWhenTheClientCloses() throws Exception
+	{
+		assertEquals("1 2 + \t3\n2 3 * \t6\n", exchange("1 + 2\n2 * 3"));
+	}
+
+	@Test
+	public void tooLongLineIsAnsweredOnce() throws Exception
+	{
+		//A line of 3 MiB is read as several full buffers, followed by a valid line
+		char[] longLine = new char[3 << 20];
+		Arrays.fill(longLine, '1');
+		String answers = exchange(new String(longLine) + "\n1 + 2\n");
+		assertEquals(InvalidTokenException.MESSAGE_PREFIX + "The expression is longer than " + ExpressionServer.MAX_LINE_LENGTH + " characters\n"
+				+ "1 2 + \t3\n", answers);
+	}
+
+	private static String exchange(final String request) throws Exception
+	{
+		//Starts a server, sends the request from another thread while reading the answers until the server closes the connection
+		final ExpressionServer server = new ExpressionServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+		Thread serverThread = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					server.run();
+				}
+				catch(IOException e)
+				{
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		serverThread.start();
+		final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+		try
+		{
+			Thread writer = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						OutputStream output = socket.getOutputStream();
+						output.write(request.getBytes(StandardCharsets.US_ASCII));
+						output.flush();
+						socket.shutdownOutput();
+					}
+					catch(IOException e)
+					{
+						throw new IllegalStateException(e);
+					}
+				}
+			};
+			writer.start();
+			ByteArrayOutputStream answers = new ByteArrayOutputStream();
+			InputStream input = socket.getInputStream();
+			byte[] buffer = new byte[1 << 16];
+			int readCount;
+			while((readCount = input.read(buffer)) >= 0)
+				answers.write(buffer, 0, readCount);
+			writer.join();
+			return answers.toString("US-ASCII");
+		}
+		finally
+		{
+			socket.close();
+			server.close();
+			serverThread.join();
+		}
+	}
+}
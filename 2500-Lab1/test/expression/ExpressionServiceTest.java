@@ -0,0 +1,82 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that one ExpressionService shared by many threads gives every thread the same results as a converter of its own.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ExpressionServiceTest
+{
+	@Test
+	public void sharedServiceMatchesConverter() throws InterruptedException
+	{
+		final String[] expressions = BatchEvaluatorTest.lines(14, 2000);
+		final String[] expected = new String[expressions.length];
+		for(int i = 0; i < expressions.length; i ++)
+			expected[i] = evaluate(expressions[i]);
+		final ExpressionService service = new ExpressionService(2);		//Fewer pooled converters than threads
+		final AtomicReference<String> failure = new AtomicReference<String>();
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t ++)
+		{
+			final int start = t * 251;
+			threads[t] = new Thread()
+			{
+				@Override
+				public void run()
+				{
+					LongStack valueStack = new LongStack();
+					for(int i = 0; i < 3 * expressions.length; i ++)
+					{
+						int index = (start + i) % expressions.length;
+						String actual;
+						try
+						{
+							actual = i % 2 == 0 ? String.valueOf(service.evaluate(expressions[index]))
+									: String.valueOf(service.compile(expressions[index]).evaluate(valueStack));
+						}
+						catch(InvalidTokenException e)
+						{
+							actual = e.getMessage();
+						}
+						catch(ArithmeticException e)
+						{
+							actual = BatchEvaluator.messageOf(e);
+						}
+						if(!actual.equals(expected[index]))
+							failure.compareAndSet(null, expressions[index] + ": expected " + expected[index] + " but was " + actual);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+		assertEquals(null, failure.get());
+	}
+
+	private static String evaluate(String infixExpression)
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		try
+		{
+			converter.processInfixExpression(infixExpression);
+			return String.valueOf(converter.evaluate());
+		}
+		catch(InvalidTokenException e)
+		{
+			return e.getMessage();
+		}
+		catch(ArithmeticException e)
+		{
+			return BatchEvaluator.messageOf(e);
+		}
+	}
+}
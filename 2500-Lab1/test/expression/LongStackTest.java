@@ -0,0 +1,81 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests of the primitive stacks against the linked Stack they replace.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongStackTest
+{
+	@Test
+	public void longStackMatchesLinkedStack() throws StackUnderflowException
+	{
+		Random random = new Random(2);
+		LongStack stack = new LongStack(1);			//Starts small so it grows many times
+		Stack<Long> expected = new Stack<Long>();
+		for(int i = 0; i < 100000; i ++)
+		{
+			int operation = random.nextInt(8);
+			if(operation < 4 || expected.isEmpty())
+			{
+				long value = random.nextLong();
+				stack.push(value);
+				expected.push(value);
+			}
+			else if(operation < 7)
+				assertEquals(expected.pop().longValue(), stack.pop());
+			else
+				assertEquals(expected.peek().longValue(), stack.peek());
+			assertEquals(expected.isEmpty(), stack.isEmpty());
+		}
+		stack.clear();
+		assertEquals(true, stack.isEmpty());
+		assertEquals(0, stack.size());
+	}
+
+	@Test
+	public void charStackMatchesLinkedStack() throws StackUnderflowException
+	{
+		Random random = new Random(3);
+		CharStack stack = new CharStack(1);
+		Stack<Character> expected = new Stack<Character>();
+		for(int i = 0; i < 100000; i ++)
+		{
+			int operation = random.nextInt(8);
+			if(operation < 4 || expected.isEmpty())
+			{
+				char value = (char)random.nextInt(Character.MAX_VALUE + 1);
+				stack.push(value);
+				expected.push(value);
+			}
+			else if(operation < 7)
+				assertEquals(expected.pop().charValue(), stack.pop());
+			else
+				assertEquals(expected.peek().charValue(), stack.peek());
+			assertEquals(expected.isEmpty(), stack.isEmpty());
+		}
+	}
+
+	@Test
+	public void getAndSetCountFromTheBottom()
+	{
+		LongStack stack = new LongStack();
+		for(int i = 0; i < 40; i ++)
+			stack.push(i * 3L);
+		assertEquals(40, stack.size());
+		assertEquals(0, stack.get(0));
+		assertEquals(117, stack.get(39));
+		stack.set(1, -5);
+		assertEquals(-5, stack.get(1));
+		stack.ensureCapacity(1000);
+		assertEquals(117, stack.peek());
+		assertEquals(40, stack.size());
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that evaluating an expression split into spans gives the same result and the same exception as the interpreter, whichever span fails first.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class ParallelEvaluatorTest
+{
+	@Test
+	public void smallThresholdsMatchInterpreter() throws InvalidTokenException
+	{
+		//Thresholds of a few instructions split even small expressions into many spans
+		RandomExpressions expressions = new RandomExpressions(20, 3);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		LongStack valueStack = new LongStack();
+		int splitCount = 0, failureCount = 0;
+		for(int i = 0; i < 5000; i ++)
+		{
+			String infixExpression = expressions.next(1 + i % 60);
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression);
+			CompiledExpression expression = converter.getCompiledExpression();
+			ParallelEvaluator evaluator = new ParallelEvaluator(expression, 1 + i % 20);
+			if(evaluator.getSpanCount() > 1)
+				splitCount++;
+			for(int j = 0; j < 3; j ++)
+			{
+				long[] values = Arrays.copyOf(expressions.nextValues(), expression.getVariableCount());
+				String expected = BytecodeCompilerTest.interpret(expression, valueStack, values);
+				assertEquals(infixExpression, expected, evaluate(evaluator, values));
+				if(expected.startsWith("Error") || expected.equals(BatchEvaluator.DIVIDE_BY_ZERO_MESSAGE))
+					failureCount++;
+			}
+		}
+		assertTrue(splitCount > 3000);
+		assertTrue(failureCount > 1000);
+	}
+
+	@Test
+	public void largeGroupedExpressionsMatchInterpreter() throws InvalidTokenException
+	{
+		RandomExpressions expressions = new RandomExpressions(21, 5);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		LongStack valueStack = new LongStack();
+		for(int i = 0; i < 20; i ++)
+		{
+			StringBuilder infixExpression = new StringBuilder(expressions.next(500));
+			for(int group = 0; group < 40; group ++)			//Many groups, each split into many spans at small thresholds
+				infixExpression.append(group % 2 == 0 ? " + (" : " % C(").append(expressions.next(200)).append(')');
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression.toString());
+			CompiledExpression expression = converter.getCompiledExpression();
+			for(int threshold : new int[] {1, 3, 17, 256, ParallelEvaluator.DEFAULT_THRESHOLD})
+			{
+				ParallelEvaluator evaluator = new ParallelEvaluator(expression, threshold);
+				for(int j = 0; j < 3; j ++)
+				{
+					long[] values = Arrays.copyOf(expressions.nextValues(), expression.getVariableCount());
+					assertEquals("threshold " + threshold, BytecodeCompilerTest.interpret(expression, valueStack, values), evaluate(evaluator, values));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void firstFailureInPostfixOrderIsThrown() throws InvalidTokenException
+	{
+		//Every group fails in another way; the later spans are often done first, the first failure must still win every time
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression("(x * 1 * 1 * 1 * 1 / y) + (2147483647 + 1 + 1 + 1) + (1 * 1 * 1 * 1 / 0) + (y * 3000000000)");
+		CompiledExpression expression = converter.getCompiledExpression();
+		ParallelEvaluator evaluator = new ParallelEvaluator(expression, 2);
+		assertTrue(evaluator.getSpanCount() > 4);
+		LongStack valueStack = new LongStack();
+		long[][] cases = {{1, 0}, {1, 1}, {1L << 40, 1}};
+		for(long[] values : cases)
+		{
+			String expected = BytecodeCompilerTest.interpret(expression, valueStack, values);
+			for(int i = 0; i < 500; i ++)
+				assertEquals(expected, evaluate(evaluator, values));
+		}
+	}
+
+	@Test
+	public void optimizedExpressionIsNotSplit() throws InvalidTokenException
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression("(x + 2) * (x + 2) - (x + 2) / 3");
+		CompiledExpression optimized = ExpressionOptimizer.optimize(converter.getCompiledExpression());
+		ParallelEvaluator evaluator = new ParallelEvaluator(optimized, 1);
+		assertEquals(0, evaluator.getSpanCount());
+		for(long x : new long[] {-2, 7, 1L << 20, 1L << 40})
+		{
+			long[] values = {x};
+			assertEquals(BytecodeCompilerTest.interpret(optimized, new LongStack(), values), evaluate(evaluator, values));
+		}
+	}
+
+	private static String evaluate(ParallelEvaluator evaluator, long[] values)
+	{
+		try
+		{
+			return String.valueOf(evaluator.evaluate(POOL, values));
+		}
+		catch(ArithmeticException e)
+		{
+			return BatchEvaluator.messageOf(e);
+		}
+	}
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);		//More threads than the common pool has on small machines, its threads are daemons
+}
@@ -0,0 +1,188 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests of converting infix expressions to post-fix instructions and evaluating them with PostfixNotationCreator.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PostfixNotationCreatorTest
+{
+	@Test
+	public void evaluatesOperatorsLeftToRight()
+	{
+		//Every binary operator has the same precedence
+		assertEquals(20, evaluate("2+3*4"));
+		assertEquals(3, evaluate("10 - 4 - 3"));
+		assertEquals(1024, evaluate("2^10"));
+		assertEquals(16, evaluate("1<4"));
+		assertEquals(25, evaluate("100>2"));
+		assertEquals(2, evaluate("17%5"));
+		assertEquals(4, evaluate("Q(17)"));
+		assertEquals(4, evaluate("C(27)+1"));
+		assertEquals(15, evaluate("(2+3)*(4-1)"));
+	}
+
+	@Test
+	public void writesPostfixExpression() throws InvalidTokenException
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression("2+3*4");
+		assertEquals("2 3 + 4 * ", converter.getPostfixExpression());
+		converter.clearExpression();
+		converter.processInfixExpression("C(27) + (x - 1)");
+		assertEquals("27 C x 1 - + ", converter.getPostfixExpression());
+	}
+
+	@Test
+	public void reportsInvalidExpressions()
+	{
+		assertInvalid("2 3", ConversionError.VALUE_NOT_EXPECTED, 2, "An operator must proceed the value 3");
+		assertInvalid("a b", ConversionError.VARIABLE_NOT_EXPECTED, 2, "An operator must proceed the variable b");
+		assertInvalid("+2", ConversionError.MISSING_OPERAND, 0, "The operator ( + ) needs a value preceeding it");
+		assertInvalid("Q 2", ConversionError.MISSING_UNARY_PARENTHESIS, 0, "The operator ( Q ) does not contain a starting parenthesis");
+		assertInvalid("2(", ConversionError.PARENTHESIS_NOT_EXPECTED, 1, "An opening parenthesis is used when a operator is needed");
+		assertInvalid("2)", ConversionError.UNMATCHED_CLOSING_PARENTHESIS, 1, "A right parenthesis was found without a beginning left parenthesis");
+		assertInvalid("(2", ConversionError.UNMATCHED_OPENING_PARENTHESIS, 0, "A opening parenthesis ( was found without a closing parenthesis");
+		assertInvalid("2 # 3", ConversionError.UNRECOGNIZED_CHARACTER, 2, "An unrecognized character (#) was entered");
+		assertInvalid("2+", ConversionError.MISSING_FINAL_OPERAND, 2, "An operand is needed at the end of the expression");
+		assertInvalid("", ConversionError.MISSING_FINAL_OPERAND, 0, "An operand is needed at the end of the expression");
+	}
+
+	@Test
+	public void throwsWhenOutsideTheRangeOfAnInteger()
+	{
+		assertEquals("Error: The expression caused an overflow when performing +", evaluationFailure("2147483647+1"));
+		assertEquals("Error: An operand is too large", evaluationFailure("3000000000"));
+		assertEquals("Error: An operand is too large", evaluationFailure("99999999999999999999"));
+		assertEquals(2147483647, evaluate("2147483647"));
+	}
+
+	@Test
+	public void compiledExpressionMatchesConverter() throws InvalidTokenException
+	{
+		//The converter evaluates its own instructions, a CompiledExpression is a copy of them
+		RandomExpressions expressions = new RandomExpressions(1, 0);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		LongStack valueStack = new LongStack();
+		for(int i = 0; i < 20000; i ++)
+		{
+			String infixExpression = expressions.next(1 + i % 12);
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression);
+			String expected, actual;
+			try
+			{
+				expected = String.valueOf(converter.evaluate());
+			}
+			catch(ArithmeticException e)
+			{
+				expected = e.getMessage();
+			}
+			try
+			{
+				actual = String.valueOf(converter.getCompiledExpression().evaluate(valueStack));
+			}
+			catch(ArithmeticException e)
+			{
+				actual = e.getMessage();
+			}
+			assertEquals(infixExpression, expected, actual);
+		}
+	}
+
+	@Test
+	public void convertsUpToMaxOperandValues()
+	{
+		//The operand of an instruction has 24 bits, the last value that can be indexed is MAX_OPERAND
+		assertEquals(CompiledExpression.MAX_OPERAND + 2, evaluate(repeat("2", "+1", CompiledExpression.MAX_OPERAND)));
+	}
+
+	@Test
+	public void rejectsMoreThanMaxOperandValues()
+	{
+		//One more value would be written over the opcode of its instruction
+		String infixExpression = repeat("2", "+1", CompiledExpression.MAX_OPERAND + 1);
+		ConversionResult result = new PostfixNotationCreator().convert(infixExpression);
+		assertEquals(ConversionError.TOO_MANY_OPERANDS, result.getError());
+		assertEquals(infixExpression.length() - 1, result.getErrorOffset());
+		assertEquals("The expression has more than 16777216 operands", result.getReason());
+	}
+
+	@Test
+	public void instructionRejectsLargeOperands()
+	{
+		assertEquals(CompiledExpression.OP_VARIABLE | (CompiledExpression.MAX_OPERAND << CompiledExpression.OPERAND_SHIFT),
+				CompiledExpression.instruction(CompiledExpression.OP_VARIABLE, CompiledExpression.MAX_OPERAND));
+		assertThrows(IllegalStateException.class, new org.junit.function.ThrowingRunnable()
+		{
+			@Override
+			public void run()
+			{
+				CompiledExpression.instruction(CompiledExpression.OP_LOAD, CompiledExpression.MAX_OPERAND + 1);
+			}
+		});
+	}
+
+	private static int evaluate(String infixExpression)
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		try
+		{
+			converter.processInfixExpression(infixExpression);
+		}
+		catch(InvalidTokenException e)
+		{
+			throw new AssertionError(e.getMessage());
+		}
+		return converter.evaluate();
+	}
+
+	private static String evaluationFailure(final String infixExpression)
+	{
+		return assertThrows(ArithmeticException.class, new org.junit.function.ThrowingRunnable()
+		{
+			@Override
+			public void run()
+			{
+				evaluate(infixExpression);
+			}
+		}).getMessage();
+	}
+
+	private static void assertInvalid(String infixExpression, ConversionError error, int errorOffset, String reason)
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		ConversionResult result = converter.convert(infixExpression);
+		assertFalse(infixExpression, result.isValid());
+		assertEquals(infixExpression, error, result.getError());
+		assertEquals(infixExpression, errorOffset, result.getErrorOffset());
+		assertEquals(infixExpression, reason, result.getReason());
+		try
+		{
+			converter.processInfixExpression(infixExpression);
+			throw new AssertionError("No exception for " + infixExpression);
+		}
+		catch(InvalidTokenException e)
+		{
+			assertEquals(reason, e.getReason());
+			assertTrue(e.getMessage().endsWith(reason));
+		}
+	}
+
+	private static String repeat(String first, String next, int count)
+	{
+		StringBuilder text = new StringBuilder(first.length() + next.length() * count);
+		text.append(first);
+		for(int i = 0; i < count; i ++)
+			text.append(next);
+		return text.toString();
+	}
+}
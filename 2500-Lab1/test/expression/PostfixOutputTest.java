@@ -0,0 +1,69 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that every way of writing the post-fix expression writes the same text.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+public class PostfixOutputTest
+{
+	@Test
+	public void everyOutputWritesTheSameText() throws InvalidTokenException, IOException
+	{
+		RandomExpressions expressions = new RandomExpressions(4, 3);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < 20000; i ++)
+		{
+			String infixExpression = expressions.next(1 + i % 15);
+			converter.clearExpression();
+			converter.processInfixExpression(infixExpression);
+			String postfixExpression = converter.getPostfixExpression();
+			builder.setLength(0);
+			converter.writePostfixExpression(builder);
+			assertEquals(infixExpression, postfixExpression, builder.toString());
+			StringWriter writer = new StringWriter();
+			converter.getCompiledExpression().writePostfixExpression(writer);
+			assertEquals(infixExpression, postfixExpression, writer.toString());
+			assertEquals(infixExpression, postfixExpression, converter.getCompiledExpression().toString());
+			assertEquals(infixExpression, operandsOf(infixExpression), operandsOf(postfixExpression));
+		}
+	}
+
+	@Test
+	public void writesOneTokenPerInstruction() throws InvalidTokenException
+	{
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		converter.processInfixExpression("Q(x + 123456789012345678901234567890) % C(8) ^ 2");
+		assertEquals("x 123456789012345678901234567890 + Q 8 C % 2 ^ ", converter.getPostfixExpression());
+		assertEquals(converter.getCompiledExpression().getInstructionCount(), converter.getPostfixExpression().split(" ").length);
+	}
+
+	private static ArrayList<String> operandsOf(String expression)
+	{
+		//Returns the numbers and variable names of an expression in order. Converting keeps the order of the operands
+		ArrayList<String> operands = new ArrayList<String>();
+		int i = 0;
+		while(i < expression.length())
+		{
+			int start = i;
+			while(i < expression.length() && (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '_'
+					|| (expression.charAt(i) >= 'a' && expression.charAt(i) <= 'z')))
+				i++;
+			if(i > start)
+				operands.add(expression.substring(start, i));
+			else
+				i++;
+		}
+		return operands;
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Tests that converting an expression as its text arrives in chunks gives the same post-fix output, the same error and the same error offset as
+ * PostfixNotationCreator.convert() given the whole text.
+ */
+package expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PostfixStreamConverterTest
+{
+	@Test
+	public void chunksMatchConvert() throws IOException
+	{
+		String[] expressions = BatchEvaluatorTest.lines(16, 20000);
+		Random random = new Random(16);
+		int invalidCount = 0;
+		for(String infixExpression : expressions)
+			if(!compare(infixExpression, random))
+				invalidCount++;
+		assertTrue(invalidCount > 1000);
+	}
+
+	@Test
+	public void mutatedExpressionsMatchConvert() throws IOException
+	{
+		//Characters are inserted, removed and replaced anywhere, so every error is reached at every kind of position, including the end
+		RandomExpressions expressions = new RandomExpressions(17, RandomExpressions.VARIABLE_NAMES.length);
+		Random random = expressions.getRandom();
+		int invalidCount = 0;
+		for(int i = 0; i < 20000; i ++)
+		{
+			StringBuilder infixExpression = new StringBuilder(expressions.next(1 + i % 12));
+			for(int mutations = random.nextInt(3); mutations > 0; mutations--)
+			{
+				int position = random.nextInt(infixExpression.length() + 1);
+				char character = MUTATIONS.charAt(random.nextInt(MUTATIONS.length()));
+				switch(random.nextInt(3))
+				{
+				case 0:
+					infixExpression.insert(position, character);
+					break;
+				case 1:
+					if(position < infixExpression.length())
+						infixExpression.deleteCharAt(position);
+					break;
+				default:
+					if(position < infixExpression.length())
+						infixExpression.setCharAt(position, character);
+					break;
+				}
+			}
+			if(!compare(infixExpression.toString(), random))
+				invalidCount++;
+		}
+		assertTrue(invalidCount > 5000);
+	}
+
+	@Test
+	public void oversizedLiteralsMatchConvert() throws IOException
+	{
+		//Numbers around the range of a long, with leading zeros, split at every position
+		String[] expressions = {"9223372036854775807 + 1", "9223372036854775808 - 1", "000000000000000000000000009223372036854775808",
+				"123456789012345678901234567890 * 2", "Q(00099999999999999999999) + 0", "99999999999999999999x", "1 + 18446744073709551616("};
+		for(String infixExpression : expressions)
+			for(int split = 0; split <= infixExpression.length(); split++)
+				compare(infixExpression, split);
+	}
+
+	@Test
+	public void readerMatchesConvert() throws IOException
+	{
+		//A reader is read in chunks of its own and the converter is reused for the next expression
+		StringBuilder output = new StringBuilder();
+		PostfixStreamConverter streamConverter = new PostfixStreamConverter(output);
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		for(String infixExpression : BatchEvaluatorTest.lines(18, 2000))
+		{
+			output.setLength(0);
+			ConversionResult result = streamConverter.convert(new StringReader(infixExpression));
+			ConversionResult expected = converter.convert(infixExpression);
+			assertEquals(infixExpression, expected.getMessage(), result.getMessage());
+			if(expected.isValid())
+				assertEquals(infixExpression, converter.getPostfixExpression(), output.toString());
+		}
+	}
+
+	private static boolean compare(String infixExpression, Random random) throws IOException
+	{
+		//Compares the expression fed in random chunks, returns whether it is valid
+		return compare(infixExpression, random.nextInt(infixExpression.length() + 1));
+	}
+
+	private static boolean compare(String infixExpression, int split) throws IOException
+	{
+		/*
+		 * Feeds the text before split, then the rest one to three characters at a time, and compares the result with convert()
+		 * Caller Expectations: Returns whether the expression is valid
+		 */
+		StringBuilder output = new StringBuilder();
+		PostfixStreamConverter streamConverter = new PostfixStreamConverter(output);
+		char[] chars = infixExpression.toCharArray();
+		boolean valid = streamConverter.feed(chars, 0, split);
+		for(int offset = split; valid && offset < chars.length; )
+		{
+			int length = Math.min(1 + offset % 3, chars.length - offset);
+			valid = streamConverter.feed(chars, offset, length);
+			offset += length;
+		}
+		ConversionResult result = streamConverter.finish();
+		PostfixNotationCreator converter = new PostfixNotationCreator();
+		ConversionResult expected = converter.convert(infixExpression);
+		assertEquals(infixExpression, expected.getMessage(), result.getMessage());
+		assertEquals(infixExpression, expected.getError(), result.getError());
+		if(!expected.isValid())
+		{
+			assertEquals(infixExpression, expected.getErrorOffset(), result.getErrorOffset());
+			return false;
+		}
+		assertEquals(infixExpression, converter.getPostfixExpression(), output.toString());
+		return true;
+	}
+
+	private static final String MUTATIONS = "0123456789+-*/^<>%()QCx_ #\t\u0001";		//Characters put into the expressions
+}
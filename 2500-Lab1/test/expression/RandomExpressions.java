@@ -0,0 +1,99 @@
+/*
+ * Author: David Jones
+ * Date: 10/18/26
+ *
+ * Generates random infix expressions for the tests that compare two ways of converting or evaluating the same expression. The expressions use every
+ * operator, nested parentheses and roots, variables, and now and then a value outside the range of an integer or of a long, so both results and
+ * exceptions get compared. The right operand of ^, < and > is kept small so the expressions do not overflow right away.
+ */
+package expression;
+
+import java.util.Random;
+
+final class RandomExpressions
+{
+	RandomExpressions(long seed, int variableCount)
+	{
+		/*
+		 * Caller Requirements: variableCount must be between 0 and the amount of VARIABLE_NAMES
+		 * Caller Expectations: The same seed always generates the same expressions. The first variableCount names are used
+		 */
+		this.random = new Random(seed);
+		this.variableCount = variableCount;
+	}
+
+	String next(int operandCount)
+	{
+		//Returns an expression with operandCount operands, operandCount must be greater than 0
+		StringBuilder expression = new StringBuilder(operandCount * 6);
+		this.append(expression, operandCount, 0);
+		return expression.toString();
+	}
+
+	long[] nextValues()
+	{
+		//Returns a value for every variable, most of them small and a few outside the range of an integer
+		long[] values = new long[this.variableCount];
+		for(int i = 0; i < values.length; i ++)
+			values[i] = this.random.nextInt(32) == 0 ? this.random.nextLong() : this.random.nextInt(2001) - 1000;
+		return values;
+	}
+
+	Random getRandom()
+	{
+		return this.random;
+	}
+
+	private void append(StringBuilder expression, int operandCount, int depth)
+	{
+		//Writes operandCount operands joined by binary operators, with groups of them in parentheses or roots
+		char operator = 0;
+		for(int written = 0; written < operandCount; )
+		{
+			if(written > 0)
+			{
+				operator = OPERATORS.charAt(this.random.nextInt(OPERATORS.length()));
+				expression.append(this.random.nextBoolean() ? " " : "").append(operator).append(' ');
+			}
+			if(operator == '^' || operator == '<' || operator == '>')
+			{
+				expression.append(this.random.nextInt(12));
+				written++;
+				continue;
+			}
+			int remaining = operandCount - written;
+			int groupSize = depth < 6 && remaining > 1 && this.random.nextInt(4) == 0 ? 1 + this.random.nextInt(remaining) : 1;
+			if(groupSize > 1 || this.random.nextInt(10) == 0)
+			{
+				int kind = this.random.nextInt(4);
+				expression.append(kind < 2 ? "(" : kind == 2 ? "Q(" : "C(");
+				this.append(expression, groupSize, depth + 1);
+				expression.append(')');
+			}
+			else
+				this.appendOperand(expression);
+			written += groupSize;
+		}
+	}
+
+	private void appendOperand(StringBuilder expression)
+	{
+		int kind = this.random.nextInt(40);
+		if(kind < 6 && this.variableCount > 0)
+			expression.append(VARIABLE_NAMES[this.random.nextInt(this.variableCount)]);
+		else if(kind == 6)
+			expression.append(this.random.nextLong() >>> 1 + this.random.nextInt(40));
+		else if(kind == 7)
+			expression.append("123456789012345678901234567890");
+		else if(kind < 14)
+			expression.append(this.random.nextInt(100000));
+		else
+			expression.append(this.random.nextInt(100));
+	}
+
+	static final String[] VARIABLE_NAMES = {"x", "y", "z", "rate", "_n1"};
+	private static final String OPERATORS = "+-*/^<>%";
+
+	private final Random random;
+	private final int variableCount;				//Amount of VARIABLE_NAMES used
+}